@@ -0,0 +1,13 @@
+REM compila os benchmarks (bench\) junto com o compilador em out_bench, fora
+REM de out, e executa o benchmark informado, como em:
+REM   bench.bat br.ecomp.compiler.lexer.TokenStreamBenchmark
+IF EXIST out_bench (
+rmdir /s /q out_bench
+)
+mkdir out_bench\output
+dir /s /b bench\*.java > out_bench\sources.txt
+javac -encoding UTF-8 -sourcepath src;bench -d out_bench @out_bench\sources.txt
+REM os arquivos de saida da analise ficam em out_bench\output
+cd out_bench
+java -cp . %*
+cd ..
\ No newline at end of file
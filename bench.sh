@@ -0,0 +1,12 @@
+# compila os benchmarks (bench/) junto com o compilador em out_bench, fora
+# de out, e executa o benchmark informado, como em:
+#   ./bench.sh br.ecomp.compiler.lexer.TokenStreamBenchmark
+if [ -d out_bench ]
+then
+    rm -r out_bench
+fi
+mkdir -p out_bench/output
+javac -encoding UTF-8 -sourcepath src:bench -d out_bench $(find bench -name '*.java')
+# os arquivos de saida da analise ficam em out_bench/output
+cd out_bench
+java -cp . $*
\ No newline at end of file
@@ -0,0 +1,96 @@
+package br.ecomp.compiler.lexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * Mede a leitura de um arquivo grande por
+ * {@link Lexer#createTokenBuffer(File)} com 1, 2, 4 e 8 threads (veja
+ * {@link Lexer#setParallelism(int)}). Com 1 thread a leitura e
+ * sequencial; as demais sao limitadas a quantidade de processadores,
+ * exibida antes das medicoes, e o ganho delas tambem e limitado pela
+ * gravacao do arquivo lex_ e pela juncao dos trechos, que continuam
+ * sequenciais.
+ *
+ * As entradas tem cerca de 1 MB, pouco acima do tamanho a partir do qual
+ * a leitura e dividida, e 20 MB, com declaracoes, atribuicoes,
+ * comentarios e cadeias. Cada medicao e a melhor de 5.
+ *
+ * Uso: ./bench.sh br.ecomp.compiler.lexer.ParallelLexerBenchmark
+ */
+public class ParallelLexerBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+    private static final int[] STATEMENTS = {8_000, 160_000};
+    private static final int ROUNDS = 5;
+
+    /** Evita que as medicoes sejam descartadas pelo compilador. */
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        PrintStream console = System.out;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        console.printf("%d processadores\n", Runtime.getRuntime().availableProcessors());
+        for (int statements : STATEMENTS) measure(statements, console, silent);
+        if (sink == 42) console.println();
+    }
+
+    private static void measure(int statements, PrintStream console, PrintStream silent) throws IOException {
+        File input = program(statements);
+        try {
+            console.printf("entrada de %.1f MB\n", input.length() / 1e6);
+
+            // aquecimento
+            for (int round = 0; round < 2; round++)
+                for (int threads : THREADS) lex(input, threads, silent);
+
+            long sequential = 0;
+            console.printf("%10s%12s%12s\n", "threads", "ms", "aceleracao");
+            for (int threads : THREADS) {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) best = Math.min(best, lex(input, threads, silent));
+                if (threads == 1) sequential = best;
+                console.printf("%10d%12.1f%12.2f\n", threads, best / 1e6, (double) sequential / best);
+            }
+        } finally {
+            input.delete();
+        }
+    }
+
+    /**
+     * @return o tempo da leitura, em ns, incluindo a gravacao do arquivo lex_
+     */
+    private static long lex(File input, int threads, PrintStream silent) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(silent);
+        try {
+            Lexer lexer = new Lexer();
+            lexer.setParallelism(threads);
+            long start = System.nanoTime();
+            TokenBuffer tokens = lexer.createTokenBuffer(input);
+            long nanos = System.nanoTime() - start;
+            sink += tokens.size();
+            return nanos;
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static File program(int statements) throws IOException {
+        File file = new File("bench_lexer.txt");
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("var inicio inteiro contador, total; cadeia nome; fim");
+            out.println("programa inicio");
+            for (int i = 0; i < statements; i++) {
+                out.println("    { passo " + i + " da soma }");
+                out.println("    total << total + contador * 3.25 - (contador / 2);");
+                out.println("    nome << \"valor parcial do total\";");
+            }
+            out.println("fim");
+        }
+        return file;
+    }
+}
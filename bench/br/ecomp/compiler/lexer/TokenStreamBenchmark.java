@@ -0,0 +1,119 @@
+package br.ecomp.compiler.lexer;
+
+import br.ecomp.compiler.parser.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Mede o tempo da leitura de uma {@link TokenStream} e da analise
+ * ({@link Parser#parse(TokenStream, String)}) de programas com 1k a 1M
+ * tokens, compostos apenas de atribuicoes. Com a leitura em O(1) por
+ * token, o tempo por token deve se manter proximo entre os tamanhos, ou
+ * seja, o tempo total cresce linearmente com a entrada.
+ *
+ * Os tokens de cada programa sao lidos uma vez com
+ * {@link Lexer#createTokens(File)}, fora das medicoes; cada medicao e a
+ * melhor de 3.
+ *
+ * Uso: ./bench.sh br.ecomp.compiler.lexer.TokenStreamBenchmark
+ */
+public class TokenStreamBenchmark {
+
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    /** Tokens de cada atribuicao "x << y + 1;". */
+    private static final int STATEMENT_TOKENS = 6;
+    private static final int ROUNDS = 3;
+
+    /** Evita que as medicoes sejam descartadas pelo compilador. */
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        PrintStream console = System.out;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+
+        // aquecimento
+        List<Token> warmup = tokens(program(SIZES[1]), silent);
+        for (int round = 0; round < 5; round++) {
+            walk(new TokenStream(warmup));
+            parse(warmup, silent);
+        }
+
+        console.printf("%10s%14s%14s%14s%14s\n", "tokens", "leitura ms", "ns/token", "analise ms", "ns/token");
+        for (int size : SIZES) {
+            List<Token> tokens = tokens(program(size), silent);
+            long walk = Long.MAX_VALUE, parse = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                walk(new TokenStream(tokens));
+                walk = Math.min(walk, System.nanoTime() - start);
+                parse = Math.min(parse, parse(tokens, silent));
+            }
+            console.printf("%10d%14.1f%14.1f%14.1f%14.1f\n", tokens.size(),
+                    walk / 1e6, (double) walk / tokens.size(),
+                    parse / 1e6, (double) parse / tokens.size());
+        }
+        if (sink == 42) console.println();
+    }
+
+    /**
+     * Percorre a sequencia como o analisador sintatico: avanca um token
+     * por vez, olhando o token seguinte.
+     */
+    private static void walk(TokenStream stream) {
+        long count = 0;
+        while (stream.advance() != null) {
+            if (stream.peek(1) != null) count++;
+        }
+        sink += count;
+    }
+
+    /**
+     * @return o tempo da analise, em ns
+     */
+    private static long parse(List<Token> tokens, PrintStream silent) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(silent);
+        try {
+            Parser parser = new Parser();
+            TokenStream stream = new TokenStream(tokens);
+            long start = System.nanoTime();
+            parser.parse(stream, "bench_tokens.txt");
+            long nanos = System.nanoTime() - start;
+            sink += parser.getSyntaxErrorCount();
+            return nanos;
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static List<Token> tokens(File input, PrintStream silent) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(silent);
+        try {
+            return new Lexer().createTokens(input);
+        } finally {
+            System.setOut(console);
+            input.delete();
+        }
+    }
+
+    /**
+     * Grava um programa com aproximadamente a quantidade de tokens
+     * informada.
+     */
+    private static File program(int tokens) throws IOException {
+        File file = new File("bench_tokens.txt");
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("var inicio inteiro x, y; fim");
+            out.println("programa inicio");
+            for (int i = (tokens - 12) / STATEMENT_TOKENS; i > 0; i--) out.println("x << y + 1;");
+            out.println("fim");
+        }
+        return file;
+    }
+}
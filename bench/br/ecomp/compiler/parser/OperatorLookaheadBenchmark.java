@@ -0,0 +1,106 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Lexer;
+import br.ecomp.compiler.lexer.TokenBuffer;
+import br.ecomp.compiler.lexer.TokenStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * Regressao do indice de operadores usado por {@link Parser} para
+ * escolher entre expressao logica e aritmetica no valor de uma
+ * atribuicao. Mede a analise de:
+ * <ul>
+ *     <li>100k atribuicoes, metade aritmeticas e metade
+ *     relacionais/logicas;</li>
+ *     <li>10k e 100k atribuicoes iguais sem ';', em que cada valor
+ *     procuraria um operador ate o fim do bloco caso a busca nao fosse
+ *     reaproveitada.</li>
+ * </ul>
+ * Sem ';', cada atribuicao tambem gera erros sintaticos e semanticos;
+ * com o indice, o tempo por atribuicao sem ';' nao cresce de 10k para
+ * 100k. Cada medicao e a melhor de 3.
+ *
+ * Uso: ./bench.sh br.ecomp.compiler.parser.OperatorLookaheadBenchmark
+ */
+public class OperatorLookaheadBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    /** Evita que as medicoes sejam descartadas pelo compilador. */
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        PrintStream console = System.out;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+
+        // aquecimento
+        TokenBuffer warmup = tokens(program(10_000, true), silent);
+        for (int round = 0; round < 5; round++) parse(warmup, silent);
+
+        console.printf("%-28s%12s%12s%14s\n", "programa", "tokens", "ms", "ns/atribuicao");
+        run("100k atribuicoes", 100_000, true, silent);
+        run("10k atribuicoes sem ';'", 10_000, false, silent);
+        run("100k atribuicoes sem ';'", 100_000, false, silent);
+        if (sink == 42) console.println();
+    }
+
+    private static void run(String name, int statements, boolean semicolons, PrintStream silent) throws IOException {
+        TokenBuffer tokens = tokens(program(statements, semicolons), silent);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) best = Math.min(best, parse(tokens, silent));
+        System.out.printf("%-28s%12d%12.1f%14.1f\n", name, tokens.size(), best / 1e6, (double) best / statements);
+    }
+
+    /**
+     * @return o tempo da analise, em ns
+     */
+    private static long parse(TokenBuffer tokens, PrintStream silent) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(silent);
+        try {
+            Parser parser = new Parser();
+            long start = System.nanoTime();
+            parser.parse(new TokenStream(tokens), "bench_operators.txt");
+            long nanos = System.nanoTime() - start;
+            sink += parser.getSyntaxErrorCount();
+            return nanos;
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static TokenBuffer tokens(File input, PrintStream silent) throws IOException {
+        PrintStream console = System.out;
+        System.setOut(silent);
+        try {
+            return new Lexer().createTokenBuffer(input);
+        } finally {
+            System.setOut(console);
+            input.delete();
+        }
+    }
+
+    /**
+     * Grava um programa com as atribuicoes alternando entre valores
+     * aritmeticos e relacionais/logicos, com ou sem ';'.
+     */
+    private static File program(int statements, boolean semicolons) throws IOException {
+        File file = new File("bench_operators.txt");
+        String end = semicolons ? ";" : "";
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("var inicio inteiro x, y; booleano b; fim");
+            out.println("programa inicio");
+            for (int i = 0; i < statements; i += 2) {
+                out.println("x << (x + y) * 2 - y / 3" + end);
+                out.println("b << x > 1 e y <= 2 ou x = y" + end);
+            }
+            out.println("fim");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,232 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.Token.TokenType;
+
+import java.util.HashMap;
+
+/**
+ * Compara o custo das tabelas de simbolos com escopos aninhados de 1 a
+ * 64 niveis: o encadeamento de um HashMap por escopo (o desenho anterior
+ * a {@link SymbolTable}, reproduzido aqui), a {@link SymbolTable} e a
+ * {@link PersistentSymbolTable}.
+ *
+ * Para cada profundidade sao medidos a abertura dos escopos com 8
+ * simbolos cada, sobre 256 simbolos globais, seguida do fechamento
+ * (em ns por escopo), e as buscas por nomes de todos os escopos (em ns
+ * por busca).
+ *
+ * Uso: ./bench.sh br.ecomp.compiler.parser.SymbolTableBenchmark
+ */
+public class SymbolTableBenchmark {
+
+    private static final int GLOBALS = 256;
+    private static final int PER_SCOPE = 8;
+    private static final int[] DEPTHS = {1, 2, 4, 8, 16, 32, 64};
+    private static final int LOOKUPS = 1 << 20;
+    /** Quantidade de escopos abertos na medicao de cada profundidade. */
+    private static final int BUILD_SCOPES = 1 << 16;
+
+    /** Evita que as medicoes sejam descartadas pelo compilador. */
+    private static long sink;
+
+    public static void main(String[] args) {
+        Scenario[] scenarios = new Scenario[DEPTHS.length];
+        for (int i = 0; i < DEPTHS.length; i++) scenarios[i] = new Scenario(DEPTHS[i]);
+        Table[] tables = {new Chained(), new Flat(), new Persistent()};
+
+        // aquecimento
+        for (int round = 0; round < 5; round++)
+            for (Table table : tables)
+                for (Scenario s : scenarios) {
+                    table.prepare(s);
+                    table.build(s);
+                    table.lookup(s);
+                }
+
+        System.out.printf("%-12s%8s%16s%16s\n", "tabela", "niveis", "ns/escopo", "ns/busca");
+        for (Scenario s : scenarios) {
+            for (Table table : tables) {
+                table.prepare(s);
+                int rounds = BUILD_SCOPES / s.depth;
+                long start = System.nanoTime();
+                for (int i = 0; i < rounds; i++) table.build(s);
+                double build = (double) (System.nanoTime() - start) / (rounds * s.depth);
+
+                start = System.nanoTime();
+                table.lookup(s);
+                double lookup = (double) (System.nanoTime() - start) / LOOKUPS;
+                System.out.printf("%-12s%8d%16.1f%16.1f\n", table.name(), s.depth, build, lookup);
+            }
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    /**
+     * Simbolos de uma profundidade: os globais, os de cada escopo e a
+     * sequencia de nomes buscados, sorteados entre todos os escopos.
+     */
+    private static class Scenario {
+        final int depth;
+        final Symbol[] globals = new Symbol[GLOBALS];
+        final Symbol[][] scopes;
+        final Token[] lookups = new Token[LOOKUPS];
+
+        Scenario(int depth) {
+            this.depth = depth;
+            int id = 0;
+            for (int i = 0; i < GLOBALS; i++) globals[i] = symbol(id++);
+            scopes = new Symbol[depth][PER_SCOPE];
+            for (int d = 0; d < depth; d++)
+                for (int i = 0; i < PER_SCOPE; i++) scopes[d][i] = symbol(id++);
+
+            long seed = 17;
+            for (int i = 0; i < LOOKUPS; i++) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L;
+                lookups[i] = new Token(1, "v" + (int) ((seed >>> 33) % id), TokenType.IDENTIFIER,
+                        (int) ((seed >>> 33) % id));
+            }
+        }
+
+        private static Symbol symbol(int id) {
+            return new Variable(new Token(1, "v" + id, TokenType.IDENTIFIER, id), Symbol.Type.INTEIRO);
+        }
+    }
+
+    private static abstract class Table {
+        abstract String name();
+
+        /** Cria a tabela com os simbolos globais do cenario. */
+        abstract void prepare(Scenario s);
+
+        /** Abre os escopos do cenario, do mais externo ao mais interno, e os fecha. */
+        abstract void build(Scenario s);
+
+        /** Busca os nomes do cenario com todos os escopos abertos. */
+        abstract void lookup(Scenario s);
+    }
+
+    /**
+     * Um HashMap indexado pelos lexemas em cada escopo, com a busca
+     * percorrendo a cadeia de escopos.
+     */
+    private static class Chained extends Table {
+        private static class Scope {
+            final HashMap<String, Symbol> table = new HashMap<>();
+            final Scope previous;
+
+            Scope(Scope previous) {
+                this.previous = previous;
+            }
+
+            Symbol get(Token t) {
+                for (Scope env = this; env != null; env = env.previous) {
+                    Symbol s = env.table.get(t.getLexeme());
+                    if (s != null) return s;
+                }
+                return null;
+            }
+        }
+
+        private Scope globals;
+
+        String name() {
+            return "encadeada";
+        }
+
+        void prepare(Scenario s) {
+            globals = new Scope(null);
+            for (Symbol g : s.globals) globals.table.put(g.getToken().getLexeme(), g);
+        }
+
+        private Scope open(Scenario s) {
+            Scope top = globals;
+            for (Symbol[] scope : s.scopes) {
+                top = new Scope(top);
+                for (Symbol v : scope) top.table.put(v.getToken().getLexeme(), v);
+            }
+            return top;
+        }
+
+        void build(Scenario s) {
+            Scope top = open(s);
+            while (top.previous != null) top = top.previous;
+            sink += top.table.size();
+        }
+
+        void lookup(Scenario s) {
+            Scope top = open(s);
+            long found = 0;
+            for (Token t : s.lookups) if (top.get(t) != null) found++;
+            sink += found;
+        }
+    }
+
+    private static class Flat extends Table {
+        private SymbolTable table;
+
+        String name() {
+            return "plana";
+        }
+
+        void prepare(Scenario s) {
+            table = new SymbolTable();
+            for (Symbol g : s.globals) table.put(g);
+        }
+
+        void build(Scenario s) {
+            for (Symbol[] scope : s.scopes) {
+                table.enterScope();
+                for (Symbol v : scope) table.put(v);
+            }
+            for (int d = 0; d < s.depth; d++) table.exitScope();
+            sink += table.isRoot() ? 1 : 0;
+        }
+
+        void lookup(Scenario s) {
+            for (Symbol[] scope : s.scopes) {
+                table.enterScope();
+                for (Symbol v : scope) table.put(v);
+            }
+            long found = 0;
+            for (Token t : s.lookups) if (table.get(t) != null) found++;
+            for (int d = 0; d < s.depth; d++) table.exitScope();
+            sink += found;
+        }
+    }
+
+    private static class Persistent extends Table {
+        private PersistentSymbolTable globals;
+
+        String name() {
+            return "persistente";
+        }
+
+        void prepare(Scenario s) {
+            globals = PersistentSymbolTable.empty();
+            for (Symbol g : s.globals) globals = globals.put(g);
+        }
+
+        private PersistentSymbolTable open(Scenario s) {
+            PersistentSymbolTable table = globals;
+            for (Symbol[] scope : s.scopes) {
+                table = table.enterScope();
+                for (Symbol v : scope) table = table.put(v);
+            }
+            return table;
+        }
+
+        void build(Scenario s) {
+            PersistentSymbolTable table = open(s);
+            for (int d = 0; d < s.depth; d++) table = table.exitScope();
+            sink += table.isRoot() ? 1 : 0;
+        }
+
+        void lookup(Scenario s) {
+            PersistentSymbolTable table = open(s);
+            long found = 0;
+            for (Token t : s.lookups) if (table.get(t) != null) found++;
+            sink += found;
+        }
+    }
+}
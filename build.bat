@@ -2,4 +2,7 @@ IF EXIST out (
 rmdir /s /q out
 )
 mkdir out
-javac -d out src/br/ecomp/compiler/Main.java src/br/ecomp/compiler/lexer/Token.java src/br/ecomp/compiler/lexer/Lexer.java
\ No newline at end of file
+REM gera as tabelas do analisador sintatico a partir da gramatica
+javac -d out src/br/ecomp/compiler/lexer/Token.java src/br/ecomp/compiler/grammar/*.java
+java -cp out br.ecomp.compiler.grammar.TableGenerator gramatica_problema2.grm src/br/ecomp/compiler/parser/GrammarTables.java
+javac -encoding UTF-8 -sourcepath src -d out src/br/ecomp/compiler/Main.java src/br/ecomp/compiler/lexer/Token.java src/br/ecomp/compiler/lexer/Lexer.java
\ No newline at end of file
@@ -3,4 +3,7 @@ then
     rm -r out
 fi
 mkdir out
-javac -d out src/br/ecomp/compiler/Main.java src/br/ecomp/compiler/lexer/Token.java src/br/ecomp/compiler/lexer/Lexer.java
\ No newline at end of file
+# gera as tabelas do analisador sintatico a partir da gramatica
+javac -d out src/br/ecomp/compiler/lexer/Token.java src/br/ecomp/compiler/grammar/*.java
+java -cp out br.ecomp.compiler.grammar.TableGenerator gramatica_problema2.grm src/br/ecomp/compiler/parser/GrammarTables.java
+javac -encoding UTF-8 -sourcepath src -d out src/br/ecomp/compiler/Main.java src/br/ecomp/compiler/lexer/Token.java src/br/ecomp/compiler/lexer/Lexer.java
\ No newline at end of file
@@ -0,0 +1,214 @@
+package br.ecomp.compiler;
+
+import br.ecomp.compiler.parser.Parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compilacao dos arquivos de um diretorio em paralelo ({@code -jobs=N}
+ * na linha de comando). Os arquivos sao compilados num
+ * {@link ForkJoinPool} com N threads, cada uma com o seu {@link Parser};
+ * o {@link br.ecomp.compiler.lexer.Lexer} continua sendo criado para cada
+ * arquivo, pois guarda o estado da leitura de uma entrada.
+ *
+ * Enquanto um arquivo e compilado, o que a sua thread escreve no console
+ * e guardado num buffer, e as saidas sao exibidas inteiras, uma por vez,
+ * na mesma ordem em que os arquivos sao compilados um apos o outro, de
+ * modo que a saida de cada arquivo e identica a da compilacao sequencial.
+ * Ao final, e exibido um resumo com os erros e o tempo de cada arquivo.
+ */
+final class Batch {
+
+    /**
+     * Quantidade de arquivos, por thread, que podem estar compilados ou
+     * em compilacao aguardando a vez de serem exibidos.
+     */
+    private static final int PENDING_PER_THREAD = 4;
+
+    private final int parallelism;
+    private final ThreadLocal<Parser> parsers = ThreadLocal.withInitial(Parser::new);
+
+    Batch(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Compila os arquivos .txt do diretorio e dos seus subdiretorios.
+     */
+    void compile(File directory) throws IOException {
+        List<File> files = new ArrayList<>();
+        collect(directory, files);
+
+        PrintStream console = System.out;
+        Capture capture = new Capture(console);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<Result> results = new ArrayList<>(files.size());
+        long start = System.nanoTime();
+        System.setOut(new PrintStream(capture));
+        ArrayDeque<ForkJoinTask<Result>> pending = new ArrayDeque<>();
+        try {
+            int next = 0;
+            for (int i = 0; i < files.size(); i++) {
+                while (next < files.size() && next - i < parallelism * PENDING_PER_THREAD) {
+                    File file = files.get(next++);
+                    pending.add(pool.submit(() -> compile(file, capture)));
+                }
+                Result result = pending.poll().join();
+                console.write(result.output);
+                console.flush();
+                if (result.failure != null) rethrow(result.failure);
+                results.add(result);
+            }
+        } finally {
+            // apos uma falha, os arquivos ainda nao iniciados sao descartados, e os que estao em
+            // compilacao terminam com a saida no buffer, antes que o console seja restaurado
+            for (ForkJoinTask<Result> task : pending) task.cancel(false);
+            pool.shutdown();
+            awaitTermination(pool);
+            System.setOut(console);
+        }
+        summary(console, results, System.nanoTime() - start);
+    }
+
+    private static void awaitTermination(ForkJoinPool pool) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.SECONDS)) break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Lista os arquivos na ordem em que {@link Main} os compila um apos
+     * o outro.
+     */
+    private static void collect(File input, List<File> files) {
+        if (input.isDirectory()) {
+            File[] children = input.listFiles();
+            if (children != null)
+                for (File f : children) collect(f, files);
+        } else if (Main.isSource(input)) files.add(input);
+    }
+
+    private Result compile(File file, Capture capture) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        capture.begin(output);
+        long start = System.nanoTime();
+        Result result;
+        try {
+            // a thread ja le um arquivo inteiro; a leitura nao e dividida entre outras threads
+            result = Main.compile(file, parsers.get(), 1);
+        } catch (IOException | RuntimeException | Error e) {
+            result = new Result(file);
+            result.failure = e;
+        } finally {
+            System.out.flush();
+            capture.end();
+        }
+        result.nanos = System.nanoTime() - start;
+        result.output = output.toByteArray();
+        return result;
+    }
+
+    /**
+     * Interrompe a compilacao com a falha de um arquivo, como na
+     * compilacao sequencial.
+     */
+    private static void rethrow(Throwable failure) throws IOException {
+        if (failure instanceof IOException) throw (IOException) failure;
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        throw (Error) failure;
+    }
+
+    private void summary(PrintStream console, List<Result> results, long nanos) {
+        int lexical = 0, syntax = 0, semantic = 0;
+        long total = 0;
+        console.printf("Resumo da compilacao: %d arquivos, %d threads\n", results.size(), parallelism);
+        for (Result r : results) {
+            console.printf("\t%s: %d erros lexicos, %d erros sintaticos, %d erros semanticos, %.1f ms\n",
+                    r.file.getPath(), r.lexicalErrors, r.syntaxErrors, r.semanticErrors, r.nanos / 1e6);
+            lexical += r.lexicalErrors;
+            syntax += r.syntaxErrors;
+            semantic += r.semanticErrors;
+            total += r.nanos;
+        }
+        console.printf("\tTotal: %d erros lexicos, %d erros sintaticos, %d erros semanticos\n",
+                lexical, syntax, semantic);
+        console.printf("\tTempo: %.1f ms (%.1f ms somando os arquivos)\n", nanos / 1e6, total / 1e6);
+        console.flush();
+    }
+
+    /**
+     * Resultado da compilacao de um arquivo.
+     */
+    static final class Result {
+        final File file;
+        int lexicalErrors, syntaxErrors, semanticErrors;
+        long nanos;
+        /** Saida do console durante a compilacao. */
+        byte[] output;
+        /** Excecao que interrompeu a compilacao, ou null. */
+        Throwable failure;
+
+        Result(File file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * Saida instalada em {@link System#out} durante a compilacao: o que
+     * uma thread escreve entre {@link #begin(OutputStream)} e
+     * {@link #end()} vai para o buffer dela, e o que as demais threads
+     * escrevem vai direto para o console.
+     */
+    private static final class Capture extends OutputStream {
+        private final OutputStream console;
+        private final ThreadLocal<OutputStream> buffers = new ThreadLocal<>();
+
+        Capture(OutputStream console) {
+            this.console = console;
+        }
+
+        void begin(OutputStream buffer) {
+            buffers.set(buffer);
+        }
+
+        void end() {
+            buffers.remove();
+        }
+
+        private OutputStream target() {
+            OutputStream buffer = buffers.get();
+            return (buffer == null) ? console : buffer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package br.ecomp.compiler;
 
 import br.ecomp.compiler.lexer.Lexer;
+import br.ecomp.compiler.lexer.TokenStream;
 import br.ecomp.compiler.parser.Parser;
+import br.ecomp.compiler.parser.TableParser;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,14 +13,81 @@ import java.io.IOException;
  * @since 16/07/2016.
  */
 public class Main {
+
+    /**
+     * Usa o analisador lexico original no lugar do automato
+     * ({@code -legacy} na linha de comando).
+     */
+    private static boolean legacyLexer;
+
+    /**
+     * Le os tokens sob demanda durante a analise sintatica, sem
+     * construir a lista completa ({@code -stream} na linha de comando).
+     */
+    private static boolean streamTokens;
+
+    /**
+     * Grava o arquivo lex_ em segundo plano ({@code -async} na
+     * linha de comando).
+     */
+    private static boolean asyncOutput;
+
+    /**
+     * Quantidade de erros apos a qual a analise de um arquivo e
+     * interrompida ({@code -maxerrors=N} na linha de comando); 0 para
+     * nao haver limite.
+     */
+    private static int errorLimit;
+
+    /**
+     * Apenas reconhece a entrada com o analisador dirigido pelas tabelas
+     * geradas a partir da gramatica, sem a analise semantica
+     * ({@code -table} na linha de comando). As producoes em conflito na
+     * tabela sao tentadas em ordem, com retrocesso.
+     */
+    private static boolean tableParser;
+
+    /**
+     * Quantidade de threads usadas para verificar os corpos das funcoes
+     * na analise semantica ({@code -semthreads=N} na linha de comando).
+     * So as funcoes com tipo de retorno, com o primeiro parametro tipado
+     * ou, sem parametros, comecando por uma declaracao de variaveis sao
+     * verificadas em paralelo; as demais ficam com a funcao anterior, e
+     * um programa sem nenhuma delas e verificado sequencialmente.
+     */
+    private static int semanticThreads = 1;
+
+    /**
+     * Quantidade de arquivos compilados ao mesmo tempo quando a entrada e
+     * um diretorio ({@code -jobs=N} na linha de comando); com 1, os
+     * arquivos sao compilados um apos o outro.
+     */
+    private static int batchThreads = 1;
+
+    /**
+     * Analisador dos arquivos compilados um apos o outro, o mesmo para
+     * todos, para que as threads da analise semantica sejam reaproveitadas
+     * entre eles.
+     */
+    private static final Parser parser = new Parser();
+
     public static void main(String[] args) throws IOException {
 
-        final File input;
+        File input = new File("input");
 
-        if(args.length > 0) input = new File(args[0]);
-        else input = new File("input");
+        for (String arg : args) {
+            if (arg.equals("-legacy")) legacyLexer = true;
+            else if (arg.equals("-stream")) streamTokens = true;
+            else if (arg.equals("-async")) asyncOutput = true;
+            else if (arg.equals("-table")) tableParser = true;
+            else if (arg.startsWith("-maxerrors=")) errorLimit = Integer.parseInt(arg.substring("-maxerrors=".length()));
+            else if (arg.startsWith("-semthreads=")) semanticThreads = Integer.parseInt(arg.substring("-semthreads=".length()));
+            else if (arg.startsWith("-jobs=")) batchThreads = Integer.parseInt(arg.substring("-jobs=".length()));
+            else input = new File(arg);
+        }
 
-        analyze(input);
+        if (batchThreads > 1 && input.isDirectory()) new Batch(batchThreads).compile(input);
+        else analyze(input);
     }
 
     private static void analyze(File input) throws IOException {
@@ -29,14 +98,50 @@ public class Main {
                     analyze(f);
                 }
             return;
-        } else if (!input.getName().substring(
-                input.getName().lastIndexOf('.')).equals(".txt"))
+        } else if (!isSource(input))
             return;
 
-        Lexer lexer = new Lexer();
-        Parser parser = new Parser();
+        compile(input, parser, Runtime.getRuntime().availableProcessors());
+    }
+
+    static boolean isSource(File input) {
+        return input.getName().substring(input.getName().lastIndexOf('.')).equals(".txt");
+    }
+
+    /**
+     * Compila um arquivo, exibindo o andamento de cada passo no console.
+     *
+     * @param parser            analisador sintatico usado, que pode ser o
+     *                          mesmo para varios arquivos de uma thread
+     * @param lexerParallelism  threads da leitura dos arquivos grandes
+     *                          (veja {@link Lexer#setParallelism(int)})
+     * @return as quantidades de erros encontradas no arquivo
+     */
+    static Batch.Result compile(File input, Parser parser, int lexerParallelism) throws IOException {
+        Lexer lexer = new Lexer(legacyLexer);
+        lexer.setAsyncOutput(asyncOutput);
+        lexer.setParallelism(lexerParallelism);
+        parser.setErrorLimit(errorLimit);
+        parser.setSemanticParallelism(semanticThreads);
 
         System.out.println("Analisando o Arquivo: " + input.getName());
-        parser.parse(lexer.createTokens(input), input.getName());
+        TokenStream tokens;
+        if (streamTokens) {
+            lexer.open(input);
+            tokens = new TokenStream(lexer);
+        } else if (legacyLexer) {
+            tokens = new TokenStream(lexer.createTokens(input));
+        } else tokens = new TokenStream(lexer.createTokenBuffer(input));
+
+        Batch.Result result = new Batch.Result(input);
+        if (tableParser) result.syntaxErrors = new TableParser().parse(tokens, input.getName());
+        else {
+            parser.parse(tokens, input.getName());
+            result.syntaxErrors = parser.getSyntaxErrorCount();
+            result.semanticErrors = parser.getSemanticErrorCount();
+        }
+        if (streamTokens) lexer.close();
+        result.lexicalErrors = lexer.getFaultyTokenCount();
+        return result;
     }
 }
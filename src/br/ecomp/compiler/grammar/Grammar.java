@@ -0,0 +1,445 @@
+package br.ecomp.compiler.grammar;
+
+import br.ecomp.compiler.lexer.Token.TokenType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gramatica livre de contexto lida de um arquivo .grm (formato do GOLD
+ * Parser), com os conjuntos primeiro e seguinte e a tabela LL(1)
+ * calculados a partir dela.
+ *
+ * Os terminais sao os tipos de {@link TokenType}: um terminal entre
+ * aspas simples e o tipo cujo nome de exibicao termina com o mesmo
+ * lexema entre aspas (como Delimitador "("), e os terminais nomeados
+ * (id, numero_t etc.) estao em {@link #NAMED_TERMINALS}. O fim da
+ * entrada e o terminal {@link #END}. Nos simbolos das producoes, os
+ * terminais sao os ordinais dos tipos e os nao-terminais, o complemento
+ * (~) do seu indice.
+ *
+ * Ao ser lida, a gramatica e fatorada a esquerda: alternativas com o
+ * mesmo prefixo passam a ter um novo nao-terminal com os sufixos, que
+ * recebe o nome do original com um numero (como Exp_Logica_1). As
+ * alternativas mantem a ordem do arquivo, que decide os conflitos que
+ * nem o segundo token resolve, como faria uma descida recursiva que
+ * testa as alternativas em ordem.
+ */
+public class Grammar {
+
+    /** Terminal que representa o fim da entrada. */
+    public static final int END = TokenType.values().length;
+
+    /** Terminais definidos por expressoes regulares no .grm. */
+    private static final Map<String, TokenType> NAMED_TERMINALS = Map.of(
+            "id", TokenType.IDENTIFIER,
+            "numero_t", TokenType.NUMBER,
+            "caractere_t", TokenType.CHARACTER,
+            "cadeia_t", TokenType.CHAR_STRING,
+            "booleano_t", TokenType.BOOL_V);
+
+    /** Lexemas cujo tipo e exibido com outro lexema. */
+    private static final Map<String, TokenType> LEXEME_EXCEPTIONS = Map.of("/", TokenType.DIV);
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> indices = new HashMap<>();
+    /** Producoes de cada nao-terminal, na ordem do arquivo. */
+    private final List<List<Integer>> alternatives = new ArrayList<>();
+    private final List<int[]> productions = new ArrayList<>();
+    private final List<Integer> heads = new ArrayList<>();
+
+    private boolean[] nullable;
+    private BitSet[] first, follow;
+    /** Prefixos de ate dois terminais derivados de cada nao-terminal. */
+    private List<Set<Integer>> first2;
+
+    private Grammar() {
+    }
+
+    /**
+     * Le e analisa a gramatica. O simbolo inicial e o definido em
+     * "Start Symbol", ou o primeiro nao-terminal do arquivo.
+     *
+     * @throws IllegalArgumentException caso a gramatica use um
+     * nao-terminal sem producoes ou um terminal desconhecido
+     */
+    public static Grammar read(Path file) throws IOException {
+        Grammar grammar = new Grammar();
+        grammar.parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+        grammar.factor();
+        grammar.analyze();
+        return grammar;
+    }
+
+    /******************************************
+     *          Leitura do arquivo
+     *****************************************/
+
+    private void parse(List<String> lines) {
+        String start = null;
+        List<String[]> rules = new ArrayList<>(); // {cabeca, corpo}
+        for (String line : lines) {
+            line = line.replace("\uFEFF", "").strip();
+            if (line.isEmpty() || line.startsWith("!")) continue;
+            if (line.startsWith("\"")) {
+                if (line.startsWith("\"Start Symbol\""))
+                    start = line.substring(line.indexOf('<'), line.lastIndexOf('>') + 1);
+            } else if (line.startsWith("|") && !rules.isEmpty()) {
+                String[] last = rules.get(rules.size() - 1);
+                last[1] += " " + line;
+            } else if (line.startsWith("<") && line.contains("::=")) {
+                int i = line.indexOf("::=");
+                String head = line.substring(0, i).strip();
+                rules.add(new String[]{head, line.substring(i + 3)});
+                nonterminal(head);
+            } // definicoes de terminais: ja mapeados para os tipos de token
+        }
+        if (start != null) {
+            // o simbolo inicial passa a ser o primeiro nao-terminal
+            String key = key(start);
+            int index = indices.get(key);
+            names.add(0, names.remove(index));
+            indices.clear();
+            for (int i = 0; i < names.size(); i++) indices.put(key(names.get(i)), i);
+        }
+        for (int i = 0; i < names.size(); i++) alternatives.add(new ArrayList<>());
+        for (String[] rule : rules) {
+            int head = indices.get(key(rule[0]));
+            for (String body : rule[1].split("\\|", -1)) addProduction(head, symbols(body));
+        }
+        for (int i = 0; i < names.size(); i++) {
+            if (alternatives.get(i).isEmpty())
+                throw new IllegalArgumentException("Nao-terminal sem producoes: " + names.get(i));
+        }
+    }
+
+    private int nonterminal(String name) {
+        Integer index = indices.get(key(name));
+        if (index != null) return index;
+        names.add(name);
+        indices.put(key(name), names.size() - 1);
+        return names.size() - 1;
+    }
+
+    /** A gramatica nao diferencia maiusculas de minusculas. */
+    private static String key(String name) {
+        return name.toLowerCase();
+    }
+
+    private int[] symbols(String body) {
+        List<Integer> symbols = new ArrayList<>();
+        int i = 0;
+        while (i < body.length()) {
+            char c = body.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '<') {
+                int end = body.indexOf('>', i);
+                String name = body.substring(i, end + 1);
+                if (!name.equals("<>")) {
+                    Integer index = indices.get(key(name));
+                    if (index == null) throw new IllegalArgumentException("Nao-terminal sem producoes: " + name);
+                    symbols.add(~index);
+                }
+                i = end + 1;
+            } else if (c == '\'') {
+                int end = body.indexOf('\'', i + 1);
+                symbols.add(terminal(body.substring(i + 1, end)).ordinal());
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < body.length() && (Character.isLetterOrDigit(body.charAt(end)) || body.charAt(end) == '_'))
+                    end++;
+                if (end == i) throw new IllegalArgumentException("Simbolo invalido: " + body.substring(i));
+                TokenType type = NAMED_TERMINALS.get(body.substring(i, end));
+                if (type == null) throw new IllegalArgumentException("Terminal desconhecido: " + body.substring(i, end));
+                symbols.add(type.ordinal());
+                i = end;
+            }
+        }
+        return symbols.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static TokenType terminal(String lexeme) {
+        TokenType exception = LEXEME_EXCEPTIONS.get(lexeme);
+        if (exception != null) return exception;
+        for (TokenType type : TokenType.values()) {
+            String name = type.toString();
+            if (name.endsWith("\"" + lexeme + "\"") && name.indexOf('"') == name.length() - lexeme.length() - 2)
+                return type;
+        }
+        throw new IllegalArgumentException("Terminal desconhecido: '" + lexeme + "'");
+    }
+
+    private int addProduction(int head, int[] body) {
+        productions.add(body);
+        heads.add(head);
+        alternatives.get(head).add(productions.size() - 1);
+        return productions.size() - 1;
+    }
+
+    /******************************************
+     *          Fatoracao a esquerda
+     *****************************************/
+
+    /**
+     * Fatora as alternativas de cada nao-terminal que comecam com o
+     * mesmo simbolo, ate que nao reste nenhum prefixo em comum. A
+     * alternativa fatorada fica na posicao da primeira do grupo.
+     */
+    private void factor() {
+        Map<String, Integer> suffixes = new HashMap<>();
+        for (int head = 0; head < names.size(); head++) {
+            List<Integer> alts = alternatives.get(head);
+            for (int i = 0; i < alts.size(); i++) {
+                int[] body = productions.get(alts.get(i));
+                if (body.length == 0) continue;
+                List<Integer> group = new ArrayList<>();
+                for (int j = i; j < alts.size(); j++) {
+                    int[] other = productions.get(alts.get(j));
+                    if (other.length > 0 && other[0] == body[0]) group.add(alts.get(j));
+                }
+                if (group.size() == 1) continue;
+
+                int prefix = body.length;
+                for (int p : group) prefix = Math.min(prefix, commonPrefix(body, productions.get(p)));
+                String base = names.get(head).substring(1, names.get(head).length() - 1);
+                int n = suffixes.merge(base, 1, Integer::sum);
+                int suffix = nonterminal("<" + base + "_" + n + ">");
+                alternatives.add(new ArrayList<>());
+                for (int p : group) {
+                    int[] other = productions.get(p);
+                    addProduction(suffix, Arrays.copyOfRange(other, prefix, other.length));
+                }
+                int[] factored = Arrays.copyOf(body, prefix + 1);
+                factored[prefix] = ~suffix;
+                productions.set(alts.get(i), factored);
+                for (int j = group.size() - 1; j > 0; j--) alts.remove(group.get(j));
+                i--; // a alternativa fatorada ainda pode ter prefixo com as seguintes
+            }
+        }
+
+        // renumera as producoes, descartando as que foram fatoradas
+        List<int[]> bodies = new ArrayList<>();
+        heads.clear();
+        for (int head = 0; head < names.size(); head++) {
+            List<Integer> alts = alternatives.get(head);
+            for (int i = 0; i < alts.size(); i++) {
+                bodies.add(productions.get(alts.get(i)));
+                heads.add(head);
+                alts.set(i, bodies.size() - 1);
+            }
+        }
+        productions.clear();
+        productions.addAll(bodies);
+    }
+
+    private static int commonPrefix(int[] a, int[] b) {
+        int n = 0;
+        while (n < a.length && n < b.length && a[n] == b[n]) n++;
+        return n;
+    }
+
+    /******************************************
+     *        Primeiro, seguinte e LL(1)
+     *****************************************/
+
+    private void analyze() {
+        int n = names.size();
+        nullable = new boolean[n];
+        first = new BitSet[n];
+        follow = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            first[i] = new BitSet();
+            follow[i] = new BitSet();
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < productions.size(); p++) {
+                int head = heads.get(p);
+                int[] body = productions.get(p);
+                if (!nullable[head] && nullable(body, 0)) changed = nullable[head] = true;
+                BitSet f = first(body, 0);
+                if (!contains(first[head], f)) {
+                    first[head].or(f);
+                    changed = true;
+                }
+            }
+        }
+
+        follow[0].set(END);
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < productions.size(); p++) {
+                int[] body = productions.get(p);
+                for (int i = 0; i < body.length; i++) {
+                    if (body[i] >= 0) continue;
+                    BitSet f = first(body, i + 1);
+                    if (nullable(body, i + 1)) f.or(follow[heads.get(p)]);
+                    if (!contains(follow[~body[i]], f)) {
+                        follow[~body[i]].or(f);
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        first2 = new ArrayList<>();
+        for (int i = 0; i < n; i++) first2.add(new HashSet<>());
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < productions.size(); p++) {
+                if (first2.get(heads.get(p)).addAll(first2(productions.get(p)))) changed = true;
+            }
+        }
+    }
+
+    private static boolean contains(BitSet set, BitSet subset) {
+        BitSet missing = (BitSet) subset.clone();
+        missing.andNot(set);
+        return missing.isEmpty();
+    }
+
+    private boolean nullable(int[] body, int from) {
+        for (int i = from; i < body.length; i++) {
+            if (body[i] >= 0 || !nullable[~body[i]]) return false;
+        }
+        return true;
+    }
+
+    private BitSet first(int[] body, int from) {
+        BitSet f = new BitSet();
+        for (int i = from; i < body.length; i++) {
+            if (body[i] >= 0) {
+                f.set(body[i]);
+                return f;
+            }
+            f.or(first[~body[i]]);
+            if (!nullable[~body[i]]) return f;
+        }
+        return f;
+    }
+
+    /*
+     * Sequencias de ate dois terminais, codificadas como inteiros:
+     * 0 e a sequencia vazia, 1 + t a sequencia com apenas t e
+     * (1 + t) * WIDTH + 1 + u a sequencia t u.
+     */
+    private static final int WIDTH = END + 2;
+
+    private Set<Integer> first2(int[] body) {
+        Set<Integer> result = Set.of(0);
+        for (int symbol : body) {
+            Set<Integer> next = (symbol >= 0) ? Set.of(1 + symbol) : first2.get(~symbol);
+            result = concat(result, next);
+        }
+        return result;
+    }
+
+    private static Set<Integer> concat(Set<Integer> a, Set<Integer> b) {
+        Set<Integer> result = new HashSet<>();
+        for (int x : a) {
+            if (x >= WIDTH) {
+                result.add(x);
+                continue;
+            }
+            for (int y : b) {
+                if (x == 0) result.add(y);
+                else if (y == 0) result.add(x);
+                else result.add(x * WIDTH + (y >= WIDTH ? y / WIDTH : y));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Terminais que podem iniciar a producao, seguidos pelo fim da
+     * entrada ou pelo seguinte do seu nao-terminal caso ela seja anulavel.
+     */
+    public BitSet predict(int production) {
+        int[] body = productions.get(production);
+        BitSet predict = first(body, 0);
+        if (nullable(body, 0)) predict.or(follow[heads.get(production)]);
+        return predict;
+    }
+
+    /**
+     * Terminais que podem vir logo depois de t, quando a producao e
+     * escolhida com t como token atual. O seguinte do nao-terminal e
+     * usado como aproximacao do que vem depois da producao.
+     */
+    public BitSet second(int production, int t) {
+        Set<Integer> follows = new HashSet<>();
+        follow[heads.get(production)].stream().forEach(f -> follows.add(1 + f));
+        BitSet second = new BitSet();
+        for (int s : concat(first2(productions.get(production)), follows)) {
+            if (s >= WIDTH && s / WIDTH == 1 + t) second.set(s % WIDTH - 1);
+        }
+        return second;
+    }
+
+    /**
+     * Producoes previstas para cada nao-terminal e terminal (incluindo
+     * {@link #END}), na ordem da gramatica. Mais de uma producao numa
+     * posicao indica um conflito LL(1).
+     */
+    public List<List<Set<Integer>>> table() {
+        List<List<Set<Integer>>> table = new ArrayList<>();
+        for (int head = 0; head < names.size(); head++) {
+            List<Set<Integer>> row = new ArrayList<>();
+            for (int t = 0; t <= END; t++) row.add(new LinkedHashSet<>());
+            for (int p : alternatives.get(head)) {
+                predict(p).stream().forEach(t -> row.get(t).add(p));
+            }
+            table.add(row);
+        }
+        return table;
+    }
+
+    public int nonterminalCount() {
+        return names.size();
+    }
+
+    /** Nome do nao-terminal, entre &lt; e &gt;. */
+    public String name(int nonterminal) {
+        return names.get(nonterminal);
+    }
+
+    public int productionCount() {
+        return productions.size();
+    }
+
+    public int[] production(int production) {
+        return productions.get(production).clone();
+    }
+
+    public int head(int production) {
+        return heads.get(production);
+    }
+
+    public boolean nullable(int nonterminal) {
+        return nullable[nonterminal];
+    }
+
+    public BitSet first(int nonterminal) {
+        return (BitSet) first[nonterminal].clone();
+    }
+
+    public BitSet follow(int nonterminal) {
+        return (BitSet) follow[nonterminal].clone();
+    }
+}
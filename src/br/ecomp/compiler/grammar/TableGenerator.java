@@ -0,0 +1,310 @@
+package br.ecomp.compiler.grammar;
+
+import br.ecomp.compiler.lexer.Token.TokenType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gera, a partir da gramatica, a classe GrammarTables usada pelo
+ * analisador sintatico dirigido por tabelas
+ * ({@link br.ecomp.compiler.parser.TableParser}):
+ * as producoes, a tabela de previsao e os conjuntos primeiro e seguinte
+ * de cada nao-terminal, usados na recuperacao de erros.
+ *
+ * Uma posicao da tabela com mais de uma producao (conflito LL(1)) e
+ * decidida pelo token seguinte: para cada segundo token, e escolhida a
+ * producao que pode comecar com os dois tokens. Quando mais de uma
+ * pode, elas sao tentadas pelo analisador na ordem da gramatica. Os
+ * conflitos sao listados na saida padrao.
+ *
+ * Uso: TableGenerator &lt;gramatica.grm&gt; &lt;GrammarTables.java&gt;
+ */
+public class TableGenerator {
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final Grammar grammar;
+    private final String source;
+    private final StringBuilder out = new StringBuilder();
+
+    private TableGenerator(Grammar grammar, String source) {
+        this.grammar = grammar;
+        this.source = source;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Uso: TableGenerator <gramatica.grm> <GrammarTables.java>");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Grammar grammar = Grammar.read(input);
+        String code = new TableGenerator(grammar, input.getFileName().toString()).generate();
+        Files.write(Paths.get(args[1]), code.getBytes(StandardCharsets.UTF_8));
+        System.out.printf("%d nao-terminais e %d producoes gravados em %s\n",
+                grammar.nonterminalCount(), grammar.productionCount(), args[1]);
+    }
+
+    private String generate() {
+        int nonterminals = grammar.nonterminalCount();
+        line("package br.ecomp.compiler.parser;");
+        line("");
+        line("import br.ecomp.compiler.lexer.Token.TokenType;");
+        line("");
+        line("import java.util.Arrays;");
+        line("import java.util.EnumSet;");
+        line("");
+        line("/**");
+        line(" * Tabelas do analisador sintatico {@link TableParser}, geradas");
+        line(" * por {@link br.ecomp.compiler.grammar.TableGenerator} a partir de");
+        line(" * " + source + ". Nao edite este arquivo: altere a gramatica e");
+        line(" * gere as tabelas novamente (veja build.sh).");
+        line(" */");
+        line("final class GrammarTables {");
+        line("");
+        line("    /** Coluna do fim da entrada na tabela de previsao. */");
+        line("    static final int END = TokenType.values().length;");
+        line("");
+        for (int i = 0; i < nonterminals; i++)
+            line("    static final int " + constant(i) + " = " + i + ";");
+        line("");
+        line("    static final String[] NAMES = {");
+        for (int i = 0; i < nonterminals; i++)
+            line("            \"" + grammar.name(i) + "\"" + (i < nonterminals - 1 ? "," : ""));
+        line("    };");
+        line("");
+        line("    /**");
+        line("     * Lado direito de cada producao: os terminais pelo ordinal do tipo");
+        line("     * e os nao-terminais pelo complemento (~) do indice.");
+        line("     */");
+        line("    static final int[][] PRODUCTIONS = {");
+        for (int p = 0; p < grammar.productionCount(); p++) {
+            List<String> symbols = new ArrayList<>();
+            for (int symbol : grammar.production(p))
+                symbols.add((symbol >= 0) ? "t(TokenType." + TYPES[symbol].name() + ")" : "n(" + constant(~symbol) + ")");
+            line("            /* " + p + " " + describe(p) + " */");
+            line("            {" + String.join(", ", symbols) + "}" + (p < grammar.productionCount() - 1 ? "," : ""));
+        }
+        line("    };");
+        line("");
+        line("    /** Nao-terminal do lado esquerdo de cada producao. */");
+        List<String> heads = new ArrayList<>();
+        for (int p = 0; p < grammar.productionCount(); p++) heads.add(constant(grammar.head(p)));
+        wrapped("    static final int[] HEADS = {", heads, "};");
+        line("");
+        List<String> nullable = new ArrayList<>();
+        for (int i = 0; i < nonterminals; i++) nullable.add(String.valueOf(grammar.nullable(i)));
+        wrapped("    static final boolean[] NULLABLE = {", nullable, "};");
+        line("");
+        line("    /** Tokens que podem iniciar cada nao-terminal. */");
+        line("    static final EnumSet<TokenType>[] FIRST = sets(NAMES.length);");
+        line("    /**");
+        line("     * Tokens que podem seguir cada nao-terminal, usados para sincronizar");
+        line("     * a recuperacao de erros; o fim da entrada esta em FOLLOWED_BY_END.");
+        line("     */");
+        line("    static final EnumSet<TokenType>[] FOLLOW = sets(NAMES.length);");
+        line("    static final boolean[] FOLLOWED_BY_END = new boolean[NAMES.length];");
+        line("");
+        line("    /**");
+        line("     * Producao prevista para cada nao-terminal (linha) e token atual");
+        line("     * (coluna: o ordinal do tipo, ou END): -1 indica um erro, e -2 - k");
+        line("     * um conflito decidido pelo token seguinte, em SECOND[k].");
+        line("     */");
+        line("    static final int[][] TABLE = new int[NAMES.length][END + 1];");
+
+        List<List<Set<Integer>>> table = grammar.table();
+        List<String> conflicts = new ArrayList<>();
+        List<int[]> cells = new ArrayList<>(); // {nao-terminal, token}
+        for (int i = 0; i < nonterminals; i++) {
+            for (int t = 0; t <= Grammar.END; t++) {
+                if (table.get(i).get(t).size() > 1) cells.add(new int[]{i, t});
+            }
+        }
+        line("    /** Producao prevista para cada token seguinte, nos conflitos. */");
+        line("    static final int[][] SECOND = new int[" + cells.size() + "][END + 1];");
+        line("    /**");
+        line("     * Producoes possiveis nos conflitos em que o token seguinte tambem");
+        line("     * nao decide a producao, indexadas como SECOND: sao tentadas em");
+        line("     * ordem, e a primeira que reconhece a entrada e escolhida.");
+        line("     */");
+        line("    static final int[][][] AMBIGUOUS = new int[" + cells.size() + "][][];");
+        line("");
+        line("    static {");
+        for (int i = 0; i < nonterminals; i++) {
+            line("        first(" + constant(i) + types(grammar.first(i)) + ");");
+            BitSet follow = grammar.follow(i);
+            line("        follow(" + constant(i) + ", " + follow.get(Grammar.END) + types(follow) + ");");
+        }
+        line("");
+        line("        for (int[] row : TABLE) Arrays.fill(row, -1);");
+        for (int i = 0; i < nonterminals; i++) {
+            List<Set<Integer>> row = table.get(i);
+            for (int p = 0; p < grammar.productionCount(); p++) {
+                if (grammar.head(p) != i) continue;
+                BitSet predicted = new BitSet();
+                for (int t = 0; t <= Grammar.END; t++) {
+                    if (row.get(t).size() == 1 && row.get(t).contains(p)) predicted.set(t);
+                }
+                if (predicted.isEmpty()) continue;
+                if (predicted.get(Grammar.END)) line("        predictEnd(" + constant(i) + ", " + p + ");");
+                predicted.clear(Grammar.END);
+                if (!predicted.isEmpty()) line("        predict(" + constant(i) + ", " + p + types(predicted) + ");");
+            }
+        }
+        for (int k = 0; k < cells.size(); k++) {
+            int nonterminal = cells.get(k)[0], t = cells.get(k)[1];
+            List<Integer> candidates = new ArrayList<>(table.get(nonterminal).get(t));
+            line("        conflict(" + constant(nonterminal) + ", " + terminal(t) + ", " + k + ", " + candidates.get(0) + ");");
+            conflicts.add(grammar.name(nonterminal) + " com " + terminalName(t) + ": producoes " + candidates);
+
+            List<BitSet> seconds = new ArrayList<>();
+            for (int p : candidates) seconds.add(grammar.second(p, t));
+            BitSet[] chosen = new BitSet[grammar.productionCount()];
+            List<String> ambiguous = new ArrayList<>();
+            for (int u = 0; u <= Grammar.END; u++) {
+                List<Integer> matching = new ArrayList<>();
+                for (int c = 0; c < candidates.size(); c++) {
+                    if (seconds.get(c).get(u)) matching.add(candidates.get(c));
+                }
+                int choice = matching.isEmpty() ? -1 : matching.get(0);
+                if (matching.size() > 1) {
+                    conflicts.add("    seguido de " + terminalName(u) + ": producoes " + matching + ", por tentativa");
+                    StringBuilder call = new StringBuilder("        ambiguous(" + k + ", " + terminal(u));
+                    for (int p : matching) call.append(", ").append(p);
+                    ambiguous.add(call.append(");").toString());
+                }
+                if (choice < 0 || choice == candidates.get(0)) continue;
+                if (chosen[choice] == null) chosen[choice] = new BitSet();
+                chosen[choice].set(u);
+            }
+            for (int p = 0; p < chosen.length; p++) {
+                if (chosen[p] == null) continue;
+                if (chosen[p].get(Grammar.END)) line("        secondEnd(" + k + ", " + p + ");");
+                chosen[p].clear(Grammar.END);
+                if (!chosen[p].isEmpty()) line("        second(" + k + ", " + p + types(chosen[p]) + ");");
+            }
+            for (String call : ambiguous) line(call);
+        }
+        line("    }");
+        line("");
+        line("    private GrammarTables() {");
+        line("    }");
+        line("");
+        line("    private static int t(TokenType type) {");
+        line("        return type.ordinal();");
+        line("    }");
+        line("");
+        line("    private static int n(int nonterminal) {");
+        line("        return ~nonterminal;");
+        line("    }");
+        line("");
+        line("    @SuppressWarnings(\"unchecked\")");
+        line("    private static EnumSet<TokenType>[] sets(int size) {");
+        line("        EnumSet<TokenType>[] sets = (EnumSet<TokenType>[]) new EnumSet<?>[size];");
+        line("        for (int i = 0; i < size; i++) sets[i] = EnumSet.noneOf(TokenType.class);");
+        line("        return sets;");
+        line("    }");
+        line("");
+        line("    private static void first(int nonterminal, TokenType... types) {");
+        line("        FIRST[nonterminal].addAll(Arrays.asList(types));");
+        line("    }");
+        line("");
+        line("    private static void follow(int nonterminal, boolean end, TokenType... types) {");
+        line("        FOLLOW[nonterminal].addAll(Arrays.asList(types));");
+        line("        FOLLOWED_BY_END[nonterminal] = end;");
+        line("    }");
+        line("");
+        line("    private static void predict(int nonterminal, int production, TokenType... types) {");
+        line("        for (TokenType type : types) TABLE[nonterminal][type.ordinal()] = production;");
+        line("    }");
+        line("");
+        line("    private static void predictEnd(int nonterminal, int production) {");
+        line("        TABLE[nonterminal][END] = production;");
+        line("    }");
+        line("");
+        line("    private static void conflict(int nonterminal, int type, int k, int production) {");
+        line("        TABLE[nonterminal][type] = -2 - k;");
+        line("        Arrays.fill(SECOND[k], production);");
+        line("    }");
+        line("");
+        line("    private static void second(int k, int production, TokenType... types) {");
+        line("        for (TokenType type : types) SECOND[k][type.ordinal()] = production;");
+        line("    }");
+        line("");
+        line("    private static void secondEnd(int k, int production) {");
+        line("        SECOND[k][END] = production;");
+        line("    }");
+        line("");
+        line("    private static void ambiguous(int k, int type, int... productions) {");
+        line("        if (AMBIGUOUS[k] == null) AMBIGUOUS[k] = new int[END + 1][];");
+        line("        AMBIGUOUS[k][type] = productions;");
+        line("    }");
+        line("}");
+
+        System.out.println(conflicts.isEmpty() ? "Nenhum conflito LL(1)" : "Conflitos LL(1):");
+        for (String conflict : conflicts) System.out.println("\t" + conflict);
+        return out.toString();
+    }
+
+    private void line(String line) {
+        out.append(line).append('\n');
+    }
+
+    /**
+     * Escreve uma lista de valores, quebrando as linhas longas.
+     */
+    private void wrapped(String start, List<String> values, String end) {
+        line(start);
+        StringBuilder current = new StringBuilder("           ");
+        for (int i = 0; i < values.size(); i++) {
+            String value = " " + values.get(i) + (i < values.size() - 1 ? "," : "");
+            if (current.length() + value.length() > 100) {
+                line(current.toString());
+                current = new StringBuilder("           ");
+            }
+            current.append(value);
+        }
+        line(current.toString());
+        line("    " + end);
+    }
+
+    /** Nome da constante de um nao-terminal, como EXP_LOGICA para &lt;Exp_Logica&gt;. */
+    private String constant(int nonterminal) {
+        String name = grammar.name(nonterminal);
+        return name.substring(1, name.length() - 1).toUpperCase();
+    }
+
+    private String describe(int production) {
+        StringBuilder s = new StringBuilder(grammar.name(grammar.head(production))).append(" ::=");
+        int[] body = grammar.production(production);
+        if (body.length == 0) s.append(" <>");
+        for (int symbol : body) {
+            s.append(' ');
+            s.append((symbol >= 0) ? TYPES[symbol].name() : grammar.name(~symbol));
+        }
+        return s.toString();
+    }
+
+    /** Lista ", TokenType.X, TokenType.Y" com os tipos do conjunto, sem o fim da entrada. */
+    private static String types(BitSet set) {
+        StringBuilder s = new StringBuilder();
+        set.stream().filter(t -> t != Grammar.END).forEach(t -> s.append(", TokenType.").append(TYPES[t].name()));
+        return s.toString();
+    }
+
+    private static String terminal(int t) {
+        return (t == Grammar.END) ? "END" : "TokenType." + TYPES[t].name() + ".ordinal()";
+    }
+
+    private static String terminalName(int t) {
+        return (t == Grammar.END) ? "fim da entrada" : TYPES[t].toString();
+    }
+}
@@ -0,0 +1,44 @@
+package br.ecomp.compiler.lexer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Visao de um array de bytes ASCII como uma sequencia de caracteres,
+ * usada quando o {@link Lexer} le a entrada sem decodifica-la. Cada
+ * byte corresponde a um caractere; o array nao e copiado.
+ */
+class AsciiSequence implements CharSequence {
+
+    private final byte[] bytes;
+    private final int offset, length;
+
+    AsciiSequence(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    AsciiSequence(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bytes[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(bytes, offset + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
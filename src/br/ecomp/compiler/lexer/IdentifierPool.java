@@ -0,0 +1,97 @@
+package br.ecomp.compiler.lexer;
+
+/**
+ * Tabela de internacao dos lexemas dos identificadores. Cada nome
+ * distinto recebe um id inteiro denso (0, 1, 2, ...) e uma unica
+ * instancia de {@link String}, compartilhada por todas as ocorrencias
+ * do identificador. A {@link br.ecomp.compiler.parser.SymbolTable}
+ * usa esses ids como chave, comparando inteiros em vez de strings.
+ */
+public class IdentifierPool {
+
+    private String[] names;
+    private int[] hashes;
+    /** Enderecamento aberto: guarda id + 1 de cada nome, ou 0 se vazio. */
+    private int[] slots;
+    private int size;
+
+    public IdentifierPool() {
+        names = new String[64];
+        hashes = new int[64];
+        slots = new int[128];
+    }
+
+    /**
+     * Retorna o id do trecho informado, cadastrando-o caso ainda nao
+     * exista. O trecho so e copiado para uma nova string no primeiro
+     * cadastro.
+     */
+    public int intern(CharSequence source, int start, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) hash = 31 * hash + source.charAt(start + i);
+
+        int mask = slots.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                String name = source.subSequence(start, start + length).toString();
+                return add(name, hash, slot);
+            }
+            if (hashes[id] == hash && matches(names[id], source, start, length)) return id;
+        }
+    }
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * Retorna o nome cadastrado com o id informado.
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            String[] n = new String[size * 2];
+            System.arraycopy(names, 0, n, 0, size);
+            names = n;
+            int[] h = new int[size * 2];
+            System.arraycopy(hashes, 0, h, 0, size);
+            hashes = h;
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) rehash();
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence source, int start, int length) {
+        if (name.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != source.charAt(start + i)) return false;
+        }
+        return true;
+    }
+}
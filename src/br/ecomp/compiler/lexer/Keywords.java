@@ -0,0 +1,123 @@
+package br.ecomp.compiler.lexer;
+
+import java.util.ArrayList;
+
+/**
+ * Reconhecimento das palavras reservadas e dos valores booleanos por
+ * hash perfeito. As palavras sao extraidas de {@link Token.TokenType}:
+ * todo tipo cujo nome de exibicao termina com uma palavra entre aspas
+ * formada apenas por letras (como Palavra Reservada "se") e uma palavra
+ * reservada, de modo que novas palavras reservadas sao reconhecidas
+ * apenas adicionando o tipo ao enum. Os valores booleanos, que
+ * compartilham o tipo {@link Token.TokenType#BOOL_V}, sao
+ * adicionados a parte.
+ *
+ * Na carga da classe, e procurado um multiplicador que leve o hash de
+ * cada palavra a uma posicao distinta da tabela. Assim, classificar um
+ * lexema custa um hash, uma consulta e uma comparacao, sem criar strings.
+ */
+class Keywords {
+
+    private static final String[] BOOLEAN_VALUES = {"verdadeiro", "falso"};
+
+    private static final String[] WORDS;
+    private static final Token.TokenType[] TYPES;
+    private static final int MULTIPLIER, SHIFT;
+    private static final int MIN_LENGTH, MAX_LENGTH;
+
+    static {
+        ArrayList<String> words = new ArrayList<>();
+        ArrayList<Token.TokenType> types = new ArrayList<>();
+        for (Token.TokenType type : Token.TokenType.values()) {
+            String name = type.toString();
+            int end = name.length() - 1;
+            int start = name.lastIndexOf('"', end - 1) + 1;
+            if (start == 0 || name.charAt(end) != '"' || start == end) continue;
+            String word = name.substring(start, end);
+            if (word.chars().allMatch(Character::isLetter)) {
+                words.add(word);
+                types.add(type);
+            }
+        }
+        for (String word : BOOLEAN_VALUES) {
+            words.add(word);
+            types.add(Token.TokenType.BOOL_V);
+        }
+
+        int min = Integer.MAX_VALUE, max = 0;
+        int[] hashes = new int[words.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            String word = words.get(i);
+            hashes[i] = hash(word, 0, word.length());
+            min = Math.min(min, word.length());
+            max = Math.max(max, word.length());
+        }
+        MIN_LENGTH = min;
+        MAX_LENGTH = max;
+
+        // procura um multiplicador sem colisoes, aumentando a tabela se necessario
+        int bits = 32 - Integer.numberOfLeadingZeros(hashes.length * 2 - 1);
+        int multiplier = 1;
+        while (!isPerfect(hashes, multiplier, 32 - bits)) {
+            multiplier += 2;
+            if (multiplier > 1 << 16) {
+                multiplier = 1;
+                bits++;
+            }
+        }
+        MULTIPLIER = multiplier;
+        SHIFT = 32 - bits;
+
+        WORDS = new String[1 << bits];
+        TYPES = new Token.TokenType[1 << bits];
+        for (int i = 0; i < hashes.length; i++) {
+            int slot = slot(hashes[i], MULTIPLIER, SHIFT);
+            WORDS[slot] = words.get(i);
+            TYPES[slot] = types.get(i);
+        }
+    }
+
+    private Keywords() {
+    }
+
+    /**
+     * Retorna o tipo da palavra reservada ou do valor booleano
+     * correspondente ao trecho informado, ou
+     * {@link Token.TokenType#IDENTIFIER} caso nao seja nenhum deles.
+     */
+    static Token.TokenType type(CharSequence source, int start, int length) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return Token.TokenType.IDENTIFIER;
+
+        int slot = slot(hash(source, start, length), MULTIPLIER, SHIFT);
+        String word = WORDS[slot];
+        if (word == null || word.length() != length) return Token.TokenType.IDENTIFIER;
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != source.charAt(start + i)) return Token.TokenType.IDENTIFIER;
+        }
+        return TYPES[slot];
+    }
+
+    static Token.TokenType type(String lexeme) {
+        return type(lexeme, 0, lexeme.length());
+    }
+
+    private static boolean isPerfect(int[] hashes, int multiplier, int shift) {
+        boolean[] used = new boolean[1 << (32 - shift)];
+        for (int hash : hashes) {
+            int slot = slot(hash, multiplier, shift);
+            if (used[slot]) return false;
+            used[slot] = true;
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence source, int start, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) hash = 31 * hash + source.charAt(start + i);
+        return hash;
+    }
+
+    private static int slot(int hash, int multiplier, int shift) {
+        return (hash * multiplier) >>> shift;
+    }
+}
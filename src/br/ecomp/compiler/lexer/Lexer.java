@@ -1,7 +1,21 @@
 package br.ecomp.compiler.lexer;
 
 import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 /**
@@ -10,22 +24,84 @@ import java.util.regex.Pattern;
  */
 public class Lexer {
 
+    /**
+     * Recebe os erros lexicos assim que sao encontrados
+     * durante a leitura sob demanda.
+     */
+    public interface ErrorListener {
+        void lexicalError(Token token);
+    }
+
+    private static final EnumSet<Token.TokenType> ERRORS =
+            EnumSet.range(Token.TokenType.INVALID_COMMENT, Token.TokenType.INVALID);
+
+    /** Le oito bytes de uma vez, para verificar se a entrada e ASCII. */
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long NON_ASCII = 0x8080808080808080L;
+
+    /** Tamanho minimo, em caracteres, de cada trecho lido em paralelo. */
+    private static final int CHUNK_SIZE = 1 << 18;
+
+    /**
+     * Threads da leitura em paralelo, uma pool para cada quantidade de
+     * threads, compartilhadas por todos os analisadores e criadas na
+     * primeira leitura que as usa.
+     */
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Analisador de cada thread que le os trechos em paralelo,
+     * reaproveitado entre os trechos e entre as leituras.
+     */
+    private static final ThreadLocal<Lexer> CHUNK_LEXERS = ThreadLocal.withInitial(Lexer::new);
+
     private BufferedReader reader;
+    private char[] buffer;
+    /** Entrada ASCII nao decodificada; usada no lugar de buffer. */
+    private byte[] bytes;
+    private int position, limit;
+    private boolean mappedInput, byteInput;
+    private Charset charset;
     private int lineCount, colCount;
     private final char eof;
-    private final ArrayList<String> keywords, logOp;
     private final HashMap<String, Token.TokenType> lexMap;
+    private final boolean legacy;
+    private final IdentifierPool identifiers;
+    private final StringBuilder lexeme;
+    private int tokenLine, tokenStart;
+    private boolean foldedNewline;
+    private ErrorListener errorListener;
+    private int parallelism, chunkSize;
+    private File streamInput, faultyDump;
+    private String dumpPath;
+    private TokenDumpWriter dumpWriter, faultyWriter;
+    private boolean asyncOutput;
+    private boolean streamOpen, replaying;
+    private int validCount, faultyCount;
 
     public Lexer() {
+        this(false);
+    }
+
+    /**
+     * @param legacy se verdadeiro, usa o analisador original, que
+     *               delimita os lexemas caractere a caractere e os
+     *               valida com expressoes regulares. Caso contrario,
+     *               usa o automato de {@link TransitionTable}.
+     */
+    public Lexer(boolean legacy) {
+        this.legacy = legacy;
+        this.mappedInput = !legacy;
+        this.byteInput = !legacy;
+        this.charset = Charset.defaultCharset();
+        this.lexeme = new StringBuilder();
+        this.identifiers = new IdentifierPool();
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.chunkSize = CHUNK_SIZE;
         lineCount = 1;
         colCount = 1;
         eof = (char) -1;
-        keywords = new ArrayList<>(Arrays.asList("programa",
-                "const", "var", "funcao", "inicio", "fim",
-                "se", "senao", "entao", "enquanto", "faca", "leia",
-                "escreva", "inteiro", "real",
-                "booleano","cadeia", "caractere"));
-        logOp = new ArrayList<>(Arrays.asList("nao", "e", "ou"));
         lexMap = new HashMap<>();
         lexMap.put("(", Token.TokenType.PAREN_L);
         lexMap.put(")", Token.TokenType.PAREN_R);
@@ -36,121 +112,660 @@ public class Lexer {
         lexMap.put("/", Token.TokenType.DIV);
     }
 
+    /**
+     * Define como o arquivo de entrada e lido. Com a entrada mapeada
+     * (padrao, exceto no analisador original), o arquivo e mapeado em
+     * memoria e decodificado num unico buffer (ou lido diretamente como
+     * bytes, veja {@link #setByteInput(boolean)}), e a leitura antecipada
+     * de caracteres e feita por aritmetica de indices. Caso contrario,
+     * a entrada e lida por um {@link BufferedReader}, usando
+     * {@link Reader#mark(int)} e {@link Reader#reset()}.
+     */
+    public void setMappedInput(boolean mappedInput) {
+        this.mappedInput = mappedInput;
+    }
+
+    /**
+     * Define se a entrada mapeada e lida diretamente como bytes (padrao,
+     * exceto no analisador original). Se o charset codifica os caracteres
+     * ASCII como um byte cada e o arquivo so contem bytes ASCII, cada byte
+     * e usado como um caractere, sem decodificacao e sem o buffer de
+     * caracteres. Caso contrario, o arquivo e decodificado normalmente.
+     */
+    public void setByteInput(boolean byteInput) {
+        this.byteInput = byteInput;
+    }
+
+    /**
+     * Define o charset do arquivo de entrada. Por padrao, usa o
+     * charset padrao da plataforma, como o {@link FileReader}.
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Define quem recebe os erros lexicos encontrados por
+     * {@link #nextToken()}. Por padrao, os erros sao exibidos
+     * no console assim que sao encontrados.
+     */
+    public void setErrorListener(ErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Define quantas threads {@link #createTokenBuffer(File)} usa para ler
+     * arquivos grandes. Por padrao, usa um thread por processador, que e
+     * tambem o maximo: com mais threads do que processadores, a leitura so
+     * fica mais lenta. Com 1, a leitura e sempre sequencial. Arquivos com
+     * menos de dois trechos (512 K caracteres) tambem sao lidos
+     * sequencialmente, ja que neles a divisao e a juncao custam mais do
+     * que a leitura em paralelo poupa.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, Math.min(parallelism, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Define se o arquivo lex_ e gravado por uma thread em segundo plano,
+     * de modo que a leitura dos tokens e a escrita em disco acontecem ao
+     * mesmo tempo. Por padrao, a gravacao e feita na propria thread.
+     */
+    public void setAsyncOutput(boolean asyncOutput) {
+        this.asyncOutput = asyncOutput;
+    }
+
+    /**
+     * Retorna a tabela com os nomes dos identificadores ja lidos. O id
+     * de cada identificador e informado por {@link Token#getSymbolId()}.
+     */
+    public IdentifierPool getIdentifierPool() {
+        return identifiers;
+    }
+
+    /**
+     * Retorna a quantidade de erros lexicos da ultima entrada lida. Na
+     * leitura sob demanda, ela so fica completa apos {@link #close()}.
+     */
+    public int getFaultyTokenCount() {
+        return faultyCount;
+    }
+
     public List<Token> createTokens(File input) throws IOException {
 
-        reader = new BufferedReader(new FileReader(input));
-        LinkedList<Token> tokenList = new LinkedList<>();
-        LinkedList<Token> faultyTokenList = new LinkedList<>();
+        openInput(input);
+        ArrayList<Token> tokenList = new ArrayList<>();
+        ArrayList<Token> faultyTokenList = new ArrayList<>();
 
-        char c;
+        System.out.println("Passo 1: Analise Lexica");
+        Token t;
+        while ((t = scanToken()) != null) {
+            if (isFaulty(t)) faultyTokenList.add(t);
+            else tokenList.add(t);
+        }
+
+        writeOutput(input.getName(), tokenList, faultyTokenList);
+
+        reset();
+        faultyCount = faultyTokenList.size();
+
+        System.out.println("\t" + tokenList.size() + " tokens identificados com sucesso.");
+        if (!faultyTokenList.isEmpty()) {
+            System.out.println("\t" + faultyTokenList.size() + " erros lexicos foram encontrados.");
+            for (Token token : faultyTokenList) System.out.println("\t" + token.toString());
+        }
+        return tokenList;
+    }
+
+    /**
+     * Prepara a leitura sob demanda do arquivo de entrada. Os tokens
+     * sao entao obtidos um a um com {@link #nextToken()}, sem que a
+     * lista completa seja construida. O arquivo lex_ e gravado conforme
+     * os tokens sao lidos: os erros lexicos sao guardados num arquivo
+     * temporario e adicionados ao final, na mesma ordem de
+     * {@link #createTokens(File)}.
+     *
+     * @param input arquivo de entrada
+     * @throws IOException caso ocorra algum erro na abertura do arquivo
+     */
+    public void open(File input) throws IOException {
+        openInput(input);
+        streamInput = input;
+        streamOpen = true;
+        replaying = false;
+        validCount = 0;
+        faultyCount = 0;
+        dumpPath = "output" + File.separator + "lex_" + input.getName();
+        dumpWriter = new TokenDumpWriter(new File(dumpPath), asyncOutput);
+        faultyDump = File.createTempFile("lex_", ".tmp");
+        faultyWriter = new TokenDumpWriter(faultyDump, false);
+        System.out.println("Passo 1: Analise Lexica");
+    }
+
+    /**
+     * Retorna o proximo token valido da entrada aberta por
+     * {@link #open(File)}. Os erros lexicos encontrados no caminho
+     * sao repassados ao {@link ErrorListener}.
+     *
+     * @return o proximo token valido, ou null no fim da entrada
+     * @throws IOException caso ocorra algum erro de leitura no arquivo
+     */
+    public Token nextToken() throws IOException {
+        if (!streamOpen) return null;
         Token t;
+        while ((t = scanToken()) != null) {
+            if (!isFaulty(t)) {
+                if (!replaying) {
+                    validCount++;
+                    dumpWriter.write(t);
+                }
+                return t;
+            }
+            if (!replaying) {
+                faultyCount++;
+                faultyWriter.write(t);
+                if (errorListener != null) errorListener.lexicalError(t);
+                else System.out.println("\t" + t.toString());
+            }
+        }
+        if (!replaying) finishDump();
+        replaying = true;
+        streamOpen = false;
+        reset();
+        return null;
+    }
+
+    /**
+     * Volta ao inicio da entrada aberta por {@link #open(File)}. Caso a
+     * primeira leitura nao tenha chegado ao fim, o restante da entrada e
+     * lido para completar o arquivo lex_. A entrada e entao lida
+     * novamente, sem gravar o arquivo lex_ nem repetir os erros lexicos
+     * ja informados.
+     *
+     * @throws IOException caso ocorra algum erro na abertura do arquivo
+     */
+    public void rewind() throws IOException {
+        if (streamInput == null) return;
+        while (!replaying) nextToken();
+        reset();
+        openInput(streamInput);
+        streamOpen = true;
+    }
+
+    /**
+     * Encerra a leitura sob demanda, liberando o arquivo de entrada.
+     */
+    public void close() throws IOException {
+        if (streamInput != null) while (!replaying) nextToken();
+        reset();
+        streamInput = null;
+        streamOpen = false;
+    }
+
+    private void finishDump() throws IOException {
+        faultyWriter.close();
+        dumpWriter.append(faultyDump);
+        dumpWriter.close();
+        faultyDump.delete();
+        System.out.println("\tDetalhes dos tokens salvos no arquivo " + dumpPath);
+        System.out.println("\t" + validCount + " tokens identificados com sucesso.");
+        if (faultyCount > 0)
+            System.out.println("\t" + faultyCount + " erros lexicos foram encontrados.");
+    }
+
+    private void openInput(File input) throws IOException {
+        if (mappedInput) mapInput(input);
+        else reader = new BufferedReader(new InputStreamReader(new FileInputStream(input), charset));
+    }
+
+    private static boolean isFaulty(Token t) {
+        return ERRORS.contains(t.getType());
+    }
+
+    private Token scanToken() throws IOException {
+        if (!legacy) return scanTableToken();
+        Token t = scanLegacyToken();
+        if (t != null && t.getType() == Token.TokenType.IDENTIFIER)
+            t.setSymbolId(identifiers.intern(t.getLexeme()));
+        return t;
+    }
+
+    /**
+     * Le o proximo token com o automato de {@link TransitionTable}.
+     *
+     * @return o token lido, valido ou nao, ou null no fim da entrada
+     * @throws IOException caso ocorra algum erro de leitura no arquivo
+     */
+    private Token scanTableToken() throws IOException {
+        int state = scanState();
+        if (state == TransitionTable.START) return null; // fim de arquivo
+
+        CharSequence s = inMemory() ? slice(tokenStart, position - tokenStart, foldedNewline) : lexeme;
+        Token.TokenType type = TransitionTable.accept(state);
+        if (type == Token.TokenType.IDENTIFIER) {
+            type = Keywords.type(s, 0, s.length());
+            if (type == Token.TokenType.IDENTIFIER) {
+                int id = identifiers.intern(s, 0, s.length());
+                return new Token(tokenLine, identifiers.name(id), type, id);
+            }
+        }
+        return new Token(tokenLine, s.toString(), type);
+    }
+
+    /**
+     * Percorre o proximo lexema com o automato de {@link TransitionTable}.
+     * Cada lexema e delimitado, classificado e validado numa unica
+     * passada, sem expressoes regulares. O lexema comeca em
+     * {@link #tokenStart} e, com a entrada mapeada, corresponde ao trecho
+     * do buffer ate a posicao atual; caso contrario, e acumulado em
+     * {@link #lexeme}.
+     *
+     * @return o estado em que a leitura parou, ou o estado inicial
+     * no fim da entrada
+     * @throws IOException caso ocorra algum erro de leitura no arquivo
+     */
+    private int scanState() throws IOException {
+        int state = TransitionTable.START;
+
+        while (true) {
+            int next = TransitionTable.next(state, lookAheadChar());
+            if (next == TransitionTable.STOP) break;
+            if (next == TransitionTable.START) { // espaco em branco entre lexemas
+                if (inMemory()) skipRun(TransitionTable.START);
+                else nextChar();
+                continue;
+            }
+            if (state == TransitionTable.START) {
+                tokenLine = lineCount;
+                tokenStart = position;
+                foldedNewline = false;
+                lexeme.setLength(0);
+            }
+            if (TransitionTable.isTentative(next)) {
+                // o estado provisorio so vale se o caractere seguinte o completar
+                next = TransitionTable.next(next, peekChar(1));
+                if (next == TransitionTable.STOP) break;
+                char c = nextChar();
+                if (!inMemory()) lexeme.append(c);
+            }
+            char c = nextChar();
+            if (!inMemory()) lexeme.append(c);
+            state = next;
+            if (TransitionTable.isFinal(state)) break;
+            if (inMemory() && TransitionTable.hasRun(state)) skipRun(state);
+        }
+        return state;
+    }
+
+    /**
+     * Consome de uma so vez, direto do buffer, os caracteres que mantem o
+     * automato no estado informado, como espacos em branco, o corpo de
+     * comentarios e cadeias ou o restante de um identificador. Os
+     * caracteres ASCII sao testados pela mascara de bits do estado, sem
+     * passar pela tabela de transicoes, e as quebras de linha sao contadas
+     * no mesmo laco, como em {@link #nextChar()}.
+     */
+    private void skipRun(int state) {
+        if (bytes != null) {
+            skipByteRun(state);
+            return;
+        }
+        char[] buf = buffer;
+        int p = position, end = limit;
+        long low = TransitionTable.runMask(state, 0);
+        long high = TransitionTable.runMask(state, 1);
+        int lines = 0, lineStart = -1;
+
+        while (p < end) {
+            char c = buf[p];
+            if (c < 64) {
+                if (((low >>> c) & 1) == 0) break;
+                if (c == '\n') {
+                    lines++;
+                    lineStart = p + 1;
+                } else if (c == '\r') {
+                    lines++;
+                    if (p + 1 < end && buf[p + 1] == '\n') {
+                        p++;
+                        foldedNewline = true;
+                    }
+                    lineStart = p + 1;
+                }
+            } else if (c < 128) {
+                if (((high >>> c) & 1) == 0) break;
+            } else if (TransitionTable.next(state, c) != state) break;
+            p++;
+        }
+
+        lineCount += lines;
+        colCount = (lineStart < 0) ? colCount + p - position : p - lineStart + 1;
+        position = p;
+    }
+
+    /**
+     * Versao de {@link #skipRun(int)} para a entrada lida como bytes.
+     * Como a entrada e toda ASCII, basta a mascara de bits do estado.
+     */
+    private void skipByteRun(int state) {
+        byte[] buf = bytes;
+        int p = position, end = limit;
+        long low = TransitionTable.runMask(state, 0);
+        long high = TransitionTable.runMask(state, 1);
+        int lines = 0, lineStart = -1;
+
+        while (p < end) {
+            int c = buf[p];
+            if (c < 64) {
+                if (((low >>> c) & 1) == 0) break;
+                if (c == '\n') {
+                    lines++;
+                    lineStart = p + 1;
+                } else if (c == '\r') {
+                    lines++;
+                    if (p + 1 < end && buf[p + 1] == '\n') {
+                        p++;
+                        foldedNewline = true;
+                    }
+                    lineStart = p + 1;
+                }
+            } else if (((high >>> c) & 1) == 0) break;
+            p++;
+        }
+
+        lineCount += lines;
+        colCount = (lineStart < 0) ? colCount + p - position : p - lineStart + 1;
+        position = p;
+    }
+
+    /**
+     * Constroi um {@link TokenBuffer} com os tokens validos da entrada.
+     * O arquivo e sempre mapeado em memoria e percorrido com o automato
+     * de {@link TransitionTable}; os lexemas sao guardados como posicoes
+     * no buffer do codigo fonte, sem criar um {@link Token} ou uma string
+     * por token. Os erros lexicos e o arquivo lex_ sao tratados como em
+     * {@link #createTokens(File)}. Arquivos grandes sao divididos em
+     * trechos lidos em paralelo (veja {@link #setParallelism(int)}), com o
+     * mesmo resultado da leitura sequencial.
+     *
+     * @param input arquivo de entrada
+     * @return os tokens validos encontrados
+     * @throws IOException caso ocorra algum erro de leitura no arquivo
+     */
+    public TokenBuffer createTokenBuffer(File input) throws IOException {
+
+        mapInput(input);
+        CharSequence source = sourceText();
+        TokenBuffer tokens = newTokenBuffer(identifiers);
+        ArrayList<Token> faultyTokenList = new ArrayList<>();
 
         System.out.println("Passo 1: Analise Lexica");
+        if (parallelism > 1 && limit - position >= 2 * chunkSize) {
+            scanParallel(tokens, faultyTokenList);
+        } else {
+            int state;
+            while ((state = scanState()) != TransitionTable.START) {
+                Token.TokenType type = TransitionTable.accept(state);
+                int length = position - tokenStart;
+                if (type == Token.TokenType.IDENTIFIER) type = Keywords.type(source, tokenStart, length);
+                addToken(tokens, faultyTokenList, source, type, tokenLine, tokenStart, length, foldedNewline);
+            }
+        }
+
+        String outputPath = "output" + File.separator + "lex_"+ input.getName();
+        try (TokenDumpWriter writer = new TokenDumpWriter(new File(outputPath), asyncOutput)) {
+            for (int i = 0; i < tokens.size(); i++) writer.write(tokens.line(i), tokens.lexeme(i), tokens.type(i));
+            for (Token t : faultyTokenList) writer.write(t);
+        }
+        System.out.println("\tDetalhes dos tokens salvos no arquivo " + outputPath);
+
+        reset();
+        faultyCount = faultyTokenList.size();
+
+        System.out.println("\t" + tokens.size() + " tokens identificados com sucesso.");
+        if (!faultyTokenList.isEmpty()) {
+            System.out.println("\t" + faultyTokenList.size() + " erros lexicos foram encontrados.");
+            for (Token token : faultyTokenList) System.out.println("\t" + token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Adiciona um token lido da entrada mapeada ao {@link TokenBuffer}, ou
+     * a lista de erros caso seja um erro lexico. Os identificadores sao
+     * internados no {@link IdentifierPool}.
+     */
+    private void addToken(TokenBuffer tokens, List<Token> faultyTokenList, CharSequence source,
+                          Token.TokenType type, int line, int start, int length, boolean crlf) {
+        if (ERRORS.contains(type)) {
+            String s = slice(start, length, crlf).toString();
+            faultyTokenList.add(new Token(line, s, type));
+        } else {
+            int id = (type == Token.TokenType.IDENTIFIER) ? identifiers.intern(source, start, length) : -1;
+            tokens.add(type, line, start, length, crlf, id);
+        }
+    }
+
+    /**
+     * Le a entrada mapeada em paralelo num {@link ForkJoinPool}. A entrada
+     * e dividida em trechos terminados por uma quebra de linha, e cada
+     * trecho e lido como se comecasse fora de qualquer lexema, com as
+     * linhas contadas a partir do seu inicio. Os trechos sao entao unidos
+     * em ordem, somando as linhas dos trechos anteriores as linhas dos
+     * tokens, de modo que tokens e erros lexicos ficam na mesma ordem da
+     * leitura sequencial.
+     *
+     * Se o ultimo token de um trecho chega ao fim dele, como um comentario
+     * que continua no trecho seguinte, a leitura segue sequencialmente a
+     * partir desse token, descartando os tokens dos trechos seguintes ate
+     * que um token volte a comecar depois do inicio de um trecho sem que
+     * o token anterior o tenha atravessado.
+     */
+    private void scanParallel(TokenBuffer tokens, List<Token> faultyTokenList) throws IOException {
+        int[] bounds = chunkBounds();
+        int count = bounds.length - 1;
+        char[] chars = buffer;
+        byte[] raw = bytes;
+        List<Callable<Chunk>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int start = bounds[i], end = bounds[i + 1];
+            boolean last = i == count - 1;
+            tasks.add(() -> CHUNK_LEXERS.get().scanChunk(chars, raw, start, end, last));
+        }
+
+        Chunk[] chunks = new Chunk[count];
+        ForkJoinPool pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        try {
+            List<Future<Chunk>> results = pool.invokeAll(tasks);
+            for (int i = 0; i < count; i++) chunks[i] = results.get(i).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura em paralelo interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+
+        int[] firstLine = new int[count];
+        firstLine[0] = 1;
+        for (int i = 1; i < count; i++) firstLine[i] = firstLine[i - 1] + chunks[i - 1].newlines;
+
+        CharSequence text = sourceText();
+        int i = 0;
+        while (i < count) {
+            TokenBuffer part = chunks[i].tokens;
+            int n = chunks[i].open ? part.size() - 1 : part.size();
+            for (int k = 0; k < n; k++) {
+                addToken(tokens, faultyTokenList, text, part.type(k), firstLine[i] + part.line(k) - 1,
+                        part.start(k), part.length(k), part.crlf(k));
+            }
+            if (!chunks[i].open) {
+                i++;
+                continue;
+            }
+
+            // o ultimo token atravessa o fim do trecho: segue sequencialmente
+            position = part.start(n);
+            lineCount = firstLine[i] + part.line(n) - 1;
+            int end = position;
+            int state;
+            i++;
+            while ((state = scanState()) != TransitionTable.START) {
+                while (i < count && bounds[i] < end) i++;
+                if (i < count && tokenStart >= bounds[i]) break; // de volta ao inicio do trecho i
+
+                Token.TokenType type = TransitionTable.accept(state);
+                int length = position - tokenStart;
+                if (type == Token.TokenType.IDENTIFIER) type = Keywords.type(text, tokenStart, length);
+                addToken(tokens, faultyTokenList, text, type, tokenLine, tokenStart, length, foldedNewline);
+                end = position;
+            }
+            if (state == TransitionTable.START) i = count;
+        }
+    }
+
+    /**
+     * Retorna os inicios dos trechos lidos em paralelo, seguidos do fim da
+     * entrada. Cada trecho comeca logo apos uma quebra de linha, de modo
+     * que um \r\n nunca e dividido entre dois trechos.
+     */
+    private int[] chunkBounds() {
+        int chunks = Math.min(parallelism * 4, (limit - position) / chunkSize);
+        int[] bounds = new int[chunks + 1];
+        int n = 0;
+        bounds[n++] = position;
+        for (int k = 1; k < chunks; k++) {
+            int b = position + (int) ((long) (limit - position) * k / chunks);
+            while (b < limit && sourceChar(b - 1) != '\n') b++;
+            if (b < limit && b > bounds[n - 1]) bounds[n++] = b;
+        }
+        bounds[n++] = limit;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    /**
+     * Le os tokens de um trecho da entrada, parando no fim do trecho como
+     * se fosse o fim do arquivo. As linhas dos tokens sao contadas a partir
+     * do inicio do trecho. Ao terminar, o analisador solta a entrada, para
+     * ser reaproveitado no proximo trecho.
+     *
+     * @param last se o trecho vai ate o fim da entrada
+     */
+    private Chunk scanChunk(char[] chars, byte[] raw, int start, int end, boolean last) throws IOException {
+        buffer = chars;
+        bytes = raw;
+        position = start;
+        limit = end;
+        try {
+            CharSequence text = sourceText();
+            TokenBuffer tokens = newTokenBuffer(null);
+            int state, lastEnd = start;
+            while ((state = scanState()) != TransitionTable.START) {
+                Token.TokenType type = TransitionTable.accept(state);
+                int length = position - tokenStart;
+                if (type == Token.TokenType.IDENTIFIER) type = Keywords.type(text, tokenStart, length);
+                tokens.add(type, tokenLine, tokenStart, length, foldedNewline, -1);
+                lastEnd = position;
+            }
+            boolean open = !last && tokens.size() > 0 && lastEnd == end;
+            return new Chunk(tokens, lineCount - 1, open);
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Tokens de um trecho lido por {@link #scanChunk}, com as linhas
+     * contadas a partir do inicio do trecho.
+     */
+    private static class Chunk {
+        final TokenBuffer tokens;
+        /** Quantidade de quebras de linha no trecho. */
+        final int newlines;
+        /** Se o ultimo token chegou ao fim do trecho e pode continuar no seguinte. */
+        final boolean open;
+
+        Chunk(TokenBuffer tokens, int newlines, boolean open) {
+            this.tokens = tokens;
+            this.newlines = newlines;
+            this.open = open;
+        }
+    }
+
+    /**
+     * Le o proximo token com o analisador original, que valida
+     * cada lexema depois de construido.
+     *
+     * @return o token lido, valido ou nao, ou null no fim da entrada
+     * @throws IOException caso ocorra algum erro de leitura no arquivo
+     */
+    private Token scanLegacyToken() throws IOException {
+        char c;
+        Token t;
+
         while ((c = lookAheadChar()) != eof) {
 
             if (Character.isWhitespace(c)) {
                 nextChar();
             } else if (c == '>' || c == '<' || c == '=') {
-                tokenList.add(buildRelopToken());
+                return buildRelopToken();
             } else if (c == '{') {
                 t = buildCommentLexeme();
-                if (isTokenComment(t.getLexeme())) {
-                    t.setType(Token.TokenType.COMMENT);
-                    tokenList.add(t);
-                } else {
-                    t.setType(Token.TokenType.INVALID_COMMENT);
-                    faultyTokenList.add(t);
-                }
+                if (isTokenComment(t.getLexeme())) t.setType(Token.TokenType.COMMENT);
+                else t.setType(Token.TokenType.INVALID_COMMENT);
+                return t;
             } else if (c == '"') {
                 t = buildStringLexeme();
-                if (isTokenString(t.getLexeme())) {
-                    t.setType(Token.TokenType.CHAR_STRING);
-                    tokenList.add(t);
-                } else {
-                    t.setType(Token.TokenType.INVALID_CHAR_STRING);
-                    faultyTokenList.add(t);
-                }
+                if (isTokenString(t.getLexeme())) t.setType(Token.TokenType.CHAR_STRING);
+                else t.setType(Token.TokenType.INVALID_CHAR_STRING);
+                return t;
             } else if (c == '\'') {
                 t = buildCharacterLexeme();
-                if (isTokenChar(t.getLexeme())) {
-                    t.setType(Token.TokenType.CHARACTER);
-                    tokenList.add(t);
-                } else {
-                    t.setType(Token.TokenType.INVALID_CHARACTER);
-                    faultyTokenList.add(t);
-                }
+                if (isTokenChar(t.getLexeme())) t.setType(Token.TokenType.CHARACTER);
+                else t.setType(Token.TokenType.INVALID_CHARACTER);
+                return t;
             } else if (c == '-' || Character.isDigit(c)) {
                 t = buildNumberLexeme();
                 if (!t.getType().equals(Token.TokenType.MINUS)) {
-                    if (isTokenNumber(t.getLexeme())) {
-                        t.setType(Token.TokenType.NUMBER);
-                        tokenList.add(t);
-                    } else {
-                        t.setType(Token.TokenType.INVALID_NUMBER);
-                        faultyTokenList.add(t);
-                    }
-                } else tokenList.add(t);
+                    if (isTokenNumber(t.getLexeme())) t.setType(Token.TokenType.NUMBER);
+                    else t.setType(Token.TokenType.INVALID_NUMBER);
+                }
+                return t;
             } else if (Character.isLetter(c)) {
                 t = buildIdLexeme();
 
-                if (logOp.contains(t.getLexeme())){
-                    t.setType(Token.TokenType.valueOf(t.getLexeme().toUpperCase()));
-                    tokenList.add(t);
-                } else if(t.getLexeme().equals("verdadeiro") ||
-                        t.getLexeme().equals("falso")) {
-                    t.setType(Token.TokenType.BOOL_V);
-                    tokenList.add(t);
-                } else if (keywords.contains(t.getLexeme())){
-                    t.setType(Token.TokenType.valueOf(t.getLexeme().toUpperCase()));
-                    tokenList.add(t);
+                Token.TokenType reserved = Keywords.type(t.getLexeme());
+                if (reserved != Token.TokenType.IDENTIFIER) {
+                    t.setType(reserved);
                 } else if (isTokenId(t.getLexeme())) {
                     t.setType(Token.TokenType.IDENTIFIER);
-                    tokenList.add(t);
                 } else {
                     t.setType(Token.TokenType.INVALID_IDENTIFIER);
-                    faultyTokenList.add(t);
                 }
+                return t;
             } else if (isOperator(c) || isLexDelimiter(c)) {
                 if (lexMap.containsKey("" + c)) {
-                    tokenList.add(new Token(lineCount,
+                    return new Token(lineCount,
                             Character.toString(nextChar()),
-                            lexMap.get("" + c)));
+                            lexMap.get("" + c));
                 } else {
-                    faultyTokenList.add(new Token(lineCount,
+                    return new Token(lineCount,
                             Character.toString(nextChar()),
-                            Token.TokenType.INVALID));
+                            Token.TokenType.INVALID);
                 }
             } else {
-                faultyTokenList.add(buildFaultyTokenBecauseWhyNot());
+                return buildFaultyTokenBecauseWhyNot();
             }
         }
-
-        LinkedList<Token> allTokens = new LinkedList<>(tokenList);
-        allTokens.addAll(faultyTokenList);
-        //tokenList.forEach(System.out::println);
-        writeOutput(input.getName(), allTokens);
-
-        reset();
-        reader.close();
-
-        System.out.println("\t" + tokenList.size() + " tokens identificados com sucesso.");
-        if (!faultyTokenList.isEmpty()) {
-            System.out.println("\t" + faultyTokenList.size() + " erros lexicos foram encontrados.");
-            for (Token token : faultyTokenList) System.out.println("\t" + token.toString());
-        }
-        return tokenList;
+        return null;
     }
 
-    private void writeOutput(String fileName, List<Token> tokenList) throws IOException {
+    private void writeOutput(String fileName, List<Token> tokenList,
+                             List<Token> faultyTokenList) throws IOException {
         String outputPath = "output" + File.separator + "lex_"+ fileName;
-        BufferedWriter writer = new BufferedWriter(
-                new FileWriter(new File(outputPath)));
-
-        for (Token t : tokenList) {
-            writer.write(t.toString());
-            writer.newLine();
+        try (TokenDumpWriter writer = new TokenDumpWriter(new File(outputPath), asyncOutput)) {
+            for (Token t : tokenList) writer.write(t);
+            for (Token t : faultyTokenList) writer.write(t);
         }
-        writer.close();
         System.out.println("\tDetalhes dos tokens salvos no arquivo " + outputPath);
     }
 
@@ -415,7 +1030,10 @@ public class Lexer {
 
     private boolean isNewline(char c) throws IOException {
         boolean newLineFound = (c == '\n') || (c == '\r');
-        if (c == '\r' && lookAheadChar() == '\n') reader.read();
+        if (c == '\r' && lookAheadChar() == '\n') {
+            readChar();
+            foldedNewline = true;
+        }
         return newLineFound;
     }
 
@@ -479,7 +1097,7 @@ public class Lexer {
      * @throws IOException
      */
     private char nextChar() throws IOException {
-        char c = (char) reader.read();
+        char c = readChar();
 
         if (isNewline(c)) {
             lineCount++;
@@ -488,25 +1106,55 @@ public class Lexer {
         return c;
     }
 
+    /**
+     * Consome um caractere da entrada, sem atualizar a contagem
+     * de linhas.
+     */
+    private char readChar() throws IOException {
+        if (bytes != null) return (position < limit) ? (char) bytes[position++] : eof;
+        if (buffer != null) return (position < limit) ? buffer[position++] : eof;
+        return (char) reader.read();
+    }
+
     /**
      * Le o proximo caractere sem mover o ponteiro de leitura.
-     * Usa {@link Reader#mark(int)} para marcar a posição atual
-     * do ponteiro e {@link Reader#reset()} para retornar para
-     * a posição marcada, uma vez que a leitura foi realizada.
      *
      * @return o caractere lido
      * @throws IOException
      */
     private char lookAheadChar() throws IOException {
-        return lookAheadChar(1)[0];
+        return peekChar(0);
     }
 
+    /**
+     * Le o caractere offset posicoes a frente do proximo caractere, sem
+     * mover o ponteiro de leitura. Com a entrada mapeada, a leitura e
+     * feita diretamente no buffer, sem alocacoes. Caso contrario, usa
+     * {@link Reader#mark(int)} e {@link Reader#reset()}.
+     *
+     * @return o caractere lido, ou o fim de arquivo
+     * @throws IOException
+     */
+    private char peekChar(int offset) throws IOException {
+        if (bytes != null) {
+            int i = position + offset;
+            return (i < limit) ? (char) bytes[i] : eof;
+        }
+        if (buffer != null) {
+            int i = position + offset;
+            return (i < limit) ? buffer[i] : eof;
+        }
+        char c = eof;
+        reader.mark(offset + 1);
+        for (int i = 0; i <= offset; i++) {
+            c = (char) reader.read();
+        }
+        reader.reset();
+        return c;
+    }
 
     /**
      * Le os proximos n caracteres sem mover o ponteiro de leitura.
-     * Usa {@link Reader#mark(int)} para marcar a posição atual
-     * do ponteiro e {@link Reader#reset()} para retornar para
-     * a posição marcada, uma vez que a leitura foi realizada.
      *
      * @return um array contendo os proximos n caracteres
      * @throws IOException
@@ -514,16 +1162,98 @@ public class Lexer {
     private char[] lookAheadChar(int n) throws IOException {
         if (n <= 0) throw new RuntimeException("n deve ser maior que zero");
         char c[] = new char[n];
-        reader.mark(n);
         for (int i = 0; i < n; i++) {
-            c[i] = (char) reader.read();
+            c[i] = peekChar(i);
         }
-        reader.reset();
         return c;
     }
 
+    /**
+     * Mapeia o arquivo de entrada em memoria. Com a leitura de bytes
+     * habilitada, um arquivo ASCII num charset compativel e copiado
+     * como bytes, sem decodificacao; caso contrario, o arquivo e
+     * decodificado num unico buffer de caracteres.
+     */
+    private void mapInput(File input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (byteInput && isAsciiCompatible(charset)) {
+                byte[] raw = new byte[mapped.remaining()];
+                mapped.get(raw);
+                if (isAscii(raw)) {
+                    bytes = raw;
+                    position = 0;
+                    limit = raw.length;
+                    return;
+                }
+                mapped.rewind();
+            }
+            CharBuffer chars = charset.decode(mapped);
+            buffer = chars.array();
+            position = chars.arrayOffset() + chars.position();
+            limit = chars.arrayOffset() + chars.limit();
+        }
+    }
+
+    /**
+     * Retorna se o charset decodifica cada byte ASCII no
+     * caractere correspondente.
+     */
+    private static boolean isAsciiCompatible(Charset charset) {
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) ascii[i] = (byte) i;
+        return new String(ascii, charset).equals(new String(ascii, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Verifica, oito bytes por vez, se nenhum byte tem o bit mais
+     * significativo ligado.
+     */
+    private static boolean isAscii(byte[] raw) {
+        int i = 0;
+        for (; i + 8 <= raw.length; i += 8) {
+            if (((long) LONGS.get(raw, i) & NON_ASCII) != 0) return false;
+        }
+        for (; i < raw.length; i++) {
+            if (raw[i] < 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retorna se a entrada esta inteira na memoria, como bytes ou
+     * caracteres, e pode ser lida por indices.
+     */
+    private boolean inMemory() {
+        return bytes != null || buffer != null;
+    }
+
+    private char sourceChar(int i) {
+        return (bytes != null) ? (char) bytes[i] : buffer[i];
+    }
+
+    /**
+     * Retorna a entrada em memoria como uma sequencia de caracteres,
+     * sem copia-la.
+     */
+    private CharSequence sourceText() {
+        return (bytes != null) ? new AsciiSequence(bytes) : CharBuffer.wrap(buffer);
+    }
+
+    private CharSequence slice(int start, int length, boolean crlf) {
+        return (bytes != null) ? TokenBuffer.slice(bytes, start, length, crlf)
+                : TokenBuffer.slice(buffer, start, length, crlf);
+    }
+
+    private TokenBuffer newTokenBuffer(IdentifierPool identifiers) {
+        return (bytes != null) ? new TokenBuffer(bytes, identifiers) : new TokenBuffer(buffer, identifiers);
+    }
+
     private void reset() throws IOException {
-        reader.close();
+        if (reader != null) reader.close();
+        reader = null;
+        buffer = null;
+        bytes = null;
         lineCount = 1;
         colCount = 1;
     }
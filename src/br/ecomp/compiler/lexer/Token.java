@@ -59,10 +59,20 @@ public class Token {
         INVALID_NUMBER     ("Numero Mal Formado"),
         INVALID            ("Token Invalido");
 
-        private final String name;
+        private final String name, shortName;
 
         TokenType (String name) {
             this.name = name;
+            this.shortName = (name.indexOf('\"') != -1)
+                    ? name.substring(0, name.indexOf('\"') - 1) : name;
+        }
+
+        /**
+         * Retorna o nome sem o lexema entre aspas, como
+         * exibido nos arquivos de saida.
+         */
+        public String getShortName() {
+            return shortName;
         }
 
         @Override
@@ -73,6 +83,7 @@ public class Token {
     private int line;
     private String lexeme;
     private TokenType type;
+    private int symbolId = -1;
 
     protected Token(int line, String lexeme) {
         this.line = line;
@@ -85,6 +96,15 @@ public class Token {
         this.type = type;
     }
 
+    /**
+     * @param symbolId id do lexema no {@link IdentifierPool}, para
+     *                 tokens do tipo {@link TokenType#IDENTIFIER}
+     */
+    public Token(int line, String lexeme, TokenType type, int symbolId) {
+        this(line, lexeme, type);
+        this.symbolId = symbolId;
+    }
+
     protected void setType(TokenType type) {
         this.type = type;
     }
@@ -93,6 +113,18 @@ public class Token {
         return type;
     }
 
+    protected void setSymbolId(int symbolId) {
+        this.symbolId = symbolId;
+    }
+
+    /**
+     * Retorna o id do lexema no {@link IdentifierPool} do analisador
+     * lexico, ou -1 caso o token nao seja um identificador.
+     */
+    public int getSymbolId() {
+        return symbolId;
+    }
+
     public String getLexeme() {
         return lexeme;
     }
@@ -103,9 +135,6 @@ public class Token {
 
     @Override
     public String toString() {
-        String typeName  = type.toString();
-        if (typeName.indexOf('\"') != -1)
-            typeName = typeName.substring(0, typeName.indexOf('\"')-1);
-        return String.format("Linha %02d %s %s", line, getLexeme(), typeName);
+        return String.format("Linha %02d %s %s", line, getLexeme(), type.getShortName());
     }
 }
@@ -0,0 +1,177 @@
+package br.ecomp.compiler.lexer;
+
+import java.nio.CharBuffer;
+
+/**
+ * Armazena os tokens validos de um arquivo de forma compacta, em arrays
+ * paralelos com o tipo, a linha, o inicio e o tamanho de cada lexema. Os
+ * lexemas nao sao copiados: {@link #lexeme(int)} retorna uma visao do
+ * codigo fonte (um array de caracteres ou, quando a entrada e ASCII e
+ * nao foi decodificada, de bytes), e objetos {@link Token} so sao criados sob
+ * demanda por {@link #token(int)}. Os identificadores usam o nome
+ * internado no {@link IdentifierPool}.
+ */
+public class TokenBuffer {
+
+    /**
+     * Marca, no byte de tipo, os lexemas que contem um \r\n. O
+     * analisador lexico guarda apenas o \r nesses casos, entao o
+     * lexema nao corresponde exatamente ao trecho do codigo fonte.
+     */
+    private static final int CRLF_FLAG = 0x80;
+    private static final Token.TokenType[] TYPES = Token.TokenType.values();
+
+    private final char[] source;
+    private final byte[] bytes;
+    private final IdentifierPool identifiers;
+    private byte[] types;
+    private int[] lines, starts, lengths, symbolIds;
+    private int size;
+
+    TokenBuffer(char[] source, IdentifierPool identifiers) {
+        this(source, null, identifiers);
+    }
+
+    TokenBuffer(byte[] bytes, IdentifierPool identifiers) {
+        this(null, bytes, identifiers);
+    }
+
+    private TokenBuffer(char[] source, byte[] bytes, IdentifierPool identifiers) {
+        this.source = source;
+        this.bytes = bytes;
+        this.identifiers = identifiers;
+        this.types = new byte[64];
+        this.lines = new int[64];
+        this.starts = new int[64];
+        this.lengths = new int[64];
+        this.symbolIds = new int[64];
+    }
+
+    void add(Token.TokenType type, int line, int start, int length, boolean crlf, int symbolId) {
+        if (size == types.length) grow();
+        types[size] = (byte) (type.ordinal() | (crlf ? CRLF_FLAG : 0));
+        lines[size] = line;
+        starts[size] = start;
+        lengths[size] = length;
+        symbolIds[size] = symbolId;
+        size++;
+    }
+
+    private void grow() {
+        int capacity = size * 2;
+        byte[] t = new byte[capacity];
+        System.arraycopy(types, 0, t, 0, size);
+        types = t;
+        lines = copy(lines, capacity);
+        starts = copy(starts, capacity);
+        lengths = copy(lengths, capacity);
+        symbolIds = copy(symbolIds, capacity);
+    }
+
+    private int[] copy(int[] a, int capacity) {
+        int[] b = new int[capacity];
+        System.arraycopy(a, 0, b, 0, size);
+        return b;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Token.TokenType type(int index) {
+        return TYPES[types[index] & ~CRLF_FLAG & 0xFF];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    int start(int index) {
+        return starts[index];
+    }
+
+    int length(int index) {
+        return lengths[index];
+    }
+
+    boolean crlf(int index) {
+        return (types[index] & CRLF_FLAG) != 0;
+    }
+
+    /**
+     * Retorna o id do identificador no {@link IdentifierPool},
+     * ou -1 caso o token nao seja um identificador.
+     */
+    public int symbolId(int index) {
+        return symbolIds[index];
+    }
+
+    /**
+     * Retorna o lexema do token como uma visao do codigo fonte,
+     * sem copia-lo.
+     */
+    public CharSequence lexeme(int index) {
+        if (symbolIds[index] >= 0) return identifiers.name(symbolIds[index]);
+        if (bytes != null) return slice(bytes, starts[index], lengths[index], crlf(index));
+        return slice(source, starts[index], lengths[index], crlf(index));
+    }
+
+    /**
+     * Retorna o trecho do codigo fonte como lexema. Se crlf for
+     * verdadeiro, remove o \n de cada \r\n, como o analisador lexico
+     * faz; caso contrario, o trecho nao e copiado.
+     */
+    static CharSequence slice(char[] source, int start, int length, boolean crlf) {
+        CharBuffer slice = CharBuffer.wrap(source, start, length);
+        if (!crlf) return slice;
+
+        StringBuilder lexeme = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = slice.charAt(i);
+            if (c != '\n' || i == 0 || slice.charAt(i - 1) != '\r') lexeme.append(c);
+        }
+        return lexeme;
+    }
+
+    /**
+     * Retorna o trecho de uma entrada ASCII como lexema, removendo
+     * o \n de cada \r\n caso crlf seja verdadeiro.
+     */
+    static CharSequence slice(byte[] source, int start, int length, boolean crlf) {
+        AsciiSequence slice = new AsciiSequence(source, start, length);
+        if (!crlf) return slice;
+
+        StringBuilder lexeme = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = slice.charAt(i);
+            if (c != '\n' || i == 0 || slice.charAt(i - 1) != '\r') lexeme.append(c);
+        }
+        return lexeme;
+    }
+
+    /**
+     * Cria um {@link Token} para a posicao informada. O lexema do
+     * token so e copiado do codigo fonte quando for lido.
+     */
+    public Token token(int index) {
+        return new BufferedToken(this, index);
+    }
+
+    private static class BufferedToken extends Token {
+        private final TokenBuffer buffer;
+        private final int index;
+        private String lexeme;
+
+        BufferedToken(TokenBuffer buffer, int index) {
+            super(buffer.line(index), null, buffer.type(index), buffer.symbolId(index));
+            this.buffer = buffer;
+            this.index = index;
+        }
+
+        @Override
+        public String getLexeme() {
+            if (lexeme == null) lexeme = buffer.lexeme(index).toString();
+            return lexeme;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package br.ecomp.compiler.lexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Grava os arquivos lex_ com uma linha por token, no mesmo formato de
+ * {@link Token#toString()} e com os mesmos bytes que um
+ * {@link java.io.FileWriter} com {@link java.io.BufferedWriter#newLine()}
+ * produziria. As linhas sao montadas diretamente num buffer de bytes
+ * reutilizado, com os nomes dos tipos ja codificados, e o buffer e
+ * gravado por um {@link FileChannel}.
+ *
+ * Com a gravacao em segundo plano, os buffers cheios sao gravados por
+ * outra thread enquanto o proximo e preenchido, de modo que a leitura
+ * dos tokens e a escrita em disco acontecem ao mesmo tempo.
+ */
+class TokenDumpWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Marca o fim da gravacao para a thread de segundo plano. */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    /** Se os digitos e os textos fixos podem ser gravados como ASCII. */
+    private final boolean ascii;
+    private final byte[] prefix, separator, newLine;
+    private final byte[][] typeNames;
+
+    private byte[] bytes;
+    private int count;
+
+    private final ArrayBlockingQueue<ByteBuffer> pending, free;
+    private final Thread flusher;
+    private volatile IOException failure;
+
+    TokenDumpWriter(File file, boolean async) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        charset = Charset.defaultCharset();
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        char[] table = new char[0x80];
+        for (char c = 0; c < table.length; c++) table[c] = c;
+        String asciiTable = new String(table);
+        char zero = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getZeroDigit();
+        ascii = zero == '0' && Arrays.equals(asciiTable.getBytes(charset),
+                asciiTable.getBytes(StandardCharsets.US_ASCII));
+        prefix = "Linha ".getBytes(charset);
+        separator = " ".getBytes(charset);
+        newLine = System.lineSeparator().getBytes(charset);
+        Token.TokenType[] types = Token.TokenType.values();
+        typeNames = new byte[types.length][];
+        for (Token.TokenType type : types) typeNames[type.ordinal()] = type.getShortName().getBytes(charset);
+
+        bytes = new byte[BUFFER_SIZE];
+        if (async) {
+            pending = new ArrayBlockingQueue<>(2);
+            free = new ArrayBlockingQueue<>(2);
+            free.add(ByteBuffer.wrap(new byte[BUFFER_SIZE]));
+            flusher = new Thread(this::flushPending, "lex-dump");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            pending = null;
+            free = null;
+            flusher = null;
+        }
+    }
+
+    void write(Token t) throws IOException {
+        write(t.getLine(), t.getLexeme(), t.getType());
+    }
+
+    /**
+     * Grava a linha "Linha %02d lexema tipo" de um token.
+     */
+    void write(int line, CharSequence lexeme, Token.TokenType type) throws IOException {
+        if (!ascii) {
+            encode(String.format("Linha %02d %s %s", line, lexeme, type.getShortName())
+                    + System.lineSeparator(), 0, false);
+            return;
+        }
+        put(prefix);
+        putNumber(line);
+        put(separator);
+        int length = lexeme.length();
+        for (int i = 0; i < length; i++) {
+            char c = lexeme.charAt(i);
+            if (c >= 0x80) {
+                encode(lexeme, i, true);
+                break;
+            }
+            if (count == bytes.length) flushBuffer();
+            bytes[count++] = (byte) c;
+        }
+        put(separator);
+        put(typeNames[type.ordinal()]);
+        put(newLine);
+    }
+
+    /**
+     * Acrescenta o conteudo de outro arquivo, como o arquivo temporario
+     * com os erros lexicos, ao final do arquivo gravado.
+     */
+    void append(File file) throws IOException {
+        if (!ascii) {
+            // o arquivo e decodificado e codificado de novo para nao repetir
+            // marcas de ordem de bytes
+            encode(new String(Files.readAllBytes(file.toPath()), charset), 0, false);
+            return;
+        }
+        flushBuffer();
+        awaitPending();
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = in.size();
+            for (long done = 0; done < size; ) done += in.transferTo(done, size - done, channel);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!ascii) encode("", 0, true);
+            flushBuffer();
+            if (flusher != null) {
+                put(pending, END);
+                flusher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Gravacao interrompida");
+        } finally {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    /** Grava o numero da linha com pelo menos dois digitos, como %02d. */
+    private void putNumber(int n) throws IOException {
+        if (bytes.length - count < 10) flushBuffer();
+        if (n < 10) bytes[count++] = '0';
+        int start = count;
+        do {
+            bytes[count++] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        for (int i = start, j = count - 1; i < j; i++, j--) {
+            byte b = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = b;
+        }
+    }
+
+    private void put(byte[] b) throws IOException {
+        if (bytes.length - count < b.length) flushBuffer();
+        System.arraycopy(b, 0, bytes, count, b.length);
+        count += b.length;
+    }
+
+    /**
+     * Codifica o texto a partir da posicao informada com o charset
+     * padrao, substituindo caracteres invalidos como o FileWriter.
+     *
+     * @param endOfInput se falso, o estado do codificador e mantido para
+     *                   o proximo texto, como num unico stream
+     */
+    private void encode(CharSequence text, int from, boolean endOfInput) throws IOException {
+        CharBuffer in = CharBuffer.wrap(text, from, text.length());
+        CoderResult result;
+        do {
+            ByteBuffer out = ByteBuffer.wrap(bytes, count, bytes.length - count);
+            result = encoder.encode(in, out, endOfInput);
+            count = out.position();
+            if (result.isOverflow()) flushBuffer();
+        } while (result.isOverflow());
+        if (!endOfInput) return;
+        do {
+            ByteBuffer out = ByteBuffer.wrap(bytes, count, bytes.length - count);
+            result = encoder.flush(out);
+            count = out.position();
+            if (result.isOverflow()) flushBuffer();
+        } while (result.isOverflow());
+        encoder.reset();
+    }
+
+    /**
+     * Grava o buffer atual, diretamente ou entregando-o a thread de
+     * segundo plano em troca de um buffer livre.
+     */
+    private void flushBuffer() throws IOException {
+        if (count == 0) return;
+        if (failure != null) throw failure;
+        if (flusher == null) {
+            writeFully(ByteBuffer.wrap(bytes, 0, count));
+        } else {
+            put(pending, ByteBuffer.wrap(bytes, 0, count));
+            bytes = take(free).array();
+        }
+        count = 0;
+    }
+
+    /** Espera a thread de segundo plano gravar todos os buffers entregues. */
+    private void awaitPending() throws IOException {
+        if (flusher == null) return;
+        // o outro buffer so volta a fila de livres depois de gravado
+        free.add(take(free));
+        if (failure != null) throw failure;
+    }
+
+    private void flushPending() {
+        try {
+            while (true) {
+                ByteBuffer buffer = pending.take();
+                if (buffer == END) return;
+                if (failure == null) {
+                    try {
+                        writeFully(buffer);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                buffer.clear();
+                free.put(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static <T> void put(ArrayBlockingQueue<T> queue, T value) throws IOException {
+        try {
+            queue.put(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Gravacao interrompida");
+        }
+    }
+
+    private static <T> T take(ArrayBlockingQueue<T> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Gravacao interrompida");
+        }
+    }
+}
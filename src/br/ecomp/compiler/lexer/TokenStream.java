@@ -0,0 +1,164 @@
+package br.ecomp.compiler.lexer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * Sequencia de {@link Token}s consumida pelo analisador sintatico.
+ * Os tokens ficam num buffer circular, de modo que {@link #advance()} e
+ * {@link #peek(int)} sao O(1), independente do tamanho da entrada.
+ *
+ * A sequencia pode ser criada a partir de uma colecao ja construida,
+ * de um {@link TokenBuffer} ou ler os tokens sob demanda de um
+ * {@link Lexer} aberto com {@link Lexer#open(java.io.File)}. Nos dois
+ * ultimos casos, so ficam no buffer circular o token atual e os tokens ja
+ * lidos a frente dele, e a memoria usada depende apenas da distancia de
+ * leitura antecipada pedida pelo analisador sintatico.
+ */
+public class TokenStream {
+
+    private final Lexer lexer;
+    private final TokenBuffer buffer;
+    /** Proximo indice a ser lido do {@link TokenBuffer}. */
+    private int cursor;
+    private Token[] tokens;
+    private int mask;
+    /** Indices absolutos do token atual e do fim dos tokens ja lidos. */
+    private int position, end;
+
+    public TokenStream(Collection<Token> tokens) {
+        this.lexer = null;
+        this.buffer = null;
+        allocate(tokens.size());
+        for (Token t : tokens) this.tokens[end++ & mask] = t;
+        this.position = -1;
+    }
+
+    public TokenStream(Lexer lexer) {
+        this.lexer = lexer;
+        this.buffer = null;
+        allocate(16);
+        this.position = -1;
+    }
+
+    public TokenStream(TokenBuffer buffer) {
+        this.lexer = null;
+        this.buffer = buffer;
+        allocate(16);
+        this.position = -1;
+    }
+
+    private void allocate(int capacity) {
+        int size = 2;
+        while (size < capacity) size <<= 1;
+        tokens = new Token[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Retorna se ainda existe algum token apos a posicao atual.
+     */
+    public boolean hasNext() {
+        return peek(1) != null;
+    }
+
+    /**
+     * Move a posicao atual para o proximo token.
+     *
+     * @return o novo token atual, ou null caso tenha chegado
+     * no fim da entrada.
+     */
+    public Token advance() {
+        if (!hasNext()) return null;
+        return tokens[++position & mask];
+    }
+
+    /**
+     * Le o token n posicoes a frente da posicao atual sem
+     * mover a posicao. peek(0) retorna o token atual; n nao
+     * pode ser negativo.
+     *
+     * @return o token lido, ou null caso a posicao esteja
+     * fora da entrada.
+     */
+    public Token peek(int n) {
+        int i = position + n;
+        if (n < 0 || i < 0) return null;
+        while (i >= end) {
+            if (!fill()) return null;
+        }
+        return tokens[i & mask];
+    }
+
+    /**
+     * Retorna a posicao atual para antes do primeiro token,
+     * permitindo uma nova leitura da entrada. Se os tokens sao
+     * lidos sob demanda, o {@link Lexer} volta ao inicio do arquivo.
+     */
+    public void rewind() {
+        position = -1;
+        if (buffer != null) {
+            cursor = 0;
+            end = 0;
+        } else if (lexer != null && end > 0) {
+            end = 0;
+            try {
+                lexer.rewind();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Descarta os tokens ainda nao lidos. Se os tokens sao lidos sob
+     * demanda, o {@link Lexer} chega ao fim da entrada e completa o
+     * arquivo lex_.
+     */
+    public void skipRemaining() {
+        if (lexer == null) return;
+        try {
+            while (lexer.nextToken() != null) ;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Le mais um token do {@link Lexer} ou do {@link TokenBuffer},
+     * aumentando o buffer circular caso
+     * os tokens ainda necessarios (do atual em diante) o ocupem
+     * por completo.
+     *
+     * @return false caso a entrada tenha terminado
+     */
+    private boolean fill() {
+        Token t;
+        if (buffer != null) {
+            if (cursor == buffer.size()) return false;
+            t = buffer.token(cursor++);
+        } else if (lexer != null) {
+            try {
+                t = lexer.nextToken();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (t == null) return false;
+        } else return false;
+
+        int first = Math.max(position, 0);
+        if (end - first == tokens.length) {
+            Token[] old = tokens;
+            int oldMask = mask;
+            allocate(old.length * 2);
+            for (int i = first; i < end; i++) tokens[i & mask] = old[i & oldMask];
+        }
+        tokens[end++ & mask] = t;
+        return true;
+    }
+}
@@ -0,0 +1,356 @@
+package br.ecomp.compiler.lexer;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de transicoes do automato finito deterministico usado pelo
+ * {@link Lexer}. A tabela e montada uma unica vez a partir das definicoes
+ * dos terminais (id, numero_t, cadeia_t, caractere_t, comentarios) e dos
+ * conjuntos de delimitadores e operadores da linguagem, de forma que cada
+ * lexema e delimitado, classificado e validado numa unica passada.
+ *
+ * Onde a gramatica e o analisador original divergem (por exemplo, "5." e
+ * aceito como numero), a tabela segue o comportamento do analisador original,
+ * para que os dois modos produzam a mesma saida.
+ */
+class TransitionTable {
+
+    static final char EOF = (char) -1;
+
+    /** Indica que o caractere lido nao pertence ao lexema atual. */
+    static final int STOP = -1;
+
+    // Classes de caracteres
+    private static final int C_EOF = 0;
+    private static final int C_NEWLINE = 1;   // \n e \r
+    private static final int C_SPACE = 2;     // ' '
+    private static final int C_WS = 3;        // demais espacos em branco
+    private static final int C_LETTER = 4;    // a-z A-Z
+    private static final int C_ULETTER = 5;   // letras fora do ASCII
+    private static final int C_DIGIT = 6;     // 0-9
+    private static final int C_UDIGIT = 7;    // digitos fora do ASCII
+    private static final int C_UNDERSCORE = 8;
+    private static final int C_PIPE = 9;
+    private static final int C_DOT = 10;
+    private static final int C_LT = 11;
+    private static final int C_GT = 12;
+    private static final int C_EQ = 13;
+    private static final int C_LBRACE = 14;
+    private static final int C_RBRACE = 15;
+    private static final int C_DQUOTE = 16;
+    private static final int C_QUOTE = 17;
+    private static final int C_MINUS = 18;
+    private static final int C_PLUS = 19;
+    private static final int C_TIMES = 20;
+    private static final int C_DIV = 21;
+    private static final int C_SEMICOLON = 22;
+    private static final int C_PAREN_L = 23;
+    private static final int C_PAREN_R = 24;
+    private static final int C_COMMA = 25;
+    private static final int C_OTHER = 26;
+    private static final int CLASS_COUNT = 27;
+
+    // Estados
+    static final int START = 0;
+    private static final int S_ID = 1;
+    private static final int S_ID_BAD = 2;
+    private static final int S_MINUS = 3;
+    private static final int S_NUM_INT = 4;
+    private static final int S_NUM_FRAC = 5;
+    private static final int S_NUM_BAD = 6;
+    private static final int S_STR_OPEN = 7;
+    private static final int S_STR_BODY = 8;
+    private static final int S_STR_BAD = 9;
+    private static final int S_STR_END = 10;
+    private static final int S_STR_BAD_END = 11;
+    private static final int S_CH_OPEN = 12;
+    private static final int S_CH_ONE = 13;
+    private static final int S_CH_BAD = 14;
+    private static final int S_CH_END = 15;
+    private static final int S_CH_BAD_END = 16;
+    private static final int S_COMMENT = 17;
+    private static final int S_COMMENT_END = 18;
+    private static final int S_LT = 19;
+    private static final int S_LTLT = 20;
+    private static final int S_GT = 21;
+    private static final int S_GTGT = 22;
+    private static final int S_LE = 23;
+    private static final int S_NEQ = 24;
+    private static final int S_GE = 25;
+    private static final int S_VEC_L = 26;
+    private static final int S_VEC_R = 27;
+    private static final int S_EQ = 28;
+    private static final int S_PLUS = 29;
+    private static final int S_TIMES = 30;
+    private static final int S_DIV = 31;
+    private static final int S_SEMICOLON = 32;
+    private static final int S_PAREN_L = 33;
+    private static final int S_PAREN_R = 34;
+    private static final int S_COMMA = 35;
+    private static final int S_RBRACE = 36;
+    private static final int S_FAULTY = 37;
+    private static final int STATE_COUNT = 38;
+
+    private static final int[] ASCII_CLASS = new int[128];
+    private static final int[][] NEXT = new int[STATE_COUNT][CLASS_COUNT];
+    private static final Token.TokenType[] ACCEPT = new Token.TokenType[STATE_COUNT];
+    private static final boolean[] FINAL = new boolean[STATE_COUNT];
+    private static final boolean[] TENTATIVE = new boolean[STATE_COUNT];
+    /**
+     * Para cada estado, os caracteres ASCII que mantem o automato no
+     * mesmo estado, um bit por caractere em duas palavras de 64 bits.
+     */
+    private static final long[][] RUN_MASK = new long[STATE_COUNT][2];
+    private static final boolean[] RUN = new boolean[STATE_COUNT];
+
+    // Conjuntos de classes usados na montagem da tabela
+    private static final int[] WHITESPACE = {C_NEWLINE, C_SPACE, C_WS};
+    private static final int[] LEX_DELIMITERS = {C_EOF, C_NEWLINE, C_SPACE, C_WS,
+            C_MINUS, C_PLUS, C_TIMES, C_DIV, C_EQ, C_LT, C_GT, C_SEMICOLON,
+            C_DQUOTE, C_QUOTE, C_PAREN_L, C_PAREN_R, C_RBRACE, C_COMMA};
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (c == '\n' || c == '\r') ASCII_CLASS[c] = C_NEWLINE;
+            else if (c == ' ') ASCII_CLASS[c] = C_SPACE;
+            else if (Character.isWhitespace(c)) ASCII_CLASS[c] = C_WS;
+            else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) ASCII_CLASS[c] = C_LETTER;
+            else if (c >= '0' && c <= '9') ASCII_CLASS[c] = C_DIGIT;
+            else ASCII_CLASS[c] = C_OTHER;
+        }
+        ASCII_CLASS['_'] = C_UNDERSCORE;
+        ASCII_CLASS['|'] = C_PIPE;
+        ASCII_CLASS['.'] = C_DOT;
+        ASCII_CLASS['<'] = C_LT;
+        ASCII_CLASS['>'] = C_GT;
+        ASCII_CLASS['='] = C_EQ;
+        ASCII_CLASS['{'] = C_LBRACE;
+        ASCII_CLASS['}'] = C_RBRACE;
+        ASCII_CLASS['"'] = C_DQUOTE;
+        ASCII_CLASS['\''] = C_QUOTE;
+        ASCII_CLASS['-'] = C_MINUS;
+        ASCII_CLASS['+'] = C_PLUS;
+        ASCII_CLASS['*'] = C_TIMES;
+        ASCII_CLASS['/'] = C_DIV;
+        ASCII_CLASS[';'] = C_SEMICOLON;
+        ASCII_CLASS['('] = C_PAREN_L;
+        ASCII_CLASS[')'] = C_PAREN_R;
+        ASCII_CLASS[','] = C_COMMA;
+
+        for (int[] row : NEXT) Arrays.fill(row, STOP);
+
+        // Estado inicial: espacos em branco sao descartados, o fim de arquivo encerra a analise
+        on(START, START, WHITESPACE);
+        on(START, S_ID, C_LETTER);
+        on(START, S_ID_BAD, C_ULETTER);
+        on(START, S_MINUS, C_MINUS);
+        on(START, S_NUM_INT, C_DIGIT);
+        on(START, S_NUM_BAD, C_UDIGIT);
+        on(START, S_STR_OPEN, C_DQUOTE);
+        on(START, S_CH_OPEN, C_QUOTE);
+        on(START, S_COMMENT, C_LBRACE);
+        on(START, S_LT, C_LT);
+        on(START, S_GT, C_GT);
+        on(START, S_EQ, C_EQ);
+        on(START, S_PLUS, C_PLUS);
+        on(START, S_TIMES, C_TIMES);
+        on(START, S_DIV, C_DIV);
+        on(START, S_SEMICOLON, C_SEMICOLON);
+        on(START, S_PAREN_L, C_PAREN_L);
+        on(START, S_PAREN_R, C_PAREN_R);
+        on(START, S_COMMA, C_COMMA);
+        on(START, S_RBRACE, C_RBRACE);
+        on(START, S_FAULTY, C_UNDERSCORE, C_PIPE, C_DOT, C_OTHER);
+
+        // id = [a-zA-Z][a-zA-Z0-9_]*, lido ate o proximo delimitador
+        untilDelimiter(S_ID, S_ID_BAD);
+        on(S_ID, S_ID, C_LETTER, C_DIGIT, C_UNDERSCORE);
+        accept(S_ID, Token.TokenType.IDENTIFIER);
+        untilDelimiter(S_ID_BAD, S_ID_BAD);
+        accept(S_ID_BAD, Token.TokenType.INVALID_IDENTIFIER);
+
+        // numero_t = -?[0-9]*.?[0-9]*, lido ate o proximo delimitador.
+        // Um - que nao e seguido de digito e o operador de subtracao.
+        on(S_MINUS, S_NUM_INT, C_DIGIT);
+        on(S_MINUS, S_NUM_BAD, C_UDIGIT);
+        accept(S_MINUS, Token.TokenType.MINUS);
+        untilDelimiter(S_NUM_INT, S_NUM_BAD);
+        on(S_NUM_INT, S_NUM_INT, C_DIGIT);
+        on(S_NUM_INT, S_NUM_FRAC, C_DOT);
+        accept(S_NUM_INT, Token.TokenType.NUMBER);
+        untilDelimiter(S_NUM_FRAC, S_NUM_BAD);
+        on(S_NUM_FRAC, S_NUM_FRAC, C_DIGIT);
+        accept(S_NUM_FRAC, Token.TokenType.NUMBER);
+        untilDelimiter(S_NUM_BAD, S_NUM_BAD);
+        accept(S_NUM_BAD, Token.TokenType.INVALID_NUMBER);
+
+        // cadeia_t = "[a-zA-Z| ][a-zA-Z0-9| ]*", termina no proximo " ou numa quebra de linha
+        otherwise(S_STR_OPEN, S_STR_BAD);
+        on(S_STR_OPEN, S_STR_BODY, C_LETTER, C_PIPE, C_SPACE);
+        otherwise(S_STR_BODY, S_STR_BAD);
+        on(S_STR_BODY, S_STR_BODY, C_LETTER, C_DIGIT, C_PIPE, C_SPACE);
+        on(S_STR_BODY, S_STR_END, C_DQUOTE);
+        otherwise(S_STR_BAD, S_STR_BAD);
+        on(S_STR_OPEN, S_STR_BAD_END, C_DQUOTE);
+        on(S_STR_BAD, S_STR_BAD_END, C_DQUOTE);
+        for (int s : new int[]{S_STR_OPEN, S_STR_BODY, S_STR_BAD}) {
+            on(s, STOP, C_NEWLINE, C_EOF);
+            accept(s, Token.TokenType.INVALID_CHAR_STRING);
+        }
+        accept(S_STR_END, Token.TokenType.CHAR_STRING);
+        accept(S_STR_BAD_END, Token.TokenType.INVALID_CHAR_STRING);
+
+        // caractere_t = '[a-zA-Z0-9|]', termina no proximo ' ou num espaco em branco
+        otherwise(S_CH_OPEN, S_CH_BAD);
+        on(S_CH_OPEN, S_CH_ONE, C_LETTER, C_DIGIT, C_PIPE);
+        otherwise(S_CH_ONE, S_CH_BAD);
+        on(S_CH_ONE, S_CH_END, C_QUOTE);
+        otherwise(S_CH_BAD, S_CH_BAD);
+        on(S_CH_OPEN, S_CH_BAD_END, C_QUOTE);
+        on(S_CH_BAD, S_CH_BAD_END, C_QUOTE);
+        for (int s : new int[]{S_CH_OPEN, S_CH_ONE, S_CH_BAD}) {
+            on(s, STOP, WHITESPACE);
+            on(s, STOP, C_EOF);
+            accept(s, Token.TokenType.INVALID_CHARACTER);
+        }
+        accept(S_CH_END, Token.TokenType.CHARACTER);
+        accept(S_CH_BAD_END, Token.TokenType.INVALID_CHARACTER);
+
+        // comentario = {[^}]*}, termina no proximo } ou no fim do arquivo
+        otherwise(S_COMMENT, S_COMMENT);
+        on(S_COMMENT, STOP, C_EOF);
+        on(S_COMMENT, S_COMMENT_END, C_RBRACE);
+        accept(S_COMMENT, Token.TokenType.INVALID_COMMENT);
+        accept(S_COMMENT_END, Token.TokenType.COMMENT);
+
+        // Operadores relacionais, atribuicao e delimitadores de vetor
+        on(S_LT, S_LE, C_EQ);
+        on(S_LT, S_NEQ, C_GT);
+        on(S_LT, S_LTLT, C_LT);
+        accept(S_LT, Token.TokenType.LT);
+        on(S_LTLT, S_VEC_L, C_LT);
+        accept(S_LTLT, Token.TokenType.ATRIB);
+        on(S_GT, S_GE, C_EQ);
+        on(S_GT, S_GTGT, C_GT);
+        accept(S_GT, Token.TokenType.GT);
+        // ">>" so forma lexema se for seguido de um terceiro >
+        TENTATIVE[S_GTGT] = true;
+        on(S_GTGT, S_VEC_R, C_GT);
+        accept(S_LE, Token.TokenType.LE);
+        accept(S_NEQ, Token.TokenType.NEQ);
+        accept(S_GE, Token.TokenType.GE);
+        accept(S_VEC_L, Token.TokenType.VEC_DELIM_L);
+        accept(S_VEC_R, Token.TokenType.VEC_DELIM_R);
+        accept(S_EQ, Token.TokenType.EQ);
+
+        // Delimitadores e operadores de um caractere
+        accept(S_PLUS, Token.TokenType.PLUS);
+        accept(S_TIMES, Token.TokenType.TIMES);
+        accept(S_DIV, Token.TokenType.DIV);
+        accept(S_SEMICOLON, Token.TokenType.SEMICOLON);
+        accept(S_PAREN_L, Token.TokenType.PAREN_L);
+        accept(S_PAREN_R, Token.TokenType.PAREN_R);
+        accept(S_COMMA, Token.TokenType.COMMA);
+        accept(S_RBRACE, Token.TokenType.INVALID);
+
+        // Qualquer outro simbolo e lido ate o proximo delimitador
+        untilDelimiter(S_FAULTY, S_FAULTY);
+        accept(S_FAULTY, Token.TokenType.INVALID_SYMBOL);
+
+        // Estados sem nenhuma transicao emitem o token assim que sao alcancados
+        for (int s = 0; s < STATE_COUNT; s++) {
+            boolean hasTransition = false;
+            for (int next : NEXT[s]) hasTransition |= next != STOP;
+            FINAL[s] = !hasTransition && s != START;
+        }
+
+        for (int s = 0; s < STATE_COUNT; s++) {
+            for (char c = 0; c < 128; c++) {
+                if (NEXT[s][ASCII_CLASS[c]] == s) RUN_MASK[s][c >> 6] |= 1L << c;
+            }
+            RUN[s] = RUN_MASK[s][0] != 0 || RUN_MASK[s][1] != 0;
+        }
+    }
+
+    private static void on(int from, int to, int... classes) {
+        for (int c : classes) NEXT[from][c] = to;
+    }
+
+    private static void otherwise(int from, int to) {
+        Arrays.fill(NEXT[from], to);
+    }
+
+    private static void untilDelimiter(int from, int to) {
+        otherwise(from, to);
+        on(from, STOP, LEX_DELIMITERS);
+    }
+
+    private static void accept(int state, Token.TokenType type) {
+        ACCEPT[state] = type;
+    }
+
+    /**
+     * Retorna a classe do caractere. Caracteres ASCII sao resolvidos
+     * pela tabela; os demais sao classificados com os metodos de
+     * {@link Character}, como no analisador original.
+     */
+    static int classOf(char c) {
+        if (c < 128) return ASCII_CLASS[c];
+        if (c == EOF) return C_EOF;
+        if (Character.isWhitespace(c)) return C_WS;
+        if (Character.isLetter(c)) return C_ULETTER;
+        if (Character.isDigit(c)) return C_UDIGIT;
+        return C_OTHER;
+    }
+
+    /**
+     * Retorna o estado alcancado a partir de state ao ler o caractere c,
+     * ou {@link #STOP} caso c nao pertenca ao lexema.
+     */
+    static int next(int state, char c) {
+        return NEXT[state][classOf(c)];
+    }
+
+    /**
+     * Retorna o tipo do token reconhecido quando a leitura para no estado.
+     */
+    static Token.TokenType accept(int state) {
+        return ACCEPT[state];
+    }
+
+    /**
+     * Estados finais completam o lexema assim que sao alcancados.
+     */
+    static boolean isFinal(int state) {
+        return FINAL[state];
+    }
+
+    /**
+     * Retorna se o estado tem uma transicao para si mesmo com algum
+     * caractere ASCII, como os espacos em branco no estado inicial ou o
+     * corpo de comentarios, cadeias e identificadores. Nesses estados, o
+     * analisador lexico pode consumir a sequencia de uma so vez com
+     * {@link #runMask(int, int)}.
+     */
+    static boolean hasRun(int state) {
+        return RUN[state];
+    }
+
+    /**
+     * Retorna os caracteres ASCII que mantem o automato no estado: o bit
+     * c da palavra 0 corresponde ao caractere c, e o bit c da palavra 1,
+     * ao caractere c + 64.
+     */
+    static long runMask(int state, int word) {
+        return RUN_MASK[state][word];
+    }
+
+    /**
+     * Estados provisorios so sao aceitos se o caractere seguinte
+     * tambem levar a um estado valido. Caso contrario, o lexema
+     * termina no estado anterior.
+     */
+    static boolean isTentative(int state) {
+        return TENTATIVE[state];
+    }
+}
@@ -0,0 +1,196 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.parser.SyntaxTree.Kind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolucao de nomes, feita antes da analise semantica: percorre a
+ * {@link SyntaxTree} na ordem da entrada, abrindo os escopos dos blocos
+ * como o {@link TypeChecker}, e da a cada simbolo declarado um endereco,
+ * a profundidade do seu escopo e a sua posicao nele (os globais ficam na
+ * profundidade 0, na ordem de {@link SymbolTable#getGlobals()}). Cada
+ * uso de um nome e anotado na arvore com o endereco do simbolo que ele
+ * encontra (veja {@link SyntaxTree#bind(int, int, int)}), de modo que a
+ * analise semantica chega aos simbolos por indices, sem buscas pelo nome.
+ *
+ * Os escopos sao abertos sobre uma {@link PersistentSymbolTable} com os
+ * simbolos globais (veja {@link #scope(Symbol[])}): cada escopo aberto e
+ * uma nova tabela, e a tabela global nunca muda, entao varias threads
+ * podem resolver trechos da arvore sobre a mesma tabela, sem copias.
+ *
+ * Os nomes nao encontrados sao marcados com {@link #UNRESOLVED}, e as
+ * declaracoes de nomes ja definidos no escopo, com {@link #DUPLICATE};
+ * os erros sao informados pela analise semantica, no ponto da entrada em
+ * que aparecem.
+ */
+class Binder {
+
+    /** Posicao de um nome que nao foi encontrado. */
+    static final int UNRESOLVED = -1;
+    /** Posicao de uma declaracao de um nome ja definido no escopo. */
+    static final int DUPLICATE = -2;
+
+    private final SyntaxTree tree;
+    /** Tabela do escopo atual. */
+    private PersistentSymbolTable table;
+    private int depth;
+    /** Posicoes ja ocupadas em cada escopo aberto. */
+    private int[] sizes = new int[8];
+
+    /**
+     * @param table tabela de simbolos globais, sobre a qual os escopos
+     *              dos blocos sao abertos
+     */
+    Binder(SyntaxTree tree, PersistentSymbolTable table) {
+        this.tree = tree;
+        this.table = table;
+    }
+
+    /**
+     * Da os enderecos aos simbolos globais.
+     *
+     * @return os simbolos globais, indexados pela posicao
+     */
+    static Symbol[] globals(SymbolTable table) {
+        Symbol[] globals = table.getGlobals();
+        for (int i = 0; i < globals.length; i++) globals[i].bind(0, i);
+        return globals;
+    }
+
+    /**
+     * @param globals os simbolos globais, um por nome
+     * @return a tabela com os simbolos globais, compartilhada pelos
+     * {@link Binder}s de todos os trechos
+     */
+    static PersistentSymbolTable scope(Symbol[] globals) {
+        PersistentSymbolTable table = PersistentSymbolTable.empty();
+        for (Symbol s : globals) table = table.put(s);
+        return table;
+    }
+
+    void bind(int program) {
+        bind(tree.firstChild(program), SyntaxTree.NONE);
+    }
+
+    /**
+     * Resolve os nomes dos irmaos de from ate to (exclusive), filhos do
+     * programa.
+     */
+    void bind(int from, int to) {
+        for (int node = from; node != to; node = tree.nextSibling(node)) visit(node);
+    }
+
+    private void visit(int node) {
+        switch (tree.kind(node)) {
+            case VAR_GROUP:
+                // as variaveis globais ja foram definidas pelo Parser
+                for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+                    if (tree.kind(child) == Kind.SKIPPED) continue;
+                    children(child);
+                    if (depth > 0) declare(child);
+                }
+                break;
+            case BLOCK:
+                block(node, new int[0]);
+                break;
+            case FUNCTION:
+                function(node);
+                break;
+            case NAME:
+                children(node);
+                resolve(node, false);
+                break;
+            case CALL:
+                resolve(node, true);
+                children(node);
+                break;
+            case ASSIGN:
+                resolve(node, false);
+                children(node);
+                break;
+            default:
+                children(node);
+        }
+    }
+
+    private void children(int node) {
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child))
+            visit(child);
+    }
+
+    /**
+     * Os parametros e a variavel de retorno sao definidos no escopo do
+     * bloco da funcao; os indices dos parametros, no escopo de fora.
+     */
+    private void function(int node) {
+        List<Integer> args = new ArrayList<>();
+        boolean returns = false;
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            switch (tree.kind(child)) {
+                case TOKEN:
+                    returns = true;
+                    break;
+                case PARAM:
+                    int name = tree.firstChild(child);
+                    children(name);
+                    args.add(name);
+                    break;
+                case BLOCK:
+                    if (returns) args.add(node);
+                    int[] declarations = new int[args.size()];
+                    for (int i = 0; i < declarations.length; i++) declarations[i] = args.get(i);
+                    block(child, declarations);
+                    break;
+                default:
+                    children(child);
+            }
+        }
+    }
+
+    /**
+     * @param args nos que declaram os parametros de uma funcao e sua
+     *             variavel de retorno, definidos no escopo do bloco
+     */
+    private void block(int node, int[] args) {
+        table = table.enterScope();
+        depth++;
+        if (depth == sizes.length) sizes = Arrays.copyOf(sizes, depth * 2);
+        sizes[depth] = 0;
+        for (int arg : args) declare(arg);
+        children(node);
+        tree.bind(node, depth, sizes[depth]);
+        depth--;
+        table = table.exitScope();
+    }
+
+    /**
+     * Define, no escopo atual, o nome do token do no.
+     */
+    private void declare(int node) {
+        Token t = tree.token(node);
+        if (t == null) {
+            // funcao sem nome, apos um erro sintatico
+            tree.bind(node, depth, UNRESOLVED);
+            return;
+        }
+        if (table.containsSymbolLocal(t)) {
+            tree.bind(node, depth, DUPLICATE);
+            return;
+        }
+        Symbol s = new Variable(t, null);
+        s.bind(depth, sizes[depth]++);
+        table = table.put(s);
+        tree.bind(node, s.getDepth(), s.getSlot());
+    }
+
+    private void resolve(int node, boolean isFunction) {
+        Token t = tree.token(node);
+        Symbol s = (t == null) ? null : table.get(t, isFunction);
+        if (s == null) tree.bind(node, 0, UNRESOLVED);
+        else tree.bind(node, s.getDepth(), s.getSlot());
+    }
+}
@@ -17,12 +17,12 @@ public class Function extends Symbol {
 
     @Override
     public String toString() {
-        String s = super.toString() + "\targs: {\n";
+        StringBuilder s = new StringBuilder(super.toString()).append("\targs: {\n");
         for (Symbol arg : args) {
-            s += "\t\t" + arg.toString() + "\n";
+            s.append("\t\t").append(arg.toString()).append('\n');
         }
-        s += "\t}";
-        return s;
+        s.append("\t}");
+        return s.toString();
     }
 
     public int getArgCount() {
@@ -0,0 +1,834 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token.TokenType;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * Tabelas do analisador sintatico {@link TableParser}, geradas
+ * por {@link br.ecomp.compiler.grammar.TableGenerator} a partir de
+ * gramatica_problema2.grm. Nao edite este arquivo: altere a gramatica e
+ * gere as tabelas novamente (veja build.sh).
+ */
+final class GrammarTables {
+
+    /** Coluna do fim da entrada na tabela de previsao. */
+    static final int END = TokenType.values().length;
+
+    static final int PROGRAMA = 0;
+    static final int C = 1;
+    static final int P = 2;
+    static final int FUNCOES = 3;
+    static final int VARIAVEIS = 4;
+    static final int VAR_LIST = 5;
+    static final int VAR_DECL = 6;
+    static final int CONSTANTES = 7;
+    static final int CONST_LIST = 8;
+    static final int CONST_DECL = 9;
+    static final int CONST_DECL2 = 10;
+    static final int BLOCO = 11;
+    static final int BLOCO2 = 12;
+    static final int CORPO_BLOCO = 13;
+    static final int COMANDO = 14;
+    static final int ENQUANTO = 15;
+    static final int SE = 16;
+    static final int SENAO = 17;
+    static final int LEIA = 18;
+    static final int LEIA_PARAMS = 19;
+    static final int LEIA_PARAM2 = 20;
+    static final int ESCREVA = 21;
+    static final int ESCREVA_PARAMS = 22;
+    static final int ESCREVA_PARAM2 = 23;
+    static final int ATRIBUICAO = 24;
+    static final int FUNCAO_DECL = 25;
+    static final int FUNCAO_DECL2 = 26;
+    static final int PARAM_DECL = 27;
+    static final int PARAM_DECL_LIST = 28;
+    static final int CHAMADA_FUNCAO = 29;
+    static final int CHAMADA_FUNCAO2 = 30;
+    static final int PARAM_CHAM = 31;
+    static final int PARAM_CHAM2 = 32;
+    static final int EXP_ARITMETICA = 33;
+    static final int EXP_SOMSUB = 34;
+    static final int OPERADOR_A1 = 35;
+    static final int EXP_A1 = 36;
+    static final int EXP_MULDIV = 37;
+    static final int OPERADOR_A2 = 38;
+    static final int VALOR_NUMERICO = 39;
+    static final int NUMERICO_FUNCAO = 40;
+    static final int EXP_LOGICA = 41;
+    static final int EXP_LOGICA2 = 42;
+    static final int EXP_LOGICA3 = 43;
+    static final int X5 = 44;
+    static final int X4 = 45;
+    static final int OPERADOR_L1 = 46;
+    static final int OPERADOR_L2 = 47;
+    static final int VALOR_BOOLEANO = 48;
+    static final int EXP_RELACIONAL = 49;
+    static final int OPERADOR_R1 = 50;
+    static final int OPERADOR_R2 = 51;
+    static final int TIPO = 52;
+    static final int LITERAL = 53;
+    static final int VETOR = 54;
+    static final int VETOR2 = 55;
+    static final int VETOR_FUNCAO = 56;
+    static final int VALOR = 57;
+    static final int LITERAL_NUMERO = 58;
+    static final int ID_VETOR = 59;
+    static final int VAR_DECL_1 = 60;
+    static final int EXP_ARITMETICA_1 = 61;
+    static final int EXP_SOMSUB_1 = 62;
+    static final int EXP_A1_1 = 63;
+    static final int EXP_MULDIV_1 = 64;
+    static final int EXP_LOGICA_1 = 65;
+    static final int EXP_LOGICA_2 = 66;
+
+    static final String[] NAMES = {
+            "<Programa>",
+            "<C>",
+            "<P>",
+            "<Funcoes>",
+            "<Variaveis>",
+            "<Var_List>",
+            "<Var_Decl>",
+            "<Constantes>",
+            "<Const_List>",
+            "<Const_Decl>",
+            "<Const_Decl2>",
+            "<Bloco>",
+            "<Bloco2>",
+            "<Corpo_Bloco>",
+            "<Comando>",
+            "<Enquanto>",
+            "<Se>",
+            "<Senao>",
+            "<Leia>",
+            "<Leia_Params>",
+            "<Leia_Param2>",
+            "<Escreva>",
+            "<Escreva_Params>",
+            "<Escreva_Param2>",
+            "<Atribuicao>",
+            "<Funcao_Decl>",
+            "<Funcao_Decl2>",
+            "<Param_Decl>",
+            "<Param_Decl_List>",
+            "<Chamada_Funcao>",
+            "<Chamada_Funcao2>",
+            "<Param_Cham>",
+            "<Param_Cham2>",
+            "<Exp_Aritmetica>",
+            "<Exp_SomSub>",
+            "<Operador_A1>",
+            "<Exp_A1>",
+            "<Exp_MulDiv>",
+            "<Operador_A2>",
+            "<Valor_Numerico>",
+            "<Numerico_Funcao>",
+            "<Exp_Logica>",
+            "<Exp_Logica2>",
+            "<Exp_Logica3>",
+            "<X5>",
+            "<X4>",
+            "<Operador_L1>",
+            "<Operador_L2>",
+            "<Valor_Booleano>",
+            "<Exp_Relacional>",
+            "<Operador_R1>",
+            "<Operador_R2>",
+            "<Tipo>",
+            "<Literal>",
+            "<Vetor>",
+            "<Vetor2>",
+            "<Vetor_Funcao>",
+            "<Valor>",
+            "<Literal_Numero>",
+            "<Id_Vetor>",
+            "<Var_Decl_1>",
+            "<Exp_Aritmetica_1>",
+            "<Exp_SomSub_1>",
+            "<Exp_A1_1>",
+            "<Exp_MulDiv_1>",
+            "<Exp_Logica_1>",
+            "<Exp_Logica_2>"
+    };
+
+    /**
+     * Lado direito de cada producao: os terminais pelo ordinal do tipo
+     * e os nao-terminais pelo complemento (~) do indice.
+     */
+    static final int[][] PRODUCTIONS = {
+            /* 0 <Programa> ::= <Variaveis> <C> */
+            {n(VARIAVEIS), n(C)},
+            /* 1 <Programa> ::= <C> */
+            {n(C)},
+            /* 2 <C> ::= <Constantes> <P> */
+            {n(CONSTANTES), n(P)},
+            /* 3 <C> ::= <P> */
+            {n(P)},
+            /* 4 <P> ::= PROGRAMA <Bloco> <Funcoes> */
+            {t(TokenType.PROGRAMA), n(BLOCO), n(FUNCOES)},
+            /* 5 <Funcoes> ::= <Funcao_Decl> <Funcoes> */
+            {n(FUNCAO_DECL), n(FUNCOES)},
+            /* 6 <Funcoes> ::= <> */
+            {},
+            /* 7 <Variaveis> ::= VAR INICIO <Var_List> FIM */
+            {t(TokenType.VAR), t(TokenType.INICIO), n(VAR_LIST), t(TokenType.FIM)},
+            /* 8 <Var_List> ::= <Tipo> <Var_Decl> <Var_List> */
+            {n(TIPO), n(VAR_DECL), n(VAR_LIST)},
+            /* 9 <Var_List> ::= <> */
+            {},
+            /* 10 <Var_Decl> ::= <Id_Vetor> <Var_Decl_1> */
+            {n(ID_VETOR), n(VAR_DECL_1)},
+            /* 11 <Constantes> ::= CONST INICIO <Const_List> FIM */
+            {t(TokenType.CONST), t(TokenType.INICIO), n(CONST_LIST), t(TokenType.FIM)},
+            /* 12 <Const_List> ::= <Tipo> <Const_Decl> <Const_List> */
+            {n(TIPO), n(CONST_DECL), n(CONST_LIST)},
+            /* 13 <Const_List> ::= <> */
+            {},
+            /* 14 <Const_Decl> ::= IDENTIFIER ATRIB <Literal> <Const_Decl2> */
+            {t(TokenType.IDENTIFIER), t(TokenType.ATRIB), n(LITERAL), n(CONST_DECL2)},
+            /* 15 <Const_Decl2> ::= COMMA <Const_Decl> */
+            {t(TokenType.COMMA), n(CONST_DECL)},
+            /* 16 <Const_Decl2> ::= SEMICOLON */
+            {t(TokenType.SEMICOLON)},
+            /* 17 <Bloco> ::= INICIO <Bloco2> */
+            {t(TokenType.INICIO), n(BLOCO2)},
+            /* 18 <Bloco2> ::= <Variaveis> <Corpo_Bloco> FIM */
+            {n(VARIAVEIS), n(CORPO_BLOCO), t(TokenType.FIM)},
+            /* 19 <Bloco2> ::= <Var_List> <Corpo_Bloco> FIM */
+            {n(VAR_LIST), n(CORPO_BLOCO), t(TokenType.FIM)},
+            /* 20 <Corpo_Bloco> ::= <Comando> <Corpo_Bloco> */
+            {n(COMANDO), n(CORPO_BLOCO)},
+            /* 21 <Corpo_Bloco> ::= <Atribuicao> <Corpo_Bloco> */
+            {n(ATRIBUICAO), n(CORPO_BLOCO)},
+            /* 22 <Corpo_Bloco> ::= <Chamada_Funcao> SEMICOLON <Corpo_Bloco> */
+            {n(CHAMADA_FUNCAO), t(TokenType.SEMICOLON), n(CORPO_BLOCO)},
+            /* 23 <Corpo_Bloco> ::= <> */
+            {},
+            /* 24 <Comando> ::= <Se> */
+            {n(SE)},
+            /* 25 <Comando> ::= <Enquanto> */
+            {n(ENQUANTO)},
+            /* 26 <Comando> ::= <Escreva> */
+            {n(ESCREVA)},
+            /* 27 <Comando> ::= <Leia> */
+            {n(LEIA)},
+            /* 28 <Enquanto> ::= ENQUANTO PAREN_L <Exp_Logica> PAREN_R FACA <Bloco> */
+            {t(TokenType.ENQUANTO), t(TokenType.PAREN_L), n(EXP_LOGICA), t(TokenType.PAREN_R), t(TokenType.FACA), n(BLOCO)},
+            /* 29 <Se> ::= SE PAREN_L <Exp_Logica> PAREN_R ENTAO <Bloco> <Senao> */
+            {t(TokenType.SE), t(TokenType.PAREN_L), n(EXP_LOGICA), t(TokenType.PAREN_R), t(TokenType.ENTAO), n(BLOCO), n(SENAO)},
+            /* 30 <Senao> ::= SENAO <Bloco> */
+            {t(TokenType.SENAO), n(BLOCO)},
+            /* 31 <Senao> ::= <> */
+            {},
+            /* 32 <Leia> ::= LEIA PAREN_L <Leia_Params> PAREN_R SEMICOLON */
+            {t(TokenType.LEIA), t(TokenType.PAREN_L), n(LEIA_PARAMS), t(TokenType.PAREN_R), t(TokenType.SEMICOLON)},
+            /* 33 <Leia_Params> ::= <Id_Vetor> <Leia_Param2> */
+            {n(ID_VETOR), n(LEIA_PARAM2)},
+            /* 34 <Leia_Param2> ::= COMMA <Leia_Params> */
+            {t(TokenType.COMMA), n(LEIA_PARAMS)},
+            /* 35 <Leia_Param2> ::= <> */
+            {},
+            /* 36 <Escreva> ::= ESCREVA PAREN_L <Escreva_Params> PAREN_R SEMICOLON */
+            {t(TokenType.ESCREVA), t(TokenType.PAREN_L), n(ESCREVA_PARAMS), t(TokenType.PAREN_R), t(TokenType.SEMICOLON)},
+            /* 37 <Escreva_Params> ::= NUMBER <Escreva_Param2> */
+            {t(TokenType.NUMBER), n(ESCREVA_PARAM2)},
+            /* 38 <Escreva_Params> ::= CHARACTER <Escreva_Param2> */
+            {t(TokenType.CHARACTER), n(ESCREVA_PARAM2)},
+            /* 39 <Escreva_Params> ::= CHAR_STRING <Escreva_Param2> */
+            {t(TokenType.CHAR_STRING), n(ESCREVA_PARAM2)},
+            /* 40 <Escreva_Param2> ::= COMMA <Escreva_Params> */
+            {t(TokenType.COMMA), n(ESCREVA_PARAMS)},
+            /* 41 <Escreva_Param2> ::= <> */
+            {},
+            /* 42 <Atribuicao> ::= <Id_Vetor> ATRIB <Valor> SEMICOLON */
+            {n(ID_VETOR), t(TokenType.ATRIB), n(VALOR), t(TokenType.SEMICOLON)},
+            /* 43 <Funcao_Decl> ::= FUNCAO <Funcao_Decl2> */
+            {t(TokenType.FUNCAO), n(FUNCAO_DECL2)},
+            /* 44 <Funcao_Decl2> ::= <Tipo> IDENTIFIER PAREN_L <Param_Decl> PAREN_R <Bloco> */
+            {n(TIPO), t(TokenType.IDENTIFIER), t(TokenType.PAREN_L), n(PARAM_DECL), t(TokenType.PAREN_R), n(BLOCO)},
+            /* 45 <Funcao_Decl2> ::= IDENTIFIER PAREN_L <Param_Decl> PAREN_R <Bloco> */
+            {t(TokenType.IDENTIFIER), t(TokenType.PAREN_L), n(PARAM_DECL), t(TokenType.PAREN_R), n(BLOCO)},
+            /* 46 <Param_Decl> ::= <Tipo> <Id_Vetor> <Param_Decl_List> */
+            {n(TIPO), n(ID_VETOR), n(PARAM_DECL_LIST)},
+            /* 47 <Param_Decl> ::= <> */
+            {},
+            /* 48 <Param_Decl_List> ::= COMMA <Param_Decl> */
+            {t(TokenType.COMMA), n(PARAM_DECL)},
+            /* 49 <Param_Decl_List> ::= <> */
+            {},
+            /* 50 <Chamada_Funcao> ::= IDENTIFIER PAREN_L <Chamada_Funcao2> */
+            {t(TokenType.IDENTIFIER), t(TokenType.PAREN_L), n(CHAMADA_FUNCAO2)},
+            /* 51 <Chamada_Funcao2> ::= <Param_Cham> PAREN_R */
+            {n(PARAM_CHAM), t(TokenType.PAREN_R)},
+            /* 52 <Chamada_Funcao2> ::= PAREN_R */
+            {t(TokenType.PAREN_R)},
+            /* 53 <Param_Cham> ::= <Literal> <Param_Cham2> */
+            {n(LITERAL), n(PARAM_CHAM2)},
+            /* 54 <Param_Cham> ::= <Id_Vetor> <Param_Cham2> */
+            {n(ID_VETOR), n(PARAM_CHAM2)},
+            /* 55 <Param_Cham2> ::= COMMA <Param_Cham> */
+            {t(TokenType.COMMA), n(PARAM_CHAM)},
+            /* 56 <Param_Cham2> ::= <> */
+            {},
+            /* 57 <Exp_Aritmetica> ::= <Exp_A1> <Exp_Aritmetica_1> */
+            {n(EXP_A1), n(EXP_ARITMETICA_1)},
+            /* 58 <Exp_SomSub> ::= <Operador_A1> <Exp_A1> <Exp_SomSub_1> */
+            {n(OPERADOR_A1), n(EXP_A1), n(EXP_SOMSUB_1)},
+            /* 59 <Operador_A1> ::= PLUS */
+            {t(TokenType.PLUS)},
+            /* 60 <Operador_A1> ::= MINUS */
+            {t(TokenType.MINUS)},
+            /* 61 <Exp_A1> ::= <Numerico_Funcao> <Exp_A1_1> */
+            {n(NUMERICO_FUNCAO), n(EXP_A1_1)},
+            /* 62 <Exp_MulDiv> ::= <Operador_A2> <Numerico_Funcao> <Exp_MulDiv_1> */
+            {n(OPERADOR_A2), n(NUMERICO_FUNCAO), n(EXP_MULDIV_1)},
+            /* 63 <Operador_A2> ::= TIMES */
+            {t(TokenType.TIMES)},
+            /* 64 <Operador_A2> ::= DIV */
+            {t(TokenType.DIV)},
+            /* 65 <Valor_Numerico> ::= PAREN_L <Exp_Aritmetica> PAREN_R */
+            {t(TokenType.PAREN_L), n(EXP_ARITMETICA), t(TokenType.PAREN_R)},
+            /* 66 <Valor_Numerico> ::= NUMBER */
+            {t(TokenType.NUMBER)},
+            /* 67 <Numerico_Funcao> ::= <Valor_Numerico> */
+            {n(VALOR_NUMERICO)},
+            /* 68 <Numerico_Funcao> ::= <Vetor_Funcao> */
+            {n(VETOR_FUNCAO)},
+            /* 69 <Exp_Logica> ::= <Vetor_Funcao> <Operador_L1> <Exp_Logica_1> */
+            {n(VETOR_FUNCAO), n(OPERADOR_L1), n(EXP_LOGICA_1)},
+            /* 70 <Exp_Logica> ::= <Valor_Booleano> <Exp_Logica_2> */
+            {n(VALOR_BOOLEANO), n(EXP_LOGICA_2)},
+            /* 71 <Exp_Logica> ::= <Operador_L2> <X4> <Exp_Logica2> */
+            {n(OPERADOR_L2), n(X4), n(EXP_LOGICA2)},
+            /* 72 <Exp_Logica2> ::= <Operador_L1> <Exp_Logica3> */
+            {n(OPERADOR_L1), n(EXP_LOGICA3)},
+            /* 73 <Exp_Logica2> ::= <> */
+            {},
+            /* 74 <Exp_Logica3> ::= <X5> <Exp_Logica2> */
+            {n(X5), n(EXP_LOGICA2)},
+            /* 75 <Exp_Logica3> ::= <Operador_L2> <X4> <Exp_Logica2> */
+            {n(OPERADOR_L2), n(X4), n(EXP_LOGICA2)},
+            /* 76 <X5> ::= <X4> */
+            {n(X4)},
+            /* 77 <X5> ::= <Vetor_Funcao> */
+            {n(VETOR_FUNCAO)},
+            /* 78 <X4> ::= PAREN_L <Vetor_Funcao> PAREN_R */
+            {t(TokenType.PAREN_L), n(VETOR_FUNCAO), t(TokenType.PAREN_R)},
+            /* 79 <X4> ::= <Valor_Booleano> */
+            {n(VALOR_BOOLEANO)},
+            /* 80 <Operador_L1> ::= E */
+            {t(TokenType.E)},
+            /* 81 <Operador_L1> ::= OU */
+            {t(TokenType.OU)},
+            /* 82 <Operador_L2> ::= NAO */
+            {t(TokenType.NAO)},
+            /* 83 <Valor_Booleano> ::= PAREN_L <Exp_Logica> PAREN_R */
+            {t(TokenType.PAREN_L), n(EXP_LOGICA), t(TokenType.PAREN_R)},
+            /* 84 <Valor_Booleano> ::= <Exp_Relacional> */
+            {n(EXP_RELACIONAL)},
+            /* 85 <Valor_Booleano> ::= BOOL_V */
+            {t(TokenType.BOOL_V)},
+            /* 86 <Exp_Relacional> ::= <Numerico_Funcao> <Operador_R1> <Numerico_Funcao> */
+            {n(NUMERICO_FUNCAO), n(OPERADOR_R1), n(NUMERICO_FUNCAO)},
+            /* 87 <Exp_Relacional> ::= <Literal_Numero> <Operador_R2> <Literal_Numero> */
+            {n(LITERAL_NUMERO), n(OPERADOR_R2), n(LITERAL_NUMERO)},
+            /* 88 <Operador_R1> ::= <Operador_R2> */
+            {n(OPERADOR_R2)},
+            /* 89 <Operador_R1> ::= LT */
+            {t(TokenType.LT)},
+            /* 90 <Operador_R1> ::= LE */
+            {t(TokenType.LE)},
+            /* 91 <Operador_R1> ::= GT */
+            {t(TokenType.GT)},
+            /* 92 <Operador_R1> ::= GE */
+            {t(TokenType.GE)},
+            /* 93 <Operador_R2> ::= NEQ */
+            {t(TokenType.NEQ)},
+            /* 94 <Operador_R2> ::= EQ */
+            {t(TokenType.EQ)},
+            /* 95 <Tipo> ::= INTEIRO */
+            {t(TokenType.INTEIRO)},
+            /* 96 <Tipo> ::= REAL */
+            {t(TokenType.REAL)},
+            /* 97 <Tipo> ::= BOOLEANO */
+            {t(TokenType.BOOLEANO)},
+            /* 98 <Tipo> ::= CADEIA */
+            {t(TokenType.CADEIA)},
+            /* 99 <Tipo> ::= CARACTERE */
+            {t(TokenType.CARACTERE)},
+            /* 100 <Literal> ::= CHARACTER */
+            {t(TokenType.CHARACTER)},
+            /* 101 <Literal> ::= CHAR_STRING */
+            {t(TokenType.CHAR_STRING)},
+            /* 102 <Literal> ::= NUMBER */
+            {t(TokenType.NUMBER)},
+            /* 103 <Literal> ::= BOOL_V */
+            {t(TokenType.BOOL_V)},
+            /* 104 <Vetor> ::= VEC_DELIM_L <Exp_Aritmetica> <Vetor2> VEC_DELIM_R */
+            {t(TokenType.VEC_DELIM_L), n(EXP_ARITMETICA), n(VETOR2), t(TokenType.VEC_DELIM_R)},
+            /* 105 <Vetor> ::= <> */
+            {},
+            /* 106 <Vetor2> ::= COMMA <Exp_Aritmetica> <Vetor2> */
+            {t(TokenType.COMMA), n(EXP_ARITMETICA), n(VETOR2)},
+            /* 107 <Vetor2> ::= <> */
+            {},
+            /* 108 <Vetor_Funcao> ::= <Id_Vetor> */
+            {n(ID_VETOR)},
+            /* 109 <Vetor_Funcao> ::= <Chamada_Funcao> */
+            {n(CHAMADA_FUNCAO)},
+            /* 110 <Valor> ::= <Exp_Aritmetica> */
+            {n(EXP_ARITMETICA)},
+            /* 111 <Valor> ::= <Exp_Logica> */
+            {n(EXP_LOGICA)},
+            /* 112 <Valor> ::= CHARACTER */
+            {t(TokenType.CHARACTER)},
+            /* 113 <Valor> ::= CHAR_STRING */
+            {t(TokenType.CHAR_STRING)},
+            /* 114 <Literal_Numero> ::= CHARACTER */
+            {t(TokenType.CHARACTER)},
+            /* 115 <Literal_Numero> ::= CHAR_STRING */
+            {t(TokenType.CHAR_STRING)},
+            /* 116 <Literal_Numero> ::= BOOL_V */
+            {t(TokenType.BOOL_V)},
+            /* 117 <Id_Vetor> ::= IDENTIFIER <Vetor> */
+            {t(TokenType.IDENTIFIER), n(VETOR)},
+            /* 118 <Var_Decl_1> ::= COMMA <Var_Decl> */
+            {t(TokenType.COMMA), n(VAR_DECL)},
+            /* 119 <Var_Decl_1> ::= SEMICOLON */
+            {t(TokenType.SEMICOLON)},
+            /* 120 <Exp_Aritmetica_1> ::= <> */
+            {},
+            /* 121 <Exp_Aritmetica_1> ::= <Exp_SomSub> */
+            {n(EXP_SOMSUB)},
+            /* 122 <Exp_SomSub_1> ::= <> */
+            {},
+            /* 123 <Exp_SomSub_1> ::= <Exp_SomSub> */
+            {n(EXP_SOMSUB)},
+            /* 124 <Exp_A1_1> ::= <> */
+            {},
+            /* 125 <Exp_A1_1> ::= <Exp_MulDiv> */
+            {n(EXP_MULDIV)},
+            /* 126 <Exp_MulDiv_1> ::= <> */
+            {},
+            /* 127 <Exp_MulDiv_1> ::= <Exp_MulDiv> */
+            {n(EXP_MULDIV)},
+            /* 128 <Exp_Logica_1> ::= <Vetor_Funcao> <Exp_Logica2> */
+            {n(VETOR_FUNCAO), n(EXP_LOGICA2)},
+            /* 129 <Exp_Logica_1> ::= <Valor_Booleano> */
+            {n(VALOR_BOOLEANO)},
+            /* 130 <Exp_Logica_2> ::= <Operador_L1> <Exp_Logica> */
+            {n(OPERADOR_L1), n(EXP_LOGICA)},
+            /* 131 <Exp_Logica_2> ::= <> */
+            {}
+    };
+
+    /** Nao-terminal do lado esquerdo de cada producao. */
+    static final int[] HEADS = {
+            PROGRAMA, PROGRAMA, C, C, P, FUNCOES, FUNCOES, VARIAVEIS, VAR_LIST, VAR_LIST, VAR_DECL,
+            CONSTANTES, CONST_LIST, CONST_LIST, CONST_DECL, CONST_DECL2, CONST_DECL2, BLOCO, BLOCO2,
+            BLOCO2, CORPO_BLOCO, CORPO_BLOCO, CORPO_BLOCO, CORPO_BLOCO, COMANDO, COMANDO, COMANDO,
+            COMANDO, ENQUANTO, SE, SENAO, SENAO, LEIA, LEIA_PARAMS, LEIA_PARAM2, LEIA_PARAM2,
+            ESCREVA, ESCREVA_PARAMS, ESCREVA_PARAMS, ESCREVA_PARAMS, ESCREVA_PARAM2, ESCREVA_PARAM2,
+            ATRIBUICAO, FUNCAO_DECL, FUNCAO_DECL2, FUNCAO_DECL2, PARAM_DECL, PARAM_DECL,
+            PARAM_DECL_LIST, PARAM_DECL_LIST, CHAMADA_FUNCAO, CHAMADA_FUNCAO2, CHAMADA_FUNCAO2,
+            PARAM_CHAM, PARAM_CHAM, PARAM_CHAM2, PARAM_CHAM2, EXP_ARITMETICA, EXP_SOMSUB,
+            OPERADOR_A1, OPERADOR_A1, EXP_A1, EXP_MULDIV, OPERADOR_A2, OPERADOR_A2, VALOR_NUMERICO,
+            VALOR_NUMERICO, NUMERICO_FUNCAO, NUMERICO_FUNCAO, EXP_LOGICA, EXP_LOGICA, EXP_LOGICA,
+            EXP_LOGICA2, EXP_LOGICA2, EXP_LOGICA3, EXP_LOGICA3, X5, X5, X4, X4, OPERADOR_L1,
+            OPERADOR_L1, OPERADOR_L2, VALOR_BOOLEANO, VALOR_BOOLEANO, VALOR_BOOLEANO,
+            EXP_RELACIONAL, EXP_RELACIONAL, OPERADOR_R1, OPERADOR_R1, OPERADOR_R1, OPERADOR_R1,
+            OPERADOR_R1, OPERADOR_R2, OPERADOR_R2, TIPO, TIPO, TIPO, TIPO, TIPO, LITERAL, LITERAL,
+            LITERAL, LITERAL, VETOR, VETOR, VETOR2, VETOR2, VETOR_FUNCAO, VETOR_FUNCAO, VALOR,
+            VALOR, VALOR, VALOR, LITERAL_NUMERO, LITERAL_NUMERO, LITERAL_NUMERO, ID_VETOR,
+            VAR_DECL_1, VAR_DECL_1, EXP_ARITMETICA_1, EXP_ARITMETICA_1, EXP_SOMSUB_1, EXP_SOMSUB_1,
+            EXP_A1_1, EXP_A1_1, EXP_MULDIV_1, EXP_MULDIV_1, EXP_LOGICA_1, EXP_LOGICA_1,
+            EXP_LOGICA_2, EXP_LOGICA_2
+    };
+
+    static final boolean[] NULLABLE = {
+            false, false, false, true, false, true, false, false, true, false, false, false, false,
+            true, false, false, false, true, false, false, true, false, false, true, false, false,
+            false, true, true, false, false, false, true, false, false, false, false, false, false,
+            false, false, false, true, false, false, false, false, false, false, false, false,
+            false, false, false, true, true, false, false, false, false, false, true, true, true,
+            true, false, true
+    };
+
+    /** Tokens que podem iniciar cada nao-terminal. */
+    static final EnumSet<TokenType>[] FIRST = sets(NAMES.length);
+    /**
+     * Tokens que podem seguir cada nao-terminal, usados para sincronizar
+     * a recuperacao de erros; o fim da entrada esta em FOLLOWED_BY_END.
+     */
+    static final EnumSet<TokenType>[] FOLLOW = sets(NAMES.length);
+    static final boolean[] FOLLOWED_BY_END = new boolean[NAMES.length];
+
+    /**
+     * Producao prevista para cada nao-terminal (linha) e token atual
+     * (coluna: o ordinal do tipo, ou END): -1 indica um erro, e -2 - k
+     * um conflito decidido pelo token seguinte, em SECOND[k].
+     */
+    static final int[][] TABLE = new int[NAMES.length][END + 1];
+    /** Producao prevista para cada token seguinte, nos conflitos. */
+    static final int[][] SECOND = new int[13][END + 1];
+    /**
+     * Producoes possiveis nos conflitos em que o token seguinte tambem
+     * nao decide a producao, indexadas como SECOND: sao tentadas em
+     * ordem, e a primeira que reconhece a entrada e escolhida.
+     */
+    static final int[][][] AMBIGUOUS = new int[13][][];
+
+    static {
+        first(PROGRAMA, TokenType.PROGRAMA, TokenType.CONST, TokenType.VAR);
+        follow(PROGRAMA, true);
+        first(C, TokenType.PROGRAMA, TokenType.CONST);
+        follow(C, true);
+        first(P, TokenType.PROGRAMA);
+        follow(P, true);
+        first(FUNCOES, TokenType.FUNCAO);
+        follow(FUNCOES, true);
+        first(VARIAVEIS, TokenType.VAR);
+        follow(VARIAVEIS, false, TokenType.IDENTIFIER, TokenType.PROGRAMA, TokenType.CONST, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(VAR_LIST, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        follow(VAR_LIST, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(VAR_DECL, TokenType.IDENTIFIER);
+        follow(VAR_DECL, false, TokenType.IDENTIFIER, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(CONSTANTES, TokenType.CONST);
+        follow(CONSTANTES, false, TokenType.PROGRAMA);
+        first(CONST_LIST, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        follow(CONST_LIST, false, TokenType.FIM);
+        first(CONST_DECL, TokenType.IDENTIFIER);
+        follow(CONST_DECL, false, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA, TokenType.FIM);
+        first(CONST_DECL2, TokenType.COMMA, TokenType.SEMICOLON);
+        follow(CONST_DECL2, false, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA, TokenType.FIM);
+        first(BLOCO, TokenType.INICIO);
+        follow(BLOCO, true, TokenType.IDENTIFIER, TokenType.FUNCAO, TokenType.FIM, TokenType.SE, TokenType.SENAO, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(BLOCO2, TokenType.IDENTIFIER, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA, TokenType.VAR, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        follow(BLOCO2, true, TokenType.IDENTIFIER, TokenType.FUNCAO, TokenType.FIM, TokenType.SE, TokenType.SENAO, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(CORPO_BLOCO, TokenType.IDENTIFIER, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        follow(CORPO_BLOCO, false, TokenType.FIM);
+        first(COMANDO, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        follow(COMANDO, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(ENQUANTO, TokenType.ENQUANTO);
+        follow(ENQUANTO, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(SE, TokenType.SE);
+        follow(SE, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(SENAO, TokenType.SENAO);
+        follow(SENAO, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(LEIA, TokenType.LEIA);
+        follow(LEIA, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(LEIA_PARAMS, TokenType.IDENTIFIER);
+        follow(LEIA_PARAMS, false, TokenType.PAREN_R);
+        first(LEIA_PARAM2, TokenType.COMMA);
+        follow(LEIA_PARAM2, false, TokenType.PAREN_R);
+        first(ESCREVA, TokenType.ESCREVA);
+        follow(ESCREVA, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(ESCREVA_PARAMS, TokenType.CHARACTER, TokenType.NUMBER, TokenType.CHAR_STRING);
+        follow(ESCREVA_PARAMS, false, TokenType.PAREN_R);
+        first(ESCREVA_PARAM2, TokenType.COMMA);
+        follow(ESCREVA_PARAM2, false, TokenType.PAREN_R);
+        first(ATRIBUICAO, TokenType.IDENTIFIER);
+        follow(ATRIBUICAO, false, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(FUNCAO_DECL, TokenType.FUNCAO);
+        follow(FUNCAO_DECL, true, TokenType.FUNCAO);
+        first(FUNCAO_DECL2, TokenType.IDENTIFIER, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        follow(FUNCAO_DECL2, true, TokenType.FUNCAO);
+        first(PARAM_DECL, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        follow(PARAM_DECL, false, TokenType.PAREN_R);
+        first(PARAM_DECL_LIST, TokenType.COMMA);
+        follow(PARAM_DECL_LIST, false, TokenType.PAREN_R);
+        first(CHAMADA_FUNCAO, TokenType.IDENTIFIER);
+        follow(CHAMADA_FUNCAO, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(CHAMADA_FUNCAO2, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_R);
+        follow(CHAMADA_FUNCAO2, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(PARAM_CHAM, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        follow(PARAM_CHAM, false, TokenType.PAREN_R);
+        first(PARAM_CHAM2, TokenType.COMMA);
+        follow(PARAM_CHAM2, false, TokenType.PAREN_R);
+        first(EXP_ARITMETICA, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        follow(EXP_ARITMETICA, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        first(EXP_SOMSUB, TokenType.PLUS, TokenType.MINUS);
+        follow(EXP_SOMSUB, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        first(OPERADOR_A1, TokenType.PLUS, TokenType.MINUS);
+        follow(OPERADOR_A1, false, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        first(EXP_A1, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        follow(EXP_A1, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS);
+        first(EXP_MULDIV, TokenType.TIMES, TokenType.DIV);
+        follow(EXP_MULDIV, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS);
+        first(OPERADOR_A2, TokenType.TIMES, TokenType.DIV);
+        follow(OPERADOR_A2, false, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        first(VALOR_NUMERICO, TokenType.NUMBER, TokenType.PAREN_L);
+        follow(VALOR_NUMERICO, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(NUMERICO_FUNCAO, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        follow(NUMERICO_FUNCAO, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(EXP_LOGICA, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L, TokenType.NAO);
+        follow(EXP_LOGICA, false, TokenType.PAREN_R, TokenType.SEMICOLON);
+        first(EXP_LOGICA2, TokenType.E, TokenType.OU);
+        follow(EXP_LOGICA2, false, TokenType.PAREN_R, TokenType.SEMICOLON);
+        first(EXP_LOGICA3, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L, TokenType.NAO);
+        follow(EXP_LOGICA3, false, TokenType.PAREN_R, TokenType.SEMICOLON);
+        first(X5, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        follow(X5, false, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.E, TokenType.OU);
+        first(X4, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        follow(X4, false, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.E, TokenType.OU);
+        first(OPERADOR_L1, TokenType.E, TokenType.OU);
+        follow(OPERADOR_L1, false, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L, TokenType.NAO);
+        first(OPERADOR_L2, TokenType.NAO);
+        follow(OPERADOR_L2, false, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        first(VALOR_BOOLEANO, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        follow(VALOR_BOOLEANO, false, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.E, TokenType.OU);
+        first(EXP_RELACIONAL, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        follow(EXP_RELACIONAL, false, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.E, TokenType.OU);
+        first(OPERADOR_R1, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE);
+        follow(OPERADOR_R1, false, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        first(OPERADOR_R2, TokenType.EQ, TokenType.NEQ);
+        follow(OPERADOR_R2, false, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        first(TIPO, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        follow(TIPO, false, TokenType.IDENTIFIER);
+        first(LITERAL, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        follow(LITERAL, false, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        first(VETOR, TokenType.VEC_DELIM_L);
+        follow(VETOR, false, TokenType.ATRIB, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(VETOR2, TokenType.COMMA);
+        follow(VETOR2, false, TokenType.VEC_DELIM_R);
+        first(VETOR_FUNCAO, TokenType.IDENTIFIER);
+        follow(VETOR_FUNCAO, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(VALOR, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L, TokenType.NAO);
+        follow(VALOR, false, TokenType.SEMICOLON);
+        first(LITERAL_NUMERO, TokenType.CHARACTER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        follow(LITERAL_NUMERO, false, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.EQ, TokenType.NEQ, TokenType.E, TokenType.OU);
+        first(ID_VETOR, TokenType.IDENTIFIER);
+        follow(ID_VETOR, false, TokenType.ATRIB, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        first(VAR_DECL_1, TokenType.COMMA, TokenType.SEMICOLON);
+        follow(VAR_DECL_1, false, TokenType.IDENTIFIER, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        first(EXP_ARITMETICA_1, TokenType.PLUS, TokenType.MINUS);
+        follow(EXP_ARITMETICA_1, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        first(EXP_SOMSUB_1, TokenType.PLUS, TokenType.MINUS);
+        follow(EXP_SOMSUB_1, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        first(EXP_A1_1, TokenType.TIMES, TokenType.DIV);
+        follow(EXP_A1_1, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS);
+        first(EXP_MULDIV_1, TokenType.TIMES, TokenType.DIV);
+        follow(EXP_MULDIV_1, false, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS);
+        first(EXP_LOGICA_1, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        follow(EXP_LOGICA_1, false, TokenType.PAREN_R, TokenType.SEMICOLON);
+        first(EXP_LOGICA_2, TokenType.E, TokenType.OU);
+        follow(EXP_LOGICA_2, false, TokenType.PAREN_R, TokenType.SEMICOLON);
+
+        for (int[] row : TABLE) Arrays.fill(row, -1);
+        predict(PROGRAMA, 0, TokenType.VAR);
+        predict(PROGRAMA, 1, TokenType.PROGRAMA, TokenType.CONST);
+        predict(C, 2, TokenType.CONST);
+        predict(C, 3, TokenType.PROGRAMA);
+        predict(P, 4, TokenType.PROGRAMA);
+        predict(FUNCOES, 5, TokenType.FUNCAO);
+        predictEnd(FUNCOES, 6);
+        predict(VARIAVEIS, 7, TokenType.VAR);
+        predict(VAR_LIST, 8, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        predict(VAR_LIST, 9, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        predict(VAR_DECL, 10, TokenType.IDENTIFIER);
+        predict(CONSTANTES, 11, TokenType.CONST);
+        predict(CONST_LIST, 12, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        predict(CONST_LIST, 13, TokenType.FIM);
+        predict(CONST_DECL, 14, TokenType.IDENTIFIER);
+        predict(CONST_DECL2, 15, TokenType.COMMA);
+        predict(CONST_DECL2, 16, TokenType.SEMICOLON);
+        predict(BLOCO, 17, TokenType.INICIO);
+        predict(BLOCO2, 18, TokenType.VAR);
+        predict(BLOCO2, 19, TokenType.IDENTIFIER, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        predict(CORPO_BLOCO, 20, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        predict(CORPO_BLOCO, 23, TokenType.FIM);
+        predict(COMANDO, 24, TokenType.SE);
+        predict(COMANDO, 25, TokenType.ENQUANTO);
+        predict(COMANDO, 26, TokenType.ESCREVA);
+        predict(COMANDO, 27, TokenType.LEIA);
+        predict(ENQUANTO, 28, TokenType.ENQUANTO);
+        predict(SE, 29, TokenType.SE);
+        predict(SENAO, 30, TokenType.SENAO);
+        predict(SENAO, 31, TokenType.IDENTIFIER, TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+        predict(LEIA, 32, TokenType.LEIA);
+        predict(LEIA_PARAMS, 33, TokenType.IDENTIFIER);
+        predict(LEIA_PARAM2, 34, TokenType.COMMA);
+        predict(LEIA_PARAM2, 35, TokenType.PAREN_R);
+        predict(ESCREVA, 36, TokenType.ESCREVA);
+        predict(ESCREVA_PARAMS, 37, TokenType.NUMBER);
+        predict(ESCREVA_PARAMS, 38, TokenType.CHARACTER);
+        predict(ESCREVA_PARAMS, 39, TokenType.CHAR_STRING);
+        predict(ESCREVA_PARAM2, 40, TokenType.COMMA);
+        predict(ESCREVA_PARAM2, 41, TokenType.PAREN_R);
+        predict(ATRIBUICAO, 42, TokenType.IDENTIFIER);
+        predict(FUNCAO_DECL, 43, TokenType.FUNCAO);
+        predict(FUNCAO_DECL2, 44, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        predict(FUNCAO_DECL2, 45, TokenType.IDENTIFIER);
+        predict(PARAM_DECL, 46, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CARACTERE, TokenType.CADEIA);
+        predict(PARAM_DECL, 47, TokenType.PAREN_R);
+        predict(PARAM_DECL_LIST, 48, TokenType.COMMA);
+        predict(PARAM_DECL_LIST, 49, TokenType.PAREN_R);
+        predict(CHAMADA_FUNCAO, 50, TokenType.IDENTIFIER);
+        predict(CHAMADA_FUNCAO2, 51, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        predict(CHAMADA_FUNCAO2, 52, TokenType.PAREN_R);
+        predict(PARAM_CHAM, 53, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        predict(PARAM_CHAM, 54, TokenType.IDENTIFIER);
+        predict(PARAM_CHAM2, 55, TokenType.COMMA);
+        predict(PARAM_CHAM2, 56, TokenType.PAREN_R);
+        predict(EXP_ARITMETICA, 57, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        predict(EXP_SOMSUB, 58, TokenType.PLUS, TokenType.MINUS);
+        predict(OPERADOR_A1, 59, TokenType.PLUS);
+        predict(OPERADOR_A1, 60, TokenType.MINUS);
+        predict(EXP_A1, 61, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        predict(EXP_MULDIV, 62, TokenType.TIMES, TokenType.DIV);
+        predict(OPERADOR_A2, 63, TokenType.TIMES);
+        predict(OPERADOR_A2, 64, TokenType.DIV);
+        predict(VALOR_NUMERICO, 65, TokenType.PAREN_L);
+        predict(VALOR_NUMERICO, 66, TokenType.NUMBER);
+        predict(NUMERICO_FUNCAO, 67, TokenType.NUMBER, TokenType.PAREN_L);
+        predict(NUMERICO_FUNCAO, 68, TokenType.IDENTIFIER);
+        predict(EXP_LOGICA, 70, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        predict(EXP_LOGICA, 71, TokenType.NAO);
+        predict(EXP_LOGICA2, 72, TokenType.E, TokenType.OU);
+        predict(EXP_LOGICA2, 73, TokenType.PAREN_R, TokenType.SEMICOLON);
+        predict(EXP_LOGICA3, 74, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        predict(EXP_LOGICA3, 75, TokenType.NAO);
+        predict(X5, 76, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        predict(X4, 79, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        predict(OPERADOR_L1, 80, TokenType.E);
+        predict(OPERADOR_L1, 81, TokenType.OU);
+        predict(OPERADOR_L2, 82, TokenType.NAO);
+        predict(VALOR_BOOLEANO, 84, TokenType.IDENTIFIER, TokenType.CHARACTER, TokenType.NUMBER, TokenType.CHAR_STRING);
+        predict(EXP_RELACIONAL, 86, TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.PAREN_L);
+        predict(EXP_RELACIONAL, 87, TokenType.CHARACTER, TokenType.BOOL_V, TokenType.CHAR_STRING);
+        predict(OPERADOR_R1, 88, TokenType.EQ, TokenType.NEQ);
+        predict(OPERADOR_R1, 89, TokenType.LT);
+        predict(OPERADOR_R1, 90, TokenType.LE);
+        predict(OPERADOR_R1, 91, TokenType.GT);
+        predict(OPERADOR_R1, 92, TokenType.GE);
+        predict(OPERADOR_R2, 93, TokenType.NEQ);
+        predict(OPERADOR_R2, 94, TokenType.EQ);
+        predict(TIPO, 95, TokenType.INTEIRO);
+        predict(TIPO, 96, TokenType.REAL);
+        predict(TIPO, 97, TokenType.BOOLEANO);
+        predict(TIPO, 98, TokenType.CADEIA);
+        predict(TIPO, 99, TokenType.CARACTERE);
+        predict(LITERAL, 100, TokenType.CHARACTER);
+        predict(LITERAL, 101, TokenType.CHAR_STRING);
+        predict(LITERAL, 102, TokenType.NUMBER);
+        predict(LITERAL, 103, TokenType.BOOL_V);
+        predict(VETOR, 104, TokenType.VEC_DELIM_L);
+        predict(VETOR, 105, TokenType.ATRIB, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS, TokenType.TIMES, TokenType.DIV, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        predict(VETOR2, 106, TokenType.COMMA);
+        predict(VETOR2, 107, TokenType.VEC_DELIM_R);
+        predict(VALOR, 111, TokenType.BOOL_V, TokenType.NAO);
+        predict(LITERAL_NUMERO, 114, TokenType.CHARACTER);
+        predict(LITERAL_NUMERO, 115, TokenType.CHAR_STRING);
+        predict(LITERAL_NUMERO, 116, TokenType.BOOL_V);
+        predict(ID_VETOR, 117, TokenType.IDENTIFIER);
+        predict(VAR_DECL_1, 118, TokenType.COMMA);
+        predict(VAR_DECL_1, 119, TokenType.SEMICOLON);
+        predict(EXP_ARITMETICA_1, 120, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        predict(EXP_ARITMETICA_1, 121, TokenType.PLUS, TokenType.MINUS);
+        predict(EXP_SOMSUB_1, 122, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON);
+        predict(EXP_SOMSUB_1, 123, TokenType.PLUS, TokenType.MINUS);
+        predict(EXP_A1_1, 124, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS);
+        predict(EXP_A1_1, 125, TokenType.TIMES, TokenType.DIV);
+        predict(EXP_MULDIV_1, 126, TokenType.VEC_DELIM_R, TokenType.PAREN_R, TokenType.COMMA, TokenType.SEMICOLON, TokenType.PLUS, TokenType.MINUS);
+        predict(EXP_MULDIV_1, 127, TokenType.TIMES, TokenType.DIV);
+        predict(EXP_LOGICA_1, 129, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L);
+        predict(EXP_LOGICA_2, 130, TokenType.E, TokenType.OU);
+        predict(EXP_LOGICA_2, 131, TokenType.PAREN_R, TokenType.SEMICOLON);
+        conflict(CORPO_BLOCO, TokenType.IDENTIFIER.ordinal(), 0, 21);
+        second(0, 22, TokenType.PAREN_L);
+        conflict(EXP_LOGICA, TokenType.IDENTIFIER.ordinal(), 1, 69);
+        second(1, 70, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE);
+        ambiguous(1, TokenType.VEC_DELIM_L.ordinal(), 69, 70);
+        ambiguous(1, TokenType.PAREN_L.ordinal(), 69, 70);
+        conflict(X5, TokenType.IDENTIFIER.ordinal(), 2, 76);
+        second(2, 77, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.E, TokenType.OU);
+        ambiguous(2, TokenType.VEC_DELIM_L.ordinal(), 76, 77);
+        ambiguous(2, TokenType.PAREN_L.ordinal(), 76, 77);
+        conflict(X4, TokenType.PAREN_L.ordinal(), 3, 78);
+        second(3, 79, TokenType.CHARACTER, TokenType.NUMBER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.PAREN_L, TokenType.NAO);
+        ambiguous(3, TokenType.IDENTIFIER.ordinal(), 78, 79);
+        conflict(VALOR_BOOLEANO, TokenType.BOOL_V.ordinal(), 4, 84);
+        second(4, 85, TokenType.PAREN_R, TokenType.SEMICOLON, TokenType.E, TokenType.OU);
+        conflict(VALOR_BOOLEANO, TokenType.PAREN_L.ordinal(), 5, 83);
+        ambiguous(5, TokenType.IDENTIFIER.ordinal(), 83, 84);
+        ambiguous(5, TokenType.NUMBER.ordinal(), 83, 84);
+        ambiguous(5, TokenType.PAREN_L.ordinal(), 83, 84);
+        conflict(VETOR_FUNCAO, TokenType.IDENTIFIER.ordinal(), 6, 108);
+        second(6, 109, TokenType.PAREN_L);
+        conflict(VALOR, TokenType.IDENTIFIER.ordinal(), 7, 110);
+        second(7, 111, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E, TokenType.OU);
+        ambiguous(7, TokenType.VEC_DELIM_L.ordinal(), 110, 111);
+        ambiguous(7, TokenType.PAREN_L.ordinal(), 110, 111);
+        conflict(VALOR, TokenType.CHARACTER.ordinal(), 8, 111);
+        second(8, 112, TokenType.SEMICOLON);
+        conflict(VALOR, TokenType.NUMBER.ordinal(), 9, 110);
+        second(9, 111, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE);
+        conflict(VALOR, TokenType.CHAR_STRING.ordinal(), 10, 111);
+        second(10, 113, TokenType.SEMICOLON);
+        conflict(VALOR, TokenType.PAREN_L.ordinal(), 11, 110);
+        second(11, 111, TokenType.CHARACTER, TokenType.BOOL_V, TokenType.CHAR_STRING, TokenType.NAO);
+        ambiguous(11, TokenType.IDENTIFIER.ordinal(), 110, 111);
+        ambiguous(11, TokenType.NUMBER.ordinal(), 110, 111);
+        ambiguous(11, TokenType.PAREN_L.ordinal(), 110, 111);
+        conflict(EXP_LOGICA_1, TokenType.IDENTIFIER.ordinal(), 12, 128);
+        second(12, 129, TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE);
+        ambiguous(12, TokenType.VEC_DELIM_L.ordinal(), 128, 129);
+        ambiguous(12, TokenType.PAREN_L.ordinal(), 128, 129);
+    }
+
+    private GrammarTables() {
+    }
+
+    private static int t(TokenType type) {
+        return type.ordinal();
+    }
+
+    private static int n(int nonterminal) {
+        return ~nonterminal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EnumSet<TokenType>[] sets(int size) {
+        EnumSet<TokenType>[] sets = (EnumSet<TokenType>[]) new EnumSet<?>[size];
+        for (int i = 0; i < size; i++) sets[i] = EnumSet.noneOf(TokenType.class);
+        return sets;
+    }
+
+    private static void first(int nonterminal, TokenType... types) {
+        FIRST[nonterminal].addAll(Arrays.asList(types));
+    }
+
+    private static void follow(int nonterminal, boolean end, TokenType... types) {
+        FOLLOW[nonterminal].addAll(Arrays.asList(types));
+        FOLLOWED_BY_END[nonterminal] = end;
+    }
+
+    private static void predict(int nonterminal, int production, TokenType... types) {
+        for (TokenType type : types) TABLE[nonterminal][type.ordinal()] = production;
+    }
+
+    private static void predictEnd(int nonterminal, int production) {
+        TABLE[nonterminal][END] = production;
+    }
+
+    private static void conflict(int nonterminal, int type, int k, int production) {
+        TABLE[nonterminal][type] = -2 - k;
+        Arrays.fill(SECOND[k], production);
+    }
+
+    private static void second(int k, int production, TokenType... types) {
+        for (TokenType type : types) SECOND[k][type.ordinal()] = production;
+    }
+
+    private static void secondEnd(int k, int production) {
+        SECOND[k][END] = production;
+    }
+
+    private static void ambiguous(int k, int type, int... productions) {
+        if (AMBIGUOUS[k] == null) AMBIGUOUS[k] = new int[END + 1][];
+        AMBIGUOUS[k][type] = productions;
+    }
+}
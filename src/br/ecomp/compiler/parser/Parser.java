@@ -2,78 +2,335 @@ package br.ecomp.compiler.parser;
 
 import br.ecomp.compiler.lexer.Token;
 import br.ecomp.compiler.lexer.Token.TokenType;
+import br.ecomp.compiler.lexer.TokenStream;
+import br.ecomp.compiler.parser.SyntaxTree.Kind;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.LinkedList;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
+ * Analise sintatica e indexacao dos simbolos globais. Durante a leitura
+ * da entrada, e montada a arvore sintatica ({@link SyntaxTree}), que a
+ * analise semantica ({@link TypeChecker}) percorre depois, com a tabela
+ * de simbolos globais ja completa.
+ *
  * @author Filipe Boaventura
  * @since 24/09/2016.
  */
 public class Parser {
+    /**
+     * Operadores logicos e relacionais que fazem {@link #valor()}
+     * escolher uma expressao logica.
+     */
+    private static final EnumSet<TokenType> LOG_REL_OPS = EnumSet.of(TokenType.EQ, TokenType.NEQ,
+            TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E,
+            TokenType.NAO, TokenType.OU);
+
+    /*
+     * Tokens de sincronizacao da recuperacao de erros ({@link #panicMode}),
+     * por producao: os tokens que podem iniciar o que vem a seguir na
+     * producao, ou que a seguem.
+     */
+    /** Antes de 'programa'. */
+    private static final EnumSet<TokenType> SYNC_PROGRAMA = EnumSet.of(TokenType.PROGRAMA);
+    /** Apos 'var'. */
+    private static final EnumSet<TokenType> SYNC_VAR_START = EnumSet.of(TokenType.INICIO, TokenType.FIM,
+            TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CADEIA, TokenType.CARACTERE,
+            TokenType.CONST, TokenType.PROGRAMA);
+    /** No fim da secao de variaveis. */
+    private static final EnumSet<TokenType> SYNC_VAR_END = EnumSet.of(TokenType.PROGRAMA, TokenType.CONST,
+            TokenType.FIM);
+    /** Apos 'const'. */
+    private static final EnumSet<TokenType> SYNC_CONST_START = EnumSet.of(TokenType.INICIO, TokenType.FIM,
+            TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CADEIA, TokenType.CARACTERE,
+            TokenType.PROGRAMA);
+    /** No fim da secao de constantes. */
+    private static final EnumSet<TokenType> SYNC_CONST_END = EnumSet.of(TokenType.PROGRAMA, TokenType.FIM);
+    /** Antes de um identificador. */
+    private static final EnumSet<TokenType> SYNC_IDENTIFIER = EnumSet.of(TokenType.IDENTIFIER);
+    /** Antes do nome de uma constante. */
+    private static final EnumSet<TokenType> SYNC_CONST_NAME = EnumSet.of(TokenType.ATRIB,
+            TokenType.IDENTIFIER);
+    /** Antes do valor de uma constante. */
+    private static final EnumSet<TokenType> SYNC_CONST_VALUE = EnumSet.of(TokenType.ATRIB, TokenType.NUMBER,
+            TokenType.CHARACTER, TokenType.CHAR_STRING, TokenType.BOOL_V);
+    /** No fim de uma declaracao de constantes ou variaveis. */
+    private static final EnumSet<TokenType> SYNC_DECLARATION_END = EnumSet.of(TokenType.SEMICOLON,
+            TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO, TokenType.CADEIA, TokenType.CARACTERE,
+            TokenType.FIM);
+    /** Antes do nome de uma variavel. */
+    private static final EnumSet<TokenType> SYNC_VAR_NAME = EnumSet.of(TokenType.COMMA, TokenType.SEMICOLON,
+            TokenType.IDENTIFIER);
+    /** No fim dos indices de um vetor. */
+    private static final EnumSet<TokenType> SYNC_VECTOR_END = EnumSet.of(TokenType.VEC_DELIM_R,
+            TokenType.IDENTIFIER, TokenType.COMMA, TokenType.SEMICOLON);
+    /** Antes de 'inicio' num bloco. */
+    private static final EnumSet<TokenType> SYNC_BLOCK_START = EnumSet.of(TokenType.INICIO, TokenType.FIM,
+            TokenType.IDENTIFIER, TokenType.ENQUANTO, TokenType.SE, TokenType.ESCREVA, TokenType.LEIA);
+    /** No fim de um bloco. */
+    private static final EnumSet<TokenType> SYNC_BLOCK_END = EnumSet.of(TokenType.FIM, TokenType.FUNCAO);
+    /** Antes da condicao de 'se' e 'enquanto'. */
+    private static final EnumSet<TokenType> SYNC_CONDITION_START = EnumSet.of(TokenType.PAREN_L,
+            TokenType.IDENTIFIER, TokenType.NUMBER);
+    /** No fim da condicao de 'se'. */
+    private static final EnumSet<TokenType> SYNC_IF_CONDITION_END = EnumSet.of(TokenType.PAREN_R,
+            TokenType.ENTAO);
+    /** Antes de 'entao'. */
+    private static final EnumSet<TokenType> SYNC_ENTAO = EnumSet.of(TokenType.ENTAO, TokenType.INICIO);
+    /** No fim da condicao de 'enquanto'. */
+    private static final EnumSet<TokenType> SYNC_WHILE_CONDITION_END = EnumSet.of(TokenType.PAREN_R,
+            TokenType.FACA);
+    /** Antes de 'faca'. */
+    private static final EnumSet<TokenType> SYNC_FACA = EnumSet.of(TokenType.FACA, TokenType.INICIO);
+    /** Antes dos valores de 'escreva'. */
+    private static final EnumSet<TokenType> SYNC_WRITE_START = EnumSet.of(TokenType.PAREN_L, TokenType.NUMBER,
+            TokenType.IDENTIFIER, TokenType.CHAR_STRING, TokenType.CARACTERE);
+    /** Antes das variaveis de 'leia'. */
+    private static final EnumSet<TokenType> SYNC_READ_START = EnumSet.of(TokenType.PAREN_L,
+            TokenType.IDENTIFIER);
+    /** No fim dos parametros de 'escreva' e 'leia'. */
+    private static final EnumSet<TokenType> SYNC_PARAMS_END = EnumSet.of(TokenType.PAREN_R,
+            TokenType.SEMICOLON);
+    /** No fim de 'escreva' e 'leia'. */
+    private static final EnumSet<TokenType> SYNC_STATEMENT_END = EnumSet.of(TokenType.SEMICOLON,
+            TokenType.FIM, TokenType.IDENTIFIER, TokenType.SE, TokenType.ENQUANTO, TokenType.ESCREVA,
+            TokenType.LEIA);
+    /** Antes de um comando. */
+    private static final EnumSet<TokenType> SYNC_STATEMENT = EnumSet.of(TokenType.IDENTIFIER, TokenType.SE,
+            TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+    /** Antes do valor de uma atribuicao. */
+    private static final EnumSet<TokenType> SYNC_ASSIGN_VALUE = EnumSet.of(TokenType.ATRIB, TokenType.NUMBER,
+            TokenType.IDENTIFIER, TokenType.PAREN_L, TokenType.BOOL_V, TokenType.CHAR_STRING,
+            TokenType.CHARACTER);
+    /** No fim de uma atribuicao. */
+    private static final EnumSet<TokenType> SYNC_ASSIGN_END = EnumSet.of(TokenType.IDENTIFIER,
+            TokenType.SEMICOLON, TokenType.ENQUANTO, TokenType.SE, TokenType.LEIA, TokenType.ESCREVA);
+    /** Antes do nome de uma funcao, na declaracao ou na chamada. */
+    private static final EnumSet<TokenType> SYNC_FUNCTION_NAME = EnumSet.of(TokenType.IDENTIFIER,
+            TokenType.PAREN_L);
+    /** Antes dos parametros de uma funcao. */
+    private static final EnumSet<TokenType> SYNC_PARAMS_START = EnumSet.of(TokenType.PAREN_L,
+            TokenType.PAREN_R, TokenType.IDENTIFIER, TokenType.INTEIRO, TokenType.REAL, TokenType.BOOLEANO,
+            TokenType.CADEIA, TokenType.CARACTERE);
+    /** Antes do corpo de uma funcao. */
+    private static final EnumSet<TokenType> SYNC_FUNCTION_BODY = EnumSet.of(TokenType.PAREN_R,
+            TokenType.INICIO);
+    /** Antes dos argumentos de uma chamada. */
+    private static final EnumSet<TokenType> SYNC_ARGUMENTS_START = EnumSet.of(TokenType.PAREN_L,
+            TokenType.IDENTIFIER, TokenType.NUMBER, TokenType.CARACTERE, TokenType.BOOL_V,
+            TokenType.CHAR_STRING);
+    /** No fim dos argumentos de uma chamada. */
+    private static final EnumSet<TokenType> SYNC_ARGUMENTS_END = EnumSet.of(TokenType.PAREN_R,
+            TokenType.SEMICOLON, TokenType.MINUS, TokenType.DIV, TokenType.PLUS, TokenType.TIMES);
+    /** Apos um valor numerico invalido. */
+    private static final EnumSet<TokenType> SYNC_NUMERIC = EnumSet.of(TokenType.SEMICOLON, TokenType.PLUS,
+            TokenType.MINUS, TokenType.DIV, TokenType.TIMES);
+
+    /**
+     * Precedencia dos operadores binarios, indexada pelo ordinal do tipo
+     * do token; 0 para os demais tokens. Os operandos de um operador sao
+     * lidos com a precedencia seguinte a dele. 'nao' e um operador
+     * prefixo, tratado diretamente por {@link #expLogica()}.
+     */
+    private static final int[] BINDING_POWER = new int[TokenType.values().length];
+    private static final int LOGICAL = 1, RELATIONAL = 2, ADDITIVE = 3, MULTIPLICATIVE = 4;
+
+    static {
+        for (TokenType t : EnumSet.of(TokenType.E, TokenType.OU))
+            BINDING_POWER[t.ordinal()] = LOGICAL;
+        for (TokenType t : EnumSet.of(TokenType.EQ, TokenType.NEQ, TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE))
+            BINDING_POWER[t.ordinal()] = RELATIONAL;
+        for (TokenType t : EnumSet.of(TokenType.PLUS, TokenType.MINUS))
+            BINDING_POWER[t.ordinal()] = ADDITIVE;
+        for (TokenType t : EnumSet.of(TokenType.TIMES, TokenType.DIV))
+            BINDING_POWER[t.ordinal()] = MULTIPLICATIVE;
+    }
+
+    /**
+     * Tokens que encerram a busca por um operador logico ou relacional.
+     */
+    private static final EnumSet<TokenType> OPERATOR_STOPS = EnumSet.of(TokenType.SEMICOLON,
+            TokenType.FIM, TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
+
     /**
      * Ponteiro para o simbolo atual da entrada.
      */
     private Token currentToken, previousToken;
-    private List<Token> tokenList;
-    private int index;
+    /**
+     * Se o ultimo token da entrada ja foi consumido. O
+     * {@link #currentToken} nao muda mais no fim da entrada, entao ele
+     * nao pode ser aceito de novo.
+     */
+    private boolean endOfInput;
+    private TokenStream tokens;
     private int syntaxErrorCount;
     private int semanticErrorCount;
     private BufferedWriter sinWriter, semWriter;
-    private boolean firstRun;
     private SymbolTable top;
+    /** Ultimo tipo lido por {@link #tipo()}, usado nas declaracoes. */
     private Symbol.Type currentType;
-    private boolean vecAtrib;
+    /**
+     * Indice dos operadores: da posicao operatorScanStart ate
+     * operatorScanEnd (exclusive) nao ha operador logico ou relacional
+     * nem token de parada; em operatorScanEnd ha um operador, caso
+     * operatorAhead seja verdadeiro, ou um token de parada (ou o fim
+     * da entrada), caso contrario.
+     */
+    private int operatorScanStart, operatorScanEnd;
+    private boolean operatorAhead;
+    /** Arvore sintatica, reaproveitada a cada analise. */
+    private final SyntaxTree tree = new SyntaxTree();
+    /** Quantidade de erros que interrompe a analise; 0 para nao haver limite. */
+    private int errorLimit;
+    /** Quantidade de threads da analise semantica. */
+    private int semanticParallelism = 1;
+    /**
+     * Threads da analise semantica em paralelo, criadas na primeira
+     * analise que as usa e reaproveitadas nas seguintes.
+     */
+    private ForkJoinPool semanticPool;
+
+    /**
+     * Define a quantidade de erros, sintaticos e semanticos somados,
+     * apos a qual a analise de uma entrada e interrompida. Com 0 (o
+     * padrao), a entrada e sempre analisada por completo.
+     */
+    public void setErrorLimit(int errorLimit) {
+        this.errorLimit = errorLimit;
+    }
+
+    /**
+     * Define quantas threads a analise semantica usa para verificar os
+     * corpos das funcoes (veja {@link TypeChecker#checkParallel(int, ForkJoinPool)}).
+     * Por padrao, usa 1, e a verificacao e sequencial; ela tambem e
+     * sequencial quando nenhuma funcao define o tipo atual no cabecalho
+     * ou no inicio do corpo, ou quando ha menos funcoes do que threads.
+     * As mensagens sao exibidas e gravadas na mesma ordem em qualquer
+     * caso.
+     */
+    public void setSemanticParallelism(int semanticParallelism) {
+        semanticParallelism = Math.max(1, semanticParallelism);
+        if (semanticParallelism == this.semanticParallelism) return;
+        this.semanticParallelism = semanticParallelism;
+        if (semanticPool != null) {
+            semanticPool.shutdown();
+            semanticPool = null;
+        }
+    }
 
     /**
      * Inicia a análise sintática sobre a coleção de
      * {@link Token}s.
-     * @param tokens coleção de entrada contendo os
+     * @param tokens sequencia de entrada contendo os
      * {@link Token}s para a análise sintática.
      */
-    public void parse(List<Token> tokens, String outputPath) throws IOException {
-        firstRun = true;
+    public void parse(TokenStream tokens, String outputPath) throws IOException {
         syntaxErrorCount = 0;
         semanticErrorCount = 0;
-        tokenList = tokens;
-        index = -1;
+        currentToken = null;
+        previousToken = null;
+        currentType = null;
+        endOfInput = false;
+        this.tokens = tokens;
+        tokens.rewind();
+        operatorScanStart = -1;
+        tree.clear();
         String sinOut = "output" + File.separator + "sin_" +  outputPath;
         String semOut = "output" + File.separator + "sem_" + outputPath;
         sinWriter = new BufferedWriter(new FileWriter(new File(sinOut)));
         semWriter = new BufferedWriter(new FileWriter(new File(semOut)));
 
         System.out.println("Passo 2: Analise Sintatica e Indexacao de Simbolos Globais");
-        programa();
+        int program = SyntaxTree.NONE;
+        boolean interrupted = false;
+        try {
+            program = programa();
+        } catch (ErrorLimitException e) {
+            interrupted = true;
+        }
+        tree.trim();
         System.out.println(String.format("\t%d erros sintáticos foram encontrados", syntaxErrorCount));
         sinWriter.write(String.format("%d erros sintáticos foram encontrados", syntaxErrorCount));
         sinWriter.newLine();
-        if (syntaxErrorCount == 0) {
+        if (interrupted) {
+            System.out.println("\t" + errorLimitReached());
+            sinWriter.write(errorLimitReached());
+            sinWriter.newLine();
+        } else if (syntaxErrorCount == 0) {
             System.out.println("\tAnalise Sintatica concluida com sucesso.");
             sinWriter.write("Analise Sintatica concluida com sucesso.");
             sinWriter.newLine();
         }
         sinWriter.close();
         System.out.println("O status da analise sintatica foi salvo no arquivo " + sinOut);
+        tokens.skipRemaining();
 
-        // segunda leitura
-        firstRun = false;
-        index = -1;
         System.out.println("Passo 3: Analise Semantica");
-        System.out.println("Simbolos globais encontrados" + top.toString());
-        programa();
+        if (!interrupted) {
+            printGlobals();
+            // o tipo esperado no inicio da analise semantica e o ultimo tipo lido na indexacao
+            try {
+                new TypeChecker(tree, top, currentType, this::reportSemanticError)
+                        .checkParallel(program, semanticPool());
+            } catch (ErrorLimitException e) {
+                interrupted = true;
+            }
+        }
         System.out.printf("\t%d erros semanticos foram encontrados.\n", semanticErrorCount);
-        if (semanticErrorCount == 0) {
+        if (interrupted) {
+            logSemanticAnalysis("\t" + errorLimitReached());
+        } else if (semanticErrorCount == 0) {
             logSemanticAnalysis("\tAnalise semantica concluida com sucesso.");
         }
         semWriter.close();
         System.out.println("O status da analise semantica foi salvo no arquivo " + semOut);
     }
 
+    /**
+     * @return o pool da analise semantica em paralelo, ou null caso ela
+     * seja sequencial
+     */
+    private ForkJoinPool semanticPool() {
+        if (semanticParallelism <= 1) return null;
+        if (semanticPool == null) semanticPool = new ForkJoinPool(semanticParallelism);
+        return semanticPool;
+    }
+
+    /**
+     * Exibe os simbolos globais, escrevendo-os aos poucos na saida.
+     */
+    private void printGlobals() throws IOException {
+        Writer console = new BufferedWriter(new OutputStreamWriter(System.out));
+        console.write("Simbolos globais encontrados");
+        top.write(console);
+        console.write(System.lineSeparator());
+        console.flush();
+    }
+
+    public int getSyntaxErrorCount() {
+        return syntaxErrorCount;
+    }
+
+    public int getSemanticErrorCount() {
+        return semanticErrorCount;
+    }
+
+    /**
+     * Arvore sintatica da ultima entrada analisada. Ela e descartada
+     * no inicio da proxima analise.
+     */
+    public SyntaxTree getTree() {
+        return tree;
+    }
+
     /**
      * Consome um simbolo do vetor de entrada e atualiza o
      * {@link Parser#currentToken}. Consome mais um simbolo
@@ -85,27 +342,31 @@ public class Parser {
      *         caso tenha chegado no fim da entrada.
      */
     private boolean nextToken() {
-        if (index + 1 < tokenList.size()) {
-            index++;
+        if (tokens.hasNext()) {
             previousToken = currentToken;
-            currentToken = tokenList.get(index);
+            currentToken = tokens.advance();
             accept(Token.TokenType.COMMENT); // Pulando comentarios
             //System.out.println("Token Atual: " + currentToken.toString());
             return true;
-        } return false;
+        }
+        // o ultimo token foi consumido, mas continua como o atual
+        previousToken = currentToken;
+        endOfInput = true;
+        return false;
     }
 
     /**
      * Verifica se o {@link Parser#currentToken} é do tipo
      * informado por parametro. Caso seja, move o ponteiro
-     * para o próximo simbolo da entrada.
+     * para o próximo simbolo da entrada. No fim da entrada, nenhum
+     * tipo e aceito.
      * @param type o {@link br.ecomp.compiler.lexer.Token.TokenType}
      *             que o {@link Parser#currentToken} deve apresentar.
      * @return true, caso o simbolo atual apresente este tipo. false,
      *          caso contrário.
      */
     private boolean accept (Token.TokenType type) {
-        if (currentToken.getType() == type) {
+        if (!endOfInput && currentToken.getType() == type) {
             nextToken();
             return true;
         } return false;
@@ -128,50 +389,67 @@ public class Parser {
     }
 
     private boolean lookAheadToken(int n, TokenType type) {
-        if (index + n < tokenList.size()) {
-            return tokenList.get(index + n).getType() == type;
-        } return false;
+        Token t = tokens.peek(n);
+        return t != null && t.getType() == type;
     }
 
     private void syntaxError(TokenType... expected) {
-        if (firstRun) {
-            if (expected.length == 0)
-                throw new IllegalArgumentException("informe pelo menos um TokenType esperado");
-            syntaxErrorCount++;
-            String expectedTokenNames = "";
-
-            for (int i = 0; i < expected.length; i++) {
-                expectedTokenNames += expected[i].toString();
-                if (i < expected.length - 1)
-                    expectedTokenNames += ", ";
-            }
-            String errorMsg = String.format("Erro na linha %d. Esperava: %s. Obteve: %s.",
-                    currentToken.getLine(), expectedTokenNames, currentToken.getLexeme()
-                            + " " + currentToken.getType());
-            System.out.println(errorMsg);
-            try {
-                sinWriter.write(errorMsg);
-                sinWriter.newLine();
-            } catch (IOException e) {
-                throw new RuntimeException(e.getMessage());
-            }
+        if (expected.length == 0)
+            throw new IllegalArgumentException("informe pelo menos um TokenType esperado");
+        syntaxErrorCount++;
+        String expectedTokenNames = "";
+
+        for (int i = 0; i < expected.length; i++) {
+            expectedTokenNames += expected[i].toString();
+            if (i < expected.length - 1)
+                expectedTokenNames += ", ";
         }
+        // numa entrada vazia nao ha token atual
+        String errorMsg = (currentToken == null)
+                ? String.format("Erro na linha 1. Esperava: %s. Obteve: fim do arquivo.", expectedTokenNames)
+                : String.format("Erro na linha %d. Esperava: %s. Obteve: %s.",
+                currentToken.getLine(), expectedTokenNames, currentToken.getLexeme()
+                        + " " + currentToken.getType());
+        System.out.println(errorMsg);
+        try {
+            sinWriter.write(errorMsg);
+            sinWriter.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        checkErrorLimit();
     }
 
     /**
+     * Descarta tokens ate encontrar um dos tokens de sincronizacao, e
+     * exibe um resumo dos tokens descartados.
      *
-     * @param sync
+     * @param sync os tokens de sincronizacao da producao
+     * @return um no {@link SyntaxTree.Kind#SKIPPED} com os tokens descartados,
+     * exibidos de novo na analise semantica, ou {@link SyntaxTree#NONE}
+     * caso nenhum tenha sido descartado
      */
-    private void panicMode(TokenType... sync) {
-    	List<TokenType> syncTokens = Arrays.asList(sync);
-    	while(!syncTokens.contains(currentToken.getType())){
-    		System.out.println("\tPulou Token: " + currentToken.toString());
-    		if (!nextToken()) return;
+    private int panicMode(EnumSet<TokenType> sync) {
+    	int skipped = SyntaxTree.NONE;
+    	while(!endOfInput && !sync.contains(currentToken.getType())){
+    		if (skipped == SyntaxTree.NONE) skipped = tree.add(Kind.SKIPPED, null);
+    		tree.append(skipped, tree.add(Kind.TOKEN, currentToken));
+    		if (!nextToken()) break;
     	}
+    	if (skipped != SyntaxTree.NONE) System.out.println(TypeChecker.skippedTokens(tree, skipped));
+    	return skipped;
 	}
 
-    private void logSemanticAnalysis(String message) {
+    /**
+     * Exibe e grava um erro semantico.
+     */
+    private void reportSemanticError(String message) {
         semanticErrorCount++;
+        logSemanticAnalysis(message);
+        checkErrorLimit();
+    }
+
+    private void logSemanticAnalysis(String message) {
         System.out.println(message);
         try {
             semWriter.write(message);
@@ -181,53 +459,44 @@ public class Parser {
         }
     }
 
-    private void mismatchedTypeError(int line, Symbol.Type expected, Symbol.Type actual) {
-        String s = "Erro! Tipo invalido na linha " + line + ": " +
-                "\n\tEsperava " + expected.name() +
-                "\n\tObteve " + actual.name();
-        logSemanticAnalysis(s);
-    }
-
-    private void variableAlreadyDefinedError(Token token) {
-        String s = String.format("Erro na linha %d: \"%s\" ja foi definido no escopo.",
-                token.getLine(), token.getLexeme());
-        logSemanticAnalysis(s);
+    /**
+     * Interrompe a analise caso a quantidade de erros tenha atingido o
+     * limite definido por {@link #setErrorLimit(int)}.
+     *
+     * @throws ErrorLimitException caso o limite tenha sido atingido
+     */
+    private void checkErrorLimit() {
+        if (errorLimit > 0 && syntaxErrorCount + semanticErrorCount >= errorLimit)
+            throw new ErrorLimitException();
     }
 
-    private void symbolNotFoundError(Token t) {
-        String s = String.format("Erro na linha %d: nao foi possivel encontrar o simbolo \"%s\".",
-                t.getLine(), t.getLexeme());
-        logSemanticAnalysis(s);
+    private String errorLimitReached() {
+        return String.format("Analise interrompida: limite de %d erros atingido.", errorLimit);
     }
 
+    /**
+     * Define um simbolo no escopo atual, informando caso ele ja exista.
+     */
     private void putSymbol(Symbol s) {
-        if (top.containsSymbolLocal(s)) variableAlreadyDefinedError(s.getToken());
+        if (top.containsSymbolLocal(s)) reportSemanticError(TypeChecker.alreadyDefined(s.getToken()));
         else top.put(s);
     }
 
-    private Symbol getSymbol(Token t) {
-        return getSymbol(t, false);
-    }
-
-    private Symbol getSymbol(Token t, boolean isFunction) {
-        if (top.containsSymbol(t, isFunction)) return top.get(t, isFunction);
-        else {
-            symbolNotFoundError(t);
-            return null;
-        }
-    }
-
-    private void constantAssignmentError(Token t) {
-        System.out.printf("Erro na linha %d: nao eh possivel atribuir valores a constante \"%s\".\n",
-                t.getLine(), t.getLexeme());
+    /**
+     * @return o no informado, ou um no {@link SyntaxTree.Kind#MISSING}
+     * caso ele seja {@link SyntaxTree#NONE}
+     */
+    private int orMissing(int node) {
+        return (node == SyntaxTree.NONE) ? tree.add(Kind.MISSING, null) : node;
     }
 
-    private void vectDimensionError(Vector expected, Vector actual) {
-        String msg = String.format("Erro na linha %d: O vetor %d-dimensional \"%s\" " +
-                        "nao pode ser usado como um vetor %d-dimensional.",
-                actual.getToken().getLine(), expected.getDimensions(),
-                expected.getToken().getLexeme(), actual.getDimensions());
-        logSemanticAnalysis(msg);
+    /**
+     * Verifica se algum token foi consumido desde a posicao informada.
+     * No fim da entrada o token atual nao muda mais, entao uma repeticao
+     * que nao consome tokens se repetiria indefinidamente.
+     */
+    private boolean advanced(int start) {
+        return tokens.position() != start;
     }
 
     /******************************************
@@ -235,136 +504,145 @@ public class Parser {
      *****************************************/
 
     // <Programa> ::= <Variaveis><C>|<C>
-    private void programa() {
-        nextToken();
-        if (firstRun) top = new SymbolTable(null);
-        variaveis();
-        c();
+    private int programa() {
+        boolean empty = !nextToken();
+        top = new SymbolTable();
+        int program = tree.add(Kind.PROGRAM, null);
+        if (empty) {
+            syntaxError(Token.TokenType.PROGRAMA);
+            return program;
+        }
+        tree.append(program, variaveis());
+
+        // <C> ::= <Constantes><P> | <P>
+        tree.append(program, constantes());
+
+        // <P> ::= 'programa'<Bloco><Funcoes>
+        if(!expect(Token.TokenType.PROGRAMA)){
+        	tree.append(program, panicMode(SYNC_PROGRAMA));
+        	accept(Token.TokenType.PROGRAMA);
+        }
+        tree.append(program, bloco());
+        funcoes(program);
+        return program;
     }
 
     // <Variaveis> ::= 'var''inicio'<Var_List>'fim'
-    private void variaveis() {
+    private int variaveis() {
         if (accept(Token.TokenType.VAR)){ // Se aceitou um var
+            int section = tree.add(Kind.VAR_SECTION, null);
 
             // Espera um inicio
             if (!expect(Token.TokenType.INICIO)) {
-                panicMode(Token.TokenType.INICIO, Token.TokenType.FIM,
-                        Token.TokenType.BOOLEANO, Token.TokenType.CADEIA,
-                        Token.TokenType.CARACTERE, Token.TokenType.REAL,
-                        Token.TokenType.INTEIRO, Token.TokenType.CONST,
-                        Token.TokenType.PROGRAMA);
+                tree.append(section, panicMode(SYNC_VAR_START));
                 accept(TokenType.INICIO);
             }
 
-            varlist();
+            varlist(section);
 
             if(!expect(Token.TokenType.FIM)){
-            	panicMode(Token.TokenType.PROGRAMA, Token.TokenType.CONST,
-            			Token.TokenType.FIM);
+            	tree.append(section, panicMode(SYNC_VAR_END));
             	accept(TokenType.FIM);
             }
+            return section;
         }
-
-    }
-
-    // <C> ::= <Constantes><P> | <P>
-    private void c() {
-        constantes();
-        p();
-    }
-
-    // <P> ::= 'programa'<Bloco><Funcoes>
-    private void p() {
-        if(!expect(Token.TokenType.PROGRAMA)){
-        	panicMode(Token.TokenType.PROGRAMA);
-        	accept(Token.TokenType.PROGRAMA);
-        }
-        bloco();
-        funcoes();
+        return SyntaxTree.NONE;
     }
 
     // <Constantes> ::= 'const''inicio'<Const_List>'fim'
-    private void constantes() {
+    private int constantes() {
         if (accept(Token.TokenType.CONST)) {
+            int section = tree.add(Kind.CONST_SECTION, null);
 
         	 // Espera um inicio
             if (!expect(Token.TokenType.INICIO)) {
-                panicMode(Token.TokenType.INICIO, Token.TokenType.FIM,
-                        Token.TokenType.BOOLEANO, Token.TokenType.CADEIA,
-                        Token.TokenType.CARACTERE, Token.TokenType.REAL,
-                        Token.TokenType.INTEIRO, Token.TokenType.PROGRAMA);
+                tree.append(section, panicMode(SYNC_CONST_START));
                 accept(TokenType.INICIO);
             }
 
-            constlist();
+            constlist(section);
 
             if(!expect(Token.TokenType.FIM)){
-            	panicMode(Token.TokenType.PROGRAMA, Token.TokenType.FIM);
+            	tree.append(section, panicMode(SYNC_CONST_END));
             	accept(TokenType.FIM);
             }
+            return section;
         }
+        return SyntaxTree.NONE;
     }
 
     // <Const_List> ::= <Tipo><Const_Decl><Const_List>  |<>
-    private void constlist() {
-        if (tipo()) {
-            constdecl();
-            constlist();
-        }
-        else if(currentToken.getType() != Token.TokenType.FIM){ //se nao for vazio entra aqui
-        	syntaxError(currentToken.getType()); //nao podia usar o accept pq nao pode consumir o FIM
-        	panicMode(Token.TokenType.IDENTIFIER);
-        	constdecl();
-        	constlist();
-        } // o else eh o vazio
+    private void constlist(int section) {
+        int start;
+        do {
+            start = tokens.position();
+            if (tipo()) {
+                int group = tree.add(Kind.CONST_GROUP, previousToken);
+                tree.append(section, group);
+                tree.append(group, constdecl(group));
+            }
+            else if(currentToken.getType() != Token.TokenType.FIM){ //se nao for vazio entra aqui
+                syntaxError(currentToken.getType()); //nao podia usar o accept pq nao pode consumir o FIM
+                int group = tree.add(Kind.CONST_GROUP, null);
+                tree.append(section, group);
+                tree.append(group, panicMode(SYNC_IDENTIFIER));
+                tree.append(group, constdecl(group));
+            } else return; // o else eh o vazio
+        } while (advanced(start));
     }
 
     // <Const_Decl> ::= id'<<'<Literal><Const_Decl2>
-    private void constdecl() {
-
-        Symbol s = null;
-        if(!expect(Token.TokenType.IDENTIFIER)){
-        	panicMode(Token.TokenType.ATRIB, Token.TokenType.IDENTIFIER);
-        	accept(TokenType.IDENTIFIER);
-        } else {
-            s = new Variable(previousToken, currentType, true);
-        }
+    // <Const_Decl2> ::= ','<Const_Decl> | ';'
+    private int constdecl(int group) {
+        int start;
+        do {
+            start = tokens.position();
+            Symbol s = null;
+            Token name = null;
+            int beforeName = SyntaxTree.NONE, beforeValue = SyntaxTree.NONE;
+            if(!expect(Token.TokenType.IDENTIFIER)){
+                beforeName = panicMode(SYNC_CONST_NAME);
+                accept(TokenType.IDENTIFIER);
+            } else {
+                name = previousToken;
+                s = new Variable(previousToken, currentType, true);
+            }
 
-        if(!expect(Token.TokenType.ATRIB)){
-        	panicMode(Token.TokenType.ATRIB, Token.TokenType.NUMBER,
-        			Token.TokenType.CHARACTER, Token.TokenType.CHAR_STRING,
-        			Token.TokenType.BOOL_V);
-        	accept(Token.TokenType.ATRIB);
-        }
-        Symbol.Type t = literal();
-        if (firstRun)
-            if (s != null && currentType.equals(t)) {
+            if(!expect(Token.TokenType.ATRIB)){
+                beforeValue = panicMode(SYNC_CONST_VALUE);
+                accept(Token.TokenType.ATRIB);
+            }
+            int value = literal();
+            Symbol.Type t = (value == SyntaxTree.NONE) ? null : TypeChecker.literalType(tree.token(value));
+            if (currentType == null || t == null) {
+                // o tipo ou o valor ausente ja foi reportado como erro sintatico
+            } else if (s != null && currentType.equals(t)) {
                 putSymbol(s);
-            } else mismatchedTypeError(previousToken.getLine(), currentType, t);
+            } else reportSemanticError(TypeChecker.mismatchedType(previousToken.getLine(), currentType, t));
 
-        constdecl2();
-    }
+            int constant = tree.add(Kind.CONST, name);
+            tree.append(constant, beforeName);
+            tree.append(constant, beforeValue);
+            tree.append(constant, value);
+            tree.append(group, constant);
+        } while (accept(Token.TokenType.COMMA) && advanced(start));
 
-    // <Const_Decl2> ::= ','<Const_Decl> | ';'
-    private void constdecl2() {
-        if (accept(Token.TokenType.COMMA)) {
-            constdecl();
-        } else {
-        	if(!expect(Token.TokenType.SEMICOLON)){
-            	panicMode(Token.TokenType.SEMICOLON, Token.TokenType.INTEIRO,
-            			Token.TokenType.BOOLEANO,
-            			Token.TokenType.CARACTERE, Token.TokenType.CADEIA,
-            			Token.TokenType.REAL, Token.TokenType.FIM);
-            }
+        if(!expect(Token.TokenType.SEMICOLON)){
+            return panicMode(SYNC_DECLARATION_END);
         }
+        return SyntaxTree.NONE;
     }
 
     // <Var_List> ::= <Tipo><Var_Decl><Var_List> |<>
-    private void varlist() {
-        if (tipo()) { // espera um tipo
-            vardecl();
-            varlist();
-        }
+    private void varlist(int parent) {
+        int start;
+        do {
+            start = tokens.position();
+            if (!tipo()) return; // espera um tipo
+            int group = tree.add(Kind.VAR_GROUP, previousToken);
+            tree.append(parent, group);
+            tree.append(group, vardecl(group));
+        } while (advanced(start));
         // FIXME
 //        else if(currentToken.getType() != Token.TokenType.FIM){ //se nao for vazio entra aqui
 //        	syntaxError(currentToken.getType()); //nao podia usar o accept pq nao pode consumir o FIM
@@ -375,30 +653,29 @@ public class Parser {
     }
 
     // <Var_Decl> ::= <Id_Vetor>','<Var_Decl> | <Id_Vetor>';' AMBIGUIDADE! Fatorar a esquerda!
-    private void vardecl() {
-        Symbol s = idvetor();
-        if (firstRun || (!firstRun && !top.isRoot())) putSymbol(s);
-        if (accept(Token.TokenType.COMMA)) {
-            vardecl();
-        }
-        else  { // Se não tem virgula, testa por ponto e virgula. Isso resolve a ambiguidade?
-            if(!expect(Token.TokenType.SEMICOLON)){
-            	panicMode(Token.TokenType.SEMICOLON, Token.TokenType.INTEIRO,
-            			Token.TokenType.BOOLEANO,
-            			Token.TokenType.CARACTERE, Token.TokenType.CADEIA,
-            			Token.TokenType.REAL, Token.TokenType.FIM);
-            }
+    private int vardecl(int group) {
+        int start;
+        do {
+            start = tokens.position();
+            int name = idvetor();
+            tree.append(group, name);
+            putSymbol(TypeChecker.declaration(tree, name, currentType));
+        } while (accept(Token.TokenType.COMMA) && advanced(start));
+        // Se não tem virgula, testa por ponto e virgula. Isso resolve a ambiguidade?
+        if(!expect(Token.TokenType.SEMICOLON)){
+            return panicMode(SYNC_DECLARATION_END);
         }
+        return SyntaxTree.NONE;
     }
 
     // <Id_Vetor> ::= id<Vetor>
-    private Symbol idvetor() {
+    private int idvetor() {
+        int beforeIdentifier = SyntaxTree.NONE;
         if(!expect(Token.TokenType.IDENTIFIER)){
-        	panicMode(Token.TokenType.COMMA, Token.TokenType.SEMICOLON,
-        			Token.TokenType.IDENTIFIER);
+        	beforeIdentifier = panicMode(SYNC_VAR_NAME);
         	accept(TokenType.IDENTIFIER);
         }
-        return vetor();
+        return vetor(beforeIdentifier);
     }
 
     // <Vetor> ::= '<<<'numero_t<Vetor2>'>>>'  | <>
@@ -406,535 +683,361 @@ public class Parser {
     // Vetor original:
     // <Vetor> ::= '<<<'<Exp_Aritmetica><Vetor2>'>>>'  | <>
     // <Vetor2> ::= ','<Exp_Aritmetica><Vetor2> | <>
-    private Symbol vetor() {
-        Token identifier = previousToken;
-        Symbol s;
+    private int vetor(int beforeIdentifier) {
+        int name = tree.add(Kind.NAME, previousToken);
+        tree.append(name, beforeIdentifier);
         if (accept(Token.TokenType.VEC_DELIM_L)) {//se encontrou <<<
-            Symbol.Type t = expAritimetica();
-            if ((!firstRun) && t != Symbol.Type.INTEIRO)
-                mismatchedTypeError(identifier.getLine(), Symbol.Type.INTEIRO, t);
-            int dimensions = 1 + vetor2();
+            tree.append(name, expAritimetica());
+            tree.append(name, tree.add(Kind.TOKEN, previousToken));
+            vetor2(name);
             if(!expect(Token.TokenType.VEC_DELIM_R)){ // espera que feche o vetor com >>>
-            	panicMode(Token.TokenType.VEC_DELIM_R, Token.TokenType.IDENTIFIER,
-            			Token.TokenType.COMMA, Token.TokenType.SEMICOLON);
+            	tree.append(name, panicMode(SYNC_VECTOR_END));
             	accept(TokenType.VEC_DELIM_R);
             }
-            s = new Vector(identifier, currentType, dimensions);
-        } else s = new Variable(identifier, currentType);
-        return s;
+        }
+        return name;
     }
 
     // <Vetor2> ::= ','<Exp_Aritmetica><Vetor2> | <>
-    private int vetor2() {
-        if (accept(Token.TokenType.COMMA)) { // se encontrou uma virgula
-            Symbol.Type t = expAritimetica();
-            if ((!firstRun) && t != Symbol.Type.INTEIRO)
-                mismatchedTypeError(previousToken.getLine(), Symbol.Type.INTEIRO, t);
-            return 1 + vetor2(); // pode se repetir
-        } return 0;
+    private void vetor2(int name) {
+        int start;
+        do {
+            start = tokens.position();
+            if (!accept(Token.TokenType.COMMA)) return; // se encontrou uma virgula
+            tree.append(name, expAritimetica());
+            tree.append(name, tree.add(Kind.TOKEN, previousToken));
+        } while (advanced(start)); // pode se repetir
     }
 
     // <Bloco> ::= 'inicio'<Corpo_Bloco>'fim'
-    private void bloco(Symbol... args) {
+    private int bloco() {
+        int beforeBody = SyntaxTree.NONE;
         if(!expect(Token.TokenType.INICIO)){
-        	 panicMode(Token.TokenType.INICIO, Token.TokenType.FIM,
-                     Token.TokenType.IDENTIFIER, Token.TokenType.ENQUANTO,
-                     Token.TokenType.SE, Token.TokenType.ESCREVA,
-                     Token.TokenType.LEIA);
+        	 beforeBody = panicMode(SYNC_BLOCK_START);
         	accept(Token.TokenType.INICIO);
         }
-        SymbolTable saved = top;
-        top = new SymbolTable(top);
-
-        // se for uma função, arg contém seus argumentos
-        //  eles são inseridos na tabela de simbolos do
-        // bloco da funcao
-        for (Symbol s : args) {
-            putSymbol(s);
-        }
-        bloco2();
-        top = saved;
+        // os parametros de uma funcao so sao inseridos no escopo do
+        // bloco na analise semantica
+        top.enterScope();
+        int block = bloco2(beforeBody);
+        top.exitScope();
+        return block;
     }
 
-    private void bloco2() {
+    private int bloco2(int beforeBody) {
+        int block = tree.add(Kind.BLOCK, null, beforeBody != SyntaxTree.NONE);
+        tree.append(block, beforeBody);
         if (currentToken.getType() == TokenType.VAR){
-            variaveis();
+            tree.append(block, variaveis());
         }
-        varlist(); // varlist pode ser vazio
+        varlist(block); // varlist pode ser vazio
 
-        corpoBloco();
+        corpoBloco(block);
 
         if(!expect(Token.TokenType.FIM)){
-            panicMode(Token.TokenType.FIM, Token.TokenType.FUNCAO);
+            tree.append(block, panicMode(SYNC_BLOCK_END));
             accept(TokenType.FIM);
         }
+        return block;
     }
 
     //<Corpo_Bloco> ::= <Comando><Corpo_Bloco> | <Atribuicao><Corpo_Bloco> | <Chamada_Funcao>';'<Corpo_Bloco> | <>
-    private void corpoBloco() {
-        if (currentToken.getType() == TokenType.IDENTIFIER) {
-        	if (lookAheadToken(1, TokenType.PAREN_L)) {
-        		chamadaFuncao();
-        		expect(TokenType.SEMICOLON);
-        		corpoBloco();
-        	}
-        	else{ //caso nao encontre PAREN_L depois de id
-        		atribuicao();
-        		corpoBloco();
-        	}
-
-        } // abaixo são os comandos
-        // <Se> ::= 'se''('<Exp_Logica>')''entao'<Bloco><Senao>
-        else if (accept(TokenType.SE)) {
-            int line = previousToken.getLine();
-            if(!expect(TokenType.PAREN_L)){
-            	panicMode(Token.TokenType.PAREN_L, Token.TokenType.IDENTIFIER,
-            			Token.TokenType.NUMBER);
-            	accept(Token.TokenType.PAREN_L);
-            }
+    private void corpoBloco(int block) {
+        int start;
+        do {
+            start = tokens.position();
+            if (currentToken.getType() == TokenType.IDENTIFIER) {
+            	if (lookAheadToken(1, TokenType.PAREN_L)) {
+            		tree.append(block, chamadaFuncao());
+            		expect(TokenType.SEMICOLON);
+            	}
+            	else{ //caso nao encontre PAREN_L depois de id
+            		tree.append(block, atribuicao());
+            	}
+
+            } // abaixo são os comandos
+            // <Se> ::= 'se''('<Exp_Logica>')''entao'<Bloco><Senao>
+            else if (accept(TokenType.SE)) {
+                int statement = tree.add(Kind.IF, previousToken);
+                if(!expect(TokenType.PAREN_L)){
+                	tree.append(statement, panicMode(SYNC_CONDITION_START));
+                	accept(Token.TokenType.PAREN_L);
+                }
 
-            Symbol.Type type = expLogica();
-            if (!firstRun && type != Symbol.Type.BOOLEANO)
-                mismatchedTypeError(line, Symbol.Type.BOOLEANO, type);
+                tree.append(statement, expLogica());
 
-            if(!expect(TokenType.PAREN_R)){
-            	panicMode(Token.TokenType.PAREN_R, Token.TokenType.ENTAO);
-            	accept(Token.TokenType.PAREN_R);
-            }
-            if(!expect(TokenType.ENTAO)){
-            	panicMode(Token.TokenType.ENTAO, Token.TokenType.INICIO);
-            	accept(Token.TokenType.ENTAO);
-            }
+                if(!expect(TokenType.PAREN_R)){
+                	tree.append(statement, panicMode(SYNC_IF_CONDITION_END));
+                	accept(Token.TokenType.PAREN_R);
+                }
+                if(!expect(TokenType.ENTAO)){
+                	tree.append(statement, panicMode(SYNC_ENTAO));
+                	accept(Token.TokenType.ENTAO);
+                }
 
-            bloco();
+                tree.append(statement, bloco());
 
-            // <Senao> ::= 'senao'<Bloco> | <>
-            if (accept(TokenType.SENAO)) {
-                bloco();
-            }
+                // <Senao> ::= 'senao'<Bloco> | <>
+                if (accept(TokenType.SENAO)) {
+                    tree.append(statement, bloco());
+                }
 
-            corpoBloco();
-        }
-        // <Enquanto> ::= 'enquanto''('booleano_t')''faca'<Bloco>
-        else if (accept(TokenType.ENQUANTO)) {
-            int line = previousToken.getLine();
-        	if(!expect(TokenType.PAREN_L)){
-            	panicMode(Token.TokenType.PAREN_L, Token.TokenType.IDENTIFIER,
-            			Token.TokenType.NUMBER);
-            	accept(Token.TokenType.PAREN_L);
+                tree.append(block, statement);
             }
+            // <Enquanto> ::= 'enquanto''('booleano_t')''faca'<Bloco>
+            else if (accept(TokenType.ENQUANTO)) {
+                int statement = tree.add(Kind.WHILE, previousToken);
+            	if(!expect(TokenType.PAREN_L)){
+                	tree.append(statement, panicMode(SYNC_CONDITION_START));
+                	accept(Token.TokenType.PAREN_L);
+                }
 
-            Symbol.Type type = expLogica();
-            if (!firstRun && type != Symbol.Type.BOOLEANO)
-                mismatchedTypeError(line, Symbol.Type.BOOLEANO, type);
-
-            if(!expect(TokenType.PAREN_R)){
-            	panicMode(Token.TokenType.PAREN_R, Token.TokenType.FACA);
-            	accept(Token.TokenType.PAREN_R);
-            }
+                tree.append(statement, expLogica());
 
-            if(!expect(TokenType.FACA)){
-            	panicMode(Token.TokenType.FACA, Token.TokenType.INICIO);
-            	accept(Token.TokenType.FACA);
-            }
+                if(!expect(TokenType.PAREN_R)){
+                	tree.append(statement, panicMode(SYNC_WHILE_CONDITION_END));
+                	accept(Token.TokenType.PAREN_R);
+                }
 
-            bloco();
-            corpoBloco();
-        }
-        // <Escreva> ::= 'escreva''('<Escreva_Params>')'';'
-        else if (accept(TokenType.ESCREVA)) {
-            if(!expect(TokenType.PAREN_L)){
-            	panicMode(Token.TokenType.PAREN_L, Token.TokenType.NUMBER,
-            			Token.TokenType.IDENTIFIER, Token.TokenType.CHAR_STRING,
-            			Token.TokenType.CARACTERE);
-            	accept(Token.TokenType.PAREN_L);
-            }
+                if(!expect(TokenType.FACA)){
+                	tree.append(statement, panicMode(SYNC_FACA));
+                	accept(Token.TokenType.FACA);
+                }
 
-            escrevaParams();
-            if(!expect(TokenType.PAREN_R)){
-            	panicMode(Token.TokenType.PAREN_R, Token.TokenType.SEMICOLON);
-            	accept(Token.TokenType.PAREN_R);
+                tree.append(statement, bloco());
+                tree.append(block, statement);
             }
+            // <Escreva> ::= 'escreva''('<Escreva_Params>')'';'
+            else if (accept(TokenType.ESCREVA)) {
+                int statement = tree.add(Kind.WRITE, null);
+                if(!expect(TokenType.PAREN_L)){
+                	tree.append(statement, panicMode(SYNC_WRITE_START));
+                	accept(Token.TokenType.PAREN_L);
+                }
 
-            if(!expect(TokenType.SEMICOLON)){
-            	panicMode(Token.TokenType.SEMICOLON, Token.TokenType.FIM,
-            			Token.TokenType.IDENTIFIER, Token.TokenType.SE,
-            			Token.TokenType.ENQUANTO, Token.TokenType.ESCREVA,
-            			Token.TokenType.LEIA);
-            }
+                escrevaParams(statement);
+                if(!expect(TokenType.PAREN_R)){
+                	tree.append(statement, panicMode(SYNC_PARAMS_END));
+                	accept(Token.TokenType.PAREN_R);
+                }
 
-            corpoBloco();
-        }
-        // <Leia> ::= 'leia''('<Leia_Params>')'';'
-        else if (accept(TokenType.LEIA)) {
+                if(!expect(TokenType.SEMICOLON)){
+                	tree.append(statement, panicMode(SYNC_STATEMENT_END));
+                }
 
-        	if(!expect(TokenType.PAREN_L)){
-            	panicMode(Token.TokenType.PAREN_L, Token.TokenType.IDENTIFIER);
-            	accept(Token.TokenType.PAREN_L);
+                tree.append(block, statement);
             }
+            // <Leia> ::= 'leia''('<Leia_Params>')'';'
+            else if (accept(TokenType.LEIA)) {
+                int statement = tree.add(Kind.READ, null);
 
-            leiaParams();
+            	if(!expect(TokenType.PAREN_L)){
+                	tree.append(statement, panicMode(SYNC_READ_START));
+                	accept(Token.TokenType.PAREN_L);
+                }
 
-            if(!expect(TokenType.PAREN_R)){
-            	panicMode(Token.TokenType.PAREN_R, Token.TokenType.SEMICOLON);
-            	accept(Token.TokenType.PAREN_R);
-            }
+                leiaParams(statement);
 
-            if(!expect(TokenType.SEMICOLON)){
-            	panicMode(Token.TokenType.SEMICOLON, Token.TokenType.FIM,
-            			Token.TokenType.IDENTIFIER, Token.TokenType.SE,
-            			Token.TokenType.ENQUANTO, Token.TokenType.ESCREVA,
-            			Token.TokenType.LEIA);
-            }
+                if(!expect(TokenType.PAREN_R)){
+                	tree.append(statement, panicMode(SYNC_PARAMS_END));
+                	accept(Token.TokenType.PAREN_R);
+                }
 
-            corpoBloco();
-        } // Se não cair em nenhuma das condições acima, significa que corpobloco derivou vazio
+                if(!expect(TokenType.SEMICOLON)){
+                	tree.append(statement, panicMode(SYNC_STATEMENT_END));
+                }
 
-        else if(currentToken.getType() != Token.TokenType.FIM){ //se nao for vazio entra aqui
-        	syntaxError(currentToken.getType()); //nao podia usar o accept pq nao pode consumir o FIM
-        	panicMode(Token.TokenType.IDENTIFIER, Token.TokenType.SE,
-        			Token.TokenType.ENQUANTO, Token.TokenType.LEIA,
-        			Token.TokenType.ESCREVA);
-        	corpoBloco();
-        } // o else eh o vazio
+                tree.append(block, statement);
+            } // Se não cair em nenhuma das condições acima, significa que corpobloco derivou vazio
 
+            else if(currentToken.getType() != Token.TokenType.FIM){ //se nao for vazio entra aqui
+            	syntaxError(currentToken.getType()); //nao podia usar o accept pq nao pode consumir o FIM
+            	tree.append(block, panicMode(SYNC_STATEMENT));
+            } else return; // o else eh o vazio
+        } while (advanced(start));
     }
 
     // <Escreva_Params> ::= numero_t<Escreva_Param2> | caractere_t<Escreva_Param2> | cadeia_t<Escreva_Param2>
-    private void escrevaParams() {
-        // Usando numero no lugar de expressão aritmética
-        if (accept(TokenType.NUMBER)) escrevaParams2();
-        else if (accept(TokenType.CHARACTER)) escrevaParams2();
-        else if (accept(TokenType.CHAR_STRING)) escrevaParams2();
-        else syntaxError(TokenType.NUMBER, TokenType.CHARACTER, TokenType.CHAR_STRING);
-    }
-
     // <Escreva_Param2> ::= ','<Escreva_Params> | <>
-    private void escrevaParams2() {
-        if (accept(TokenType.COMMA)) {
-            escrevaParams();
-        }
+    private void escrevaParams(int statement) {
+        do {
+            // Usando numero no lugar de expressão aritmética
+            if (accept(TokenType.NUMBER) || accept(TokenType.CHARACTER) || accept(TokenType.CHAR_STRING)) {
+                tree.append(statement, tree.add(Kind.TOKEN, previousToken));
+            } else {
+                syntaxError(TokenType.NUMBER, TokenType.CHARACTER, TokenType.CHAR_STRING);
+                return;
+            }
+        } while (accept(TokenType.COMMA));
     }
 
     // <Leia_Params> ::= <Id_Vetor><Leia_Param2>
-    private void leiaParams() {
-        Token t = idvetor().getToken();
-        // gets so ocorrem depois da primeira leitura
-        if (!firstRun) {
-            Variable v = (Variable) getSymbol(t);
-            if (v != null && v.isConstant()) constantAssignmentError(t);
-        }
-        leiaParam2();
-    }
-
     // <Leia_Param2> ::= ','<Leia_Params> | <>
-    private void leiaParam2() {
-        if (accept(TokenType.COMMA)) {
-            leiaParams();
-        }
+    private void leiaParams(int statement) {
+        int start;
+        do {
+            start = tokens.position();
+            tree.append(statement, idvetor());
+        } while (accept(TokenType.COMMA) && advanced(start));
     }
 
     // <Atribuicao> ::= <Id_Vetor>'<<'<Valor>';'
-    private void atribuicao() {
-        // simbolo que contém o token atual. Pode não estar na tabela
-        Symbol tokenSymbol = idvetor();
-        Symbol tableSymbol = null;
-        vecAtrib = false;
-        boolean atribAllowed = true;
-
-        if (!firstRun) {
-            tableSymbol = getSymbol(tokenSymbol.getToken());
-            // vê se o tokenSymbol existe na tabela
-            if (tableSymbol != null) {
-                if ( tableSymbol instanceof  Variable && ((Variable)tableSymbol).isConstant()) {
-                    // tem que ser o tokenSymbol aqui, pois ele contém as informações da linha atual
-                    atribAllowed = false;
-                    constantAssignmentError(tokenSymbol.getToken());
-                } else if (tableSymbol instanceof Vector) {
-                    if (!(tokenSymbol instanceof Vector)) vecAtrib = true;
-                    else if (((Vector)tableSymbol).getDimensions() != ((Vector)tokenSymbol).getDimensions())
-                        vectDimensionError((Vector)tableSymbol, (Vector)tokenSymbol);
-                }
-
-                // currentType vai conter o tipo esperado para atribuição
-                currentType = tableSymbol.getType();
-            } else atribAllowed = false;
-        }
+    private int atribuicao() {
+        int target = idvetor();
+        int beforeValue = SyntaxTree.NONE, end = SyntaxTree.NONE;
         if(!expect(TokenType.ATRIB)){
-        	panicMode(Token.TokenType.ATRIB, Token.TokenType.NUMBER,
-        			Token.TokenType.IDENTIFIER, Token.TokenType.PAREN_L,
-        			Token.TokenType.BOOL_V, Token.TokenType.CHAR_STRING,
-        			Token.TokenType.CHARACTER);
+        	beforeValue = panicMode(SYNC_ASSIGN_VALUE);
         	accept(Token.TokenType.ATRIB);
         }
 
-        if (vecAtrib) {
-            int i;
-
-            for (i = 0; !lookAheadToken(i, TokenType.SEMICOLON); i++);
-
-            if (i > 1) {
-                logSemanticAnalysis(String.format(
-                        "Erro na linha %d: valores soh podem ser atribuidos a posicoes especificas de um vetor.",
-                        tokenSymbol.getToken().getLine()));
-                vecAtrib = false;
-            }
-        }
-
-        Symbol.Type actual = valor();
-        if (!firstRun && atribAllowed && currentType != actual) mismatchedTypeError(previousToken.getLine(), currentType, actual);
-
-        if (vecAtrib) {
-            Symbol vec = getSymbol(previousToken);
-
-            if (vec != null) {
-                if (!(vec instanceof Vector) || ((vec instanceof Vector) &&
-                        (((Vector)tableSymbol).getDimensions() != ((Vector)vec).getDimensions())))
-                    logSemanticAnalysis(String.format(
-                            "Erro na linha %d: a variavel \"%s\" nao eh um vetor %d-dimensional.",
-                            previousToken.getLine(), previousToken.getLexeme(), ((Vector)tableSymbol).getDimensions())
-                    );
-            } else if (previousToken.getType() == TokenType.NUMBER || previousToken.getType() == TokenType.BOOL_V)
-                logSemanticAnalysis(String.format(
-                    "Erro na linha %d: valores soh podem ser atribuidos a posicoes especificas de um vetor.",
-                    previousToken.getLine())
-                );
-        }
+        // o valor atribuido tem no maximo um token antes do ';'
+        boolean shortValue = lookAheadToken(0, TokenType.SEMICOLON) || lookAheadToken(1, TokenType.SEMICOLON);
+        int value = valor();
+        // o no guarda o ultimo token lido pelo valor
+        int statement = tree.add(Kind.ASSIGN, previousToken, shortValue);
 
         if(!expect(TokenType.SEMICOLON)){
-        	panicMode(Token.TokenType.IDENTIFIER, Token.TokenType.SEMICOLON,
-        			Token.TokenType.ENQUANTO, Token.TokenType.SE,
-        			Token.TokenType.LEIA, Token.TokenType.ESCREVA);
+        	end = panicMode(SYNC_ASSIGN_END);
         	accept(Token.TokenType.SEMICOLON);
         }
+        tree.append(statement, target);
+        tree.append(statement, beforeValue);
+        tree.append(statement, value);
+        tree.append(statement, end);
+        return statement;
     }
 
     // <Funcoes>::= <Funcao_Decl><Funcoes>|<>
-    private void funcoes() {
-        if (currentToken.getType() == TokenType.FUNCAO) {
-            funcaoDecl();
-            funcoes();
+    private void funcoes(int program) {
+        while (currentToken.getType() == TokenType.FUNCAO) {
+            int start = tokens.position();
+            tree.append(program, funcaoDecl());
+            if (!advanced(start)) break;
         }
     }
 
     // <Funcao_Decl> ::= 'funcao'<Funcao_Decl2>
-    private void funcaoDecl() {
+    private int funcaoDecl() {
         expect(TokenType.FUNCAO);
-        funcaoDecl2();
+        return funcaoDecl2();
     }
 
     // <Funcao_Decl2>::= <Tipo>id'('<Param_Decl>')'<Bloco> | id'('<Param_Decl>')'<Bloco>
-    private void funcaoDecl2() {
+    private int funcaoDecl2() {
         Token identifier = null;
+        int returnType = SyntaxTree.NONE, beforeName = SyntaxTree.NONE;
         Symbol.Type t;
-        if (tipo()) // trata o caso da função ser void
+        if (tipo()) { // trata o caso da função ser void
+            returnType = tree.add(Kind.TOKEN, previousToken);
             t = Symbol.Type.valueOf(previousToken.getLexeme().toUpperCase());
-        else t = Symbol.Type.VOID;
+        } else t = Symbol.Type.VOID;
 
         if(!expect(TokenType.IDENTIFIER)){ // Mas o identificador é obrigatório
-            panicMode(Token.TokenType.IDENTIFIER, Token.TokenType.PAREN_L);
+            beforeName = panicMode(SYNC_FUNCTION_NAME);
             accept(Token.TokenType.IDENTIFIER);
         } else identifier = previousToken;
+        int function = tree.add(Kind.FUNCTION, identifier);
+        tree.append(function, returnType);
+        tree.append(function, beforeName);
         if(!expect(TokenType.PAREN_L)){
-            panicMode(Token.TokenType.PAREN_L, Token.TokenType.PAREN_R,
-                    Token.TokenType.IDENTIFIER, Token.TokenType.INTEIRO,
-                    Token.TokenType.BOOLEANO, Token.TokenType.CADEIA,
-                    Token.TokenType.REAL, Token.TokenType.CARACTERE);
+            tree.append(function, panicMode(SYNC_PARAMS_START));
         }
 
-        // Argumentos serão adcionados ao escopo do bloco que segue a declaração de uma função
-        LinkedList<Symbol> args = paramDecl();
-        // Se a função tiver tipo de retorno, adciona a variável de retorno ao escopo
-        if (t != Symbol.Type.VOID) args.add(new Variable(identifier, t));
+        // Argumentos serão adcionados ao escopo do bloco na analise semantica
+        List<Symbol> args = new ArrayList<>();
+        paramDecl(function, args);
 
         if(!expect(TokenType.PAREN_R)){
-            panicMode(Token.TokenType.PAREN_R, Token.TokenType.INICIO);
+            tree.append(function, panicMode(SYNC_FUNCTION_BODY));
             accept(Token.TokenType.PAREN_R);
         }
 
-        // adiciona os parametros e a variável de retorno ao escopo do bloco
-        if (!firstRun) bloco(args.toArray(new Symbol[args.size()]));
-        else bloco();
-
-        // remove a variavel de retorno da lista. Sobram apenas os argumentos da função
-        if (t != Symbol.Type.VOID) args.removeLast();
+        tree.append(function, bloco());
 
         // adciona os argumentos da função ao objeto Function
-        Function f = new Function(identifier, t, args.toArray(new Symbol[args.size()]));
-        if (firstRun) putSymbol(f);
+        // sem o nome, ja reportado como erro sintatico, a funcao nao e definida
+        if (identifier != null) {
+            Function f = new Function(identifier, t, args.toArray(new Symbol[args.size()]));
+            putSymbol(f);
+        }
+        return function;
     }
 
     //<Param_Decl> ::=  <tipo><Id_Vetor><Param_Decl_List> | <>
+    //<Param_Decl_List> ::=  ','<Param_Decl>|<>
     // Modifiquei removendo produções unitárias
-    private LinkedList<Symbol> paramDecl() {
-        LinkedList<Symbol> args = new LinkedList<>();
-        // se o token atual for o fecha parentese, param_decl derivou vazio
-        if (currentToken.getType() == TokenType.PAREN_R) return args;
-        else {
-            if (!tipo()) {
+    private void paramDecl(int function, List<Symbol> args) {
+        int start;
+        do {
+            start = tokens.position();
+            // se o token atual for o fecha parentese, param_decl derivou vazio
+            if (currentToken.getType() == TokenType.PAREN_R) return;
+            Token type = null;
+            if (tipo()) type = previousToken;
+            else {
                 syntaxError(TokenType.INTEIRO, TokenType.REAL,
                         TokenType.BOOLEANO, TokenType.CARACTERE,
                         TokenType.CADEIA);
             }
-            args.add(idvetor());
-            args.addAll(paramDeclList());
-            return args;
-        }
-    }
-
-    // <Param_Decl_List> ::=  ','<Param_Decl>|<>
-    private LinkedList<Symbol> paramDeclList() {
-        LinkedList<Symbol> args = new LinkedList<>();
-        if (accept(TokenType.COMMA)) {
-            args.addAll(paramDecl());
-        }
-        return args;
+            int param = tree.add(Kind.PARAM, type);
+            int name = idvetor();
+            tree.append(param, name);
+            tree.append(function, param);
+            args.add(TypeChecker.declaration(tree, name, currentType));
+        } while (accept(TokenType.COMMA) && advanced(start));
     }
 
     // <Chamada_Funcao>::= id '(' <Chamada_Funcao2>
-    private Symbol.Type chamadaFuncao() {
+    private int chamadaFuncao() {
+        int beforeName = SyntaxTree.NONE;
         if(!expect(TokenType.IDENTIFIER)){
-            panicMode(Token.TokenType.IDENTIFIER, Token.TokenType.PAREN_L);
+            beforeName = panicMode(SYNC_FUNCTION_NAME);
             accept(Token.TokenType.IDENTIFIER);
         }
-        Function f = null;
-        int line = previousToken.getLine();
-        if (!firstRun) {
-            Symbol s = getSymbol(previousToken, true);
-
-            if (s != null) {
-                if (!(s instanceof Function))
-                    logSemanticAnalysis(String.format("Erro na linha %d: nao foi possivel encontrar a funcao %s.",
-                            line, previousToken.getLexeme()));
-                else f = (Function) s;
-            }
-        }
+        int call = tree.add(Kind.CALL, previousToken, beforeName != SyntaxTree.NONE);
+        tree.append(call, beforeName);
         if(!expect(TokenType.PAREN_L)){
-            panicMode(Token.TokenType.PAREN_L, Token.TokenType.IDENTIFIER,
-                    Token.TokenType.NUMBER, Token.TokenType.CARACTERE,
-                    Token.TokenType.BOOL_V, Token.TokenType.CHAR_STRING);
+            tree.append(call, panicMode(SYNC_ARGUMENTS_START));
             accept(Token.TokenType.PAREN_L);
         }
 
-        LinkedList<Symbol.Type> argTypes = chamadaFuncao2();
-
-        if (f != null) {
-
-            if (f.getArgCount() == 0 && f.getArgCount() != argTypes.size()) {
-                logSemanticAnalysis(String.format("Erro na linha %d: a funcao %s nao recebe argumentos.",
-                        line, f.getToken().getLexeme()));
-                return Symbol.Type.VOID;
-            }
-
-            boolean error = false;
-            int i;
-            String msg =
-                    String.format("Erro na linha %d: a funcao %s nao pode ser aplicada aos seguintes argumentos:\n" +
-                                    "Parametros Esperados\tArgumentos Obtidos\n",
-                            line, f.getToken().getLexeme());
-
-            for (i = 0; i < f.getArgCount(); i++) {
-                msg += (i < argTypes.size()) ? f.getArg(i).getType().name() + "\t" + argTypes.get(i).name() + "\n"
-                        : f.getArg(i).getType().name() + "\n";
-                error = error ||
-                        ((i >= argTypes.size()) || ((i < argTypes.size()) && f.getArg(i).getType() != argTypes.get(i)));
-            }
-
-            // se entrar aqui, o cara passou mais argumentos que devia
-            for (int j = i; j < argTypes.size(); j++) {
-                msg += "\t\t" + argTypes.get(j).name();
-                error = true;
-            }
-
-            if (error) logSemanticAnalysis(msg);
-            return f.getType();
-        }
-        return Symbol.Type.VOID;
+        chamadaFuncao2(call);
+        return call;
     }
 
     void a(int a, int b){}
 
     // <Chamada_Funcao2>::=<Param_Cham>')' |  ')'
-    private LinkedList<Symbol.Type> chamadaFuncao2() {
-        LinkedList<Symbol.Type> argTypes = new LinkedList<>();
+    private void chamadaFuncao2(int call) {
         if (!accept(TokenType.PAREN_R)) {
-            if (!firstRun) argTypes.addAll(paramCham()); else paramCham();
+            paramCham(call);
             if(!expect(TokenType.PAREN_R)){
-                panicMode(Token.TokenType.PAREN_R, Token.TokenType.SEMICOLON,
-                        Token.TokenType.MINUS, Token.TokenType.DIV,
-                        Token.TokenType.PLUS, Token.TokenType.TIMES);
+                tree.append(call, panicMode(SYNC_ARGUMENTS_END));
                 accept(Token.TokenType.PAREN_R);
             }
         }
-        return argTypes;
     }
 
     // <Param_Cham> ::= <Literal> <Param_Cham2> | <ID_Vetor> <Param_Cham2>
-    // simplificado
-    private LinkedList<Symbol.Type> paramCham() {
-        LinkedList<Symbol.Type> argTypes = new LinkedList<>();
-
-        Token t = null;
-        Symbol.Type type = null;
-        if (currentToken.getType() == TokenType.IDENTIFIER) {
-            t = idvetor().getToken();
-        } else type = literal();
-        LinkedList<Symbol.Type> types = paramCham2();
-
-        if (!firstRun) {
-            if (t != null) {
-                Symbol s = getSymbol(t);
-                if (s != null) argTypes.add(s.getType());
-            } else argTypes.add(type);
-
-            argTypes.addAll(types);
-        }
-        return argTypes;
-    }
-
     // <Param_Cham2>::= ','<Param_Cham>|<>
-    private LinkedList<Symbol.Type> paramCham2() {
-        LinkedList<Symbol.Type> argTypes = new LinkedList<>();
-        if (accept(TokenType.COMMA)) {
-            if (!firstRun) argTypes.addAll(paramCham()); else paramCham();
-        }
-        return argTypes;
+    // simplificado
+    private void paramCham(int call) {
+        int start;
+        do {
+            start = tokens.position();
+            if (currentToken.getType() == TokenType.IDENTIFIER) {
+                tree.append(call, idvetor());
+            } else tree.append(call, orMissing(literal()));
+        } while (accept(TokenType.COMMA) && advanced(start));
     }
 
     // <Valor> ::= <Exp_Aritmetica> | <Exp_Logica> | caractere_t | cadeia_t
-    private Symbol.Type valor() {
-        if (accept(TokenType.CHAR_STRING)){
-            if (vecAtrib) logSemanticAnalysis(String.format(
-                    "Erro na linha %d: valores soh podem ser atribuidos a posicoes especificas de um vetor.",
-                    previousToken.getLine())
-            );
-            else if (!firstRun && currentType != Symbol.Type.CADEIA)
-                mismatchedTypeError(previousToken.getLine(), currentType, Symbol.Type.CADEIA);
-            return Symbol.Type.CADEIA;
-        } else if (accept(TokenType.CHARACTER)){
-            if (vecAtrib) logSemanticAnalysis(String.format(
-                    "Erro na linha %d: valores soh podem ser atribuidos a posicoes especificas de um vetor.",
-                    previousToken.getLine())
-            );
-            else if (!firstRun && currentType != Symbol.Type.CARACTERE)
-                mismatchedTypeError(previousToken.getLine(), currentType, Symbol.Type.CARACTERE);
-            return Symbol.Type.CARACTERE;
+    private int valor() {
+        if (accept(TokenType.CHAR_STRING) || accept(TokenType.CHARACTER)) {
+            return tree.add(Kind.LITERAL, previousToken);
         } else {
             // Procura por um operador lógico. Se encontrar, chama expressão lógica
-            boolean logOpFound = false;
-
-            // Lista de operadores lógicos e relacionais
-            List<TokenType> logRelOpList = Arrays.asList(TokenType.EQ, TokenType.NEQ,
-                    TokenType.LT, TokenType.LE, TokenType.GT, TokenType.GE, TokenType.E,
-                    TokenType.NAO, TokenType.OU);
-
-            // pare se encontrar qualquer um desses tokens
-            List<TokenType> stopToken = Arrays.asList(TokenType.SEMICOLON, TokenType.FIM,
-                    TokenType.SE, TokenType.ENQUANTO, TokenType.LEIA, TokenType.ESCREVA);
-
-            logOpFound = searchForTokens(logRelOpList, stopToken);
-
-            if (logOpFound) {
+            if (logRelOpAhead()) {
                 return expLogica();
             } else {
                 return expAritimetica();
@@ -942,106 +1045,96 @@ public class Parser {
         }
     }
 
-    private boolean searchForTokens(List<TokenType> targetTokens, List<TokenType> stopTokens) {
-        for (int i = 1; i < tokenList.size() ; i++) {
-
-            for (TokenType s : stopTokens) {
-                if (lookAheadToken(i, s)) return false;
-            }
-
-            for (TokenType t : targetTokens) {
-                if (lookAheadToken(i, t)) return true;
+    /**
+     * Verifica se, depois do token atual, aparece algum operador logico
+     * ou relacional antes de um token de {@link #OPERATOR_STOPS}.
+     *
+     * A resposta vale para todas as posicoes ate o operador ou token de
+     * parada encontrado, entao ela e guardada e reaproveitada pelas
+     * chamadas seguintes. Como a posicao atual so avanca, cada token e
+     * examinado no maximo uma vez por leitura da entrada, e as consultas
+     * custam O(1) amortizado.
+     *
+     * O indice e montado aos poucos, e nao num vetor com todas as
+     * posicoes antes da analise, porque a {@link TokenStream} so guarda
+     * os tokens a partir do atual, e com {@code -stream} eles sao lidos
+     * sob demanda; um vetor previo exigiria ler a entrada inteira antes
+     * da analise. Como uma nova varredura so comeca depois do fim da
+     * anterior, as varreduras nao se sobrepoem e somam O(n) por leitura
+     * da entrada, o mesmo custo do vetor previo.
+     */
+    private boolean logRelOpAhead() {
+        int position = tokens.position();
+        int start = position + 1;
+        if (operatorScanStart >= 0 && operatorScanStart <= start && start <= operatorScanEnd)
+            return operatorAhead;
+
+        operatorScanStart = start;
+        operatorAhead = false;
+        int i = start;
+        for (Token t; (t = tokens.peek(i - position)) != null; i++) {
+            if (OPERATOR_STOPS.contains(t.getType())) break;
+            if (LOG_REL_OPS.contains(t.getType())) {
+                operatorAhead = true;
+                break;
             }
         }
-        return false;
+        operatorScanEnd = i;
+        return operatorAhead;
     }
 
     // <Exp_Aritmetica> ::= <Exp_A1> | <Exp_A1><Exp_SomSub>
     // primeiro(<Exp_Aritmetica>) = {'(', numero_t, id}
-    private Symbol.Type expAritimetica() {
-        Symbol.Type t1 = expA1();
-        if (currentToken.getType() == TokenType.PLUS ||
-                currentToken.getType() == TokenType.MINUS) {
-            Token op = currentToken;
-            if (!firstRun) typeCheckArithmeticOperator(op, t1);
-            Symbol.Type t2 = expSomaSub();
-            if (!firstRun && typeCheckArithmeticOperator(op, t2))
-                return realOrInteger(t1, t2);
-        }
-        return t1;
-    }
-
-    // <Exp_A1> ::= <Numerico_Funcao> | <Numerico_Funcao><Exp_MulDiv>
-    // primeiro(<Exp_A1>) = primeiro(<Numerico_Funcao>) = {'(', numero_t, id}
-    private Symbol.Type expA1() {
-        Symbol.Type t1 = numericoFuncao();
-        if (currentToken.getType() == TokenType.TIMES ||
-                currentToken.getType() == TokenType.DIV) {
-            Token op = currentToken;
-            if (!firstRun) typeCheckArithmeticOperator(op, t1);
-            Symbol.Type t2 = expMulDiv();
-            if (!firstRun && typeCheckArithmeticOperator(op, t2))
-                return realOrInteger(t1, t2);
-        }
-        return t1;
+    private int expAritimetica() {
+        return expAritimetica(ADDITIVE);
     }
 
-    private Symbol.Type realOrInteger(Symbol.Type t1, Symbol.Type t2) {
-        return (t1 == Symbol.Type.REAL || t2 == Symbol.Type.REAL) ? Symbol.Type.REAL : Symbol.Type.INTEIRO;
-    }
-
-    // <Exp_SomSub> ::= <Operador_A1><Exp_A1> | <Operador_A1><Exp_A1><Exp_SomSub>
-    // Primeiro(<Exp_SomSub>) = {'+', '-'}
-    private Symbol.Type expSomaSub() {
-        Token op = operadorA1();
-        Symbol.Type t1 = expA1();
-        if (!firstRun) typeCheckArithmeticOperator(op, t1);
-        if (currentToken.getType() == TokenType.PLUS ||
-                currentToken.getType() == TokenType.MINUS)
-            return expSomaSub();
-        return t1;
-    }
-
-    // <Operador_A1> ::= '+' | '-'
-    private Token operadorA1() {
-        if (accept(TokenType.PLUS)) return previousToken;
-        else if (accept(TokenType.MINUS)) return previousToken;
-        else syntaxError(TokenType.PLUS, TokenType.MINUS);
-        return null;
-    }
-
-    // <Exp_MulDiv> ::= <Operador_A2><Numerico_Funcao>| <Operador_A2><Numerico_Funcao><Exp_MulDiv>
-    // Primeiro(<Exp_MulDiv>) = {'*' | '/'}
-    private Symbol.Type expMulDiv() {
-        Token op = operadorA2();
-        Symbol.Type t1 = numericoFuncao();
-        if (!firstRun) typeCheckArithmeticOperator(op, t1);
-
-        if (currentToken.getType() == TokenType.TIMES ||
-                currentToken.getType() == TokenType.DIV)
-            return expMulDiv();
-       return t1;
-    }
-
-    private boolean typeCheckArithmeticOperator(Token op, Symbol.Type t1) {
-        if (t1 != Symbol.Type.REAL && t1 != Symbol.Type.INTEIRO) {
-            logSemanticAnalysis(String.format("Erro na linha %d: %s nao pode ser usado com o tipo %s.",
-                    op.getLine(), op.getType().toString(), t1.name()));
-            return false;
-        } return true;
+    /* <Exp_A1> ::= <Numerico_Funcao> | <Numerico_Funcao><Exp_MulDiv>
+     * <Exp_SomSub> ::= <Operador_A1><Exp_A1> | <Operador_A1><Exp_A1><Exp_SomSub>
+     * <Exp_MulDiv> ::= <Operador_A2><Numerico_Funcao>| <Operador_A2><Numerico_Funcao><Exp_MulDiv>
+     * <Operador_A1> ::= '+' | '-'
+     * <Operador_A2> ::= '*' | '/'
+     */
+    /**
+     * Le uma expressao aritmetica por precedencia (precedence climbing):
+     * um operando seguido de operadores com precedencia de pelo menos
+     * minPower, conforme {@link #BINDING_POWER}. Cada sequencia de
+     * operadores de mesma precedencia forma um unico no
+     * {@link Kind#ARITHMETIC}, cujos operandos sao lidos com a precedencia
+     * seguinte, o que da a mesma arvore das producoes acima com uma
+     * chamada por operador, em vez de uma por nivel da gramatica.
+     */
+    private int expAritimetica(int minPower) {
+        int left = numericoFuncao();
+        int power = bindingPower(currentToken);
+        while (power >= minPower) {
+            int expression = tree.add(Kind.ARITHMETIC, null);
+            tree.append(expression, left);
+            int start;
+            do {
+                start = tokens.position();
+                accept(currentToken.getType());
+                tree.append(expression, tree.add(Kind.TOKEN, previousToken));
+                tree.append(expression, expAritimetica(power + 1));
+            } while (bindingPower(currentToken) == power && advanced(start));
+            if (!advanced(start)) return expression;
+            left = expression;
+            power = bindingPower(currentToken);
+        }
+        return left;
     }
 
-    // <Operador_A2> ::= '*' | '/'
-    private Token operadorA2() {
-        if (accept(TokenType.TIMES)) return previousToken;
-        else if (accept(TokenType.DIV)) return previousToken;
-        else syntaxError(TokenType.TIMES, TokenType.DIV);
-        return null;
+    /**
+     * Precedencia do operador binario em token, ou 0 caso ele nao seja
+     * um operador.
+     */
+    private static int bindingPower(Token token) {
+        return BINDING_POWER[token.getType().ordinal()];
     }
 
     // <Numerico_Funcao> ::= <Valor_Numerico> | <Vetor_Funcao>
     // Primeiro(<Numerico_Funcao>) = {'(', numero_t, id}
-    private Symbol.Type numericoFuncao() {
+    private int numericoFuncao() {
         if (currentToken.getType() == TokenType.NUMBER ||
                 currentToken.getType() == TokenType.PAREN_L) {
             return valorNumerico();
@@ -1050,32 +1143,26 @@ public class Parser {
 
     // <Valor_Numerico> ::= '('<Exp_Aritmetica>')' | numero_t
     // primeiro(<Valor_Numerico>) = {'(', numero_t}
-    private Symbol.Type valorNumerico() {
+    private int valorNumerico() {
         if (accept(TokenType.PAREN_L)) {
-            Symbol.Type t = expAritimetica();
+            int expression = tree.add(Kind.PAREN, null);
+            tree.append(expression, expAritimetica());
             if(!expect(TokenType.PAREN_R)){
-            	panicMode(Token.TokenType.SEMICOLON, Token.TokenType.PLUS,
-            			Token.TokenType.MINUS, Token.TokenType.DIV,
-            			Token.TokenType.TIMES);
+            	tree.append(expression, panicMode(SYNC_NUMERIC));
             }
-            return t;
+            return expression;
         } else if(!expect(TokenType.NUMBER)){
-        	panicMode(Token.TokenType.SEMICOLON, Token.TokenType.PLUS,
-        			Token.TokenType.MINUS, Token.TokenType.DIV,
-        			Token.TokenType.TIMES);
-            return Symbol.Type.VOID;
-        }  else return (previousToken.getLexeme().contains(".")) ? Symbol.Type.REAL : Symbol.Type.INTEIRO;
+            int invalid = tree.add(Kind.INVALID, null);
+        	tree.append(invalid, panicMode(SYNC_NUMERIC));
+            return invalid;
+        }  else return tree.add(Kind.LITERAL, previousToken);
     }
 
     // <Vetor_Funcao> ::= <Id_Vetor> | <Chamada_Funcao>
     // primeiro(<Vetor_Funcao>) = {id}
-    private Symbol.Type vetorFuncao() {
+    private int vetorFuncao() {
         if (lookAheadToken(1, TokenType.PAREN_L)) return chamadaFuncao();
-        else {
-            Token t = idvetor().getToken();
-            Symbol s;
-            return (!firstRun && (s = getSymbol(t)) != null) ? s.getType() : null;
-        }
+        else return idvetor();
     }
 
     /* <Exp_Logica> ::= <Vetor_Funcao><Operador_L1><Vetor_Funcao><Exp_Logica2> |
@@ -1085,92 +1172,91 @@ public class Parser {
      *                  <Valor_Booleano>
      *  primeiro(<Exp_Logica>) = {'nao', '(', numero_t, id, caractere_t, cadeia_t, booleano_t}
      */
-    private Symbol.Type expLogica() {
+    private int expLogica() {
         if (currentToken.getType() == TokenType.NAO) {
-            Token op = currentToken;
+            int expression = tree.add(Kind.NOT, currentToken);
             operadorL2();
-            Symbol.Type t1 = x4();
-            typeCheckBoolOperator(op, t1);
-            return (expLogica2() && t1 == Symbol.Type.BOOLEANO)? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+            tree.append(expression, orMissing(x4()));
+            tree.append(expression, expLogica2());
+            return expression;
         } else {
             if (lookAheadToken(1, TokenType.PAREN_L) || lookAheadToken(1, TokenType.VEC_DELIM_L)) {
-                Symbol.Type t2, t1 = vetorFuncao();
-                Token op = operadorL1();
-                boolean ok = typeCheckBoolOperator(op, t1);
+                int left = vetorFuncao();
+                int expression = tree.add(Kind.NAME_LOGIC, operadorL1());
+                tree.append(expression, left);
 
                 if (currentToken.getType() == TokenType.IDENTIFIER) {
-                    t2 = vetorFuncao();
-                    return (expLogica2() && ok && t2 == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+                    tree.append(expression, vetorFuncao());
+                    tree.append(expression, expLogica2());
                 } else {
-                    t2 = valorBooleano();
-                    return (ok && t2 == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+                    tree.append(expression, valorBooleano());
                 }
+                return expression;
             } else {
-                Symbol.Type t1 = valorBooleano();
-                if (currentToken.getType() == TokenType.E ||
-                        currentToken.getType() == TokenType.OU) {
-                    Token op = operadorL1();
-                    boolean ok = typeCheckBoolOperator(op, t1);
-                    Symbol.Type t2 = expLogica();
-                    return (ok && typeCheckBoolOperator(op, t2)) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
-                }
-                return t1;
+                int left = valorBooleano();
+                if (bindingPower(currentToken) != LOGICAL) return left;
+                // <Valor_Booleano><Operador_L1><Exp_Logica>: enquanto a
+                // <Exp_Logica> a direita for outra sequencia destas, os
+                // seus operandos entram no mesmo no
+                int expression = tree.add(Kind.LOGIC, null);
+                tree.append(expression, left);
+                int start;
+                do {
+                    start = tokens.position();
+                    tree.append(expression, tree.add(Kind.TOKEN, operadorL1()));
+                    if (currentToken.getType() == TokenType.NAO || lookAheadToken(1, TokenType.PAREN_L) ||
+                            lookAheadToken(1, TokenType.VEC_DELIM_L)) {
+                        tree.append(expression, expLogica());
+                        return expression;
+                    }
+                    tree.append(expression, valorBooleano());
+                } while (bindingPower(currentToken) == LOGICAL && advanced(start));
+                return expression;
             }
         }
     }
 
-    private boolean typeCheckBoolOperator(Token op, Symbol.Type t1) {
-        if (t1 != Symbol.Type.BOOLEANO) {
-            if (!firstRun)logSemanticAnalysis(String.format("Erro na linha %d: %s nao pode ser usado com o tipo %s.",
-                    op.getLine(), op.getType().toString(), t1.name()));
-            return false;
-        } return true;
-    }
-
     // <Exp_Logica2> ::= <Operador_L1><Exp_Logica3> | <>
-    private boolean expLogica2() {
-        if (currentToken.getType() == TokenType.E ||
-                currentToken.getType() == TokenType.OU) {
-            Token op = operadorL1();
-            Symbol.Type t1 = expLogica3();
-            return typeCheckBoolOperator(op, t1);
-        } // vazio
-        return true;
-    }
-
     // <Exp_Logica3> ::= <X5><Exp_Logica2> | <Operador_L2><X4><Exp_Logica2>
-    private Symbol.Type expLogica3() {
-        if (currentToken.getType() == TokenType.NAO) {
-            Token op = currentToken;
-            operadorL2();
-            Symbol.Type t1 = x4();
-            boolean ok = typeCheckBoolOperator(op, t1);
-
-            return (expLogica2() && ok) ? t1 : Symbol.Type.VOID;
-        } else {
-            Symbol.Type t1 = x5();
-            return (expLogica2() && t1 == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO: Symbol.Type.VOID;
-        }
+    private int expLogica2() {
+        if (bindingPower(currentToken) != LOGICAL) return SyntaxTree.NONE; // vazio
+        int tail = tree.add(Kind.LOGIC_TAIL, null);
+        int start;
+        do {
+            start = tokens.position();
+            tree.append(tail, tree.add(Kind.TOKEN, operadorL1()));
+            int operand;
+            if (currentToken.getType() == TokenType.NAO) {
+                operand = tree.add(Kind.NOT, currentToken, true);
+                operadorL2();
+                tree.append(operand, orMissing(x4()));
+            } else {
+                operand = tree.add(Kind.LOGIC_OPERAND, null);
+                tree.append(operand, orMissing(x5()));
+            }
+            tree.append(tail, operand);
+        } while (bindingPower(currentToken) == LOGICAL && advanced(start));
+        return tail;
     }
 
     // <X4> ::= '('<Vetor_Funcao>')' | <Valor_Booleano>
     // primeiro(<X4>) = {'(', numero_t, id, caractere_t, cadeia_t, booleano_t}
-    private Symbol.Type x4() {
+    private int x4() {
         if (currentToken.getType() == TokenType.PAREN_L){
             if (lookAheadToken(2, TokenType.VEC_DELIM_L) ||
                     lookAheadToken(2, TokenType.PAREN_L)){
                 expect(TokenType.PAREN_L);
-                Symbol.Type t1 = vetorFuncao();
+                int operand = vetorFuncao();
                 expect(TokenType.PAREN_R);
-                return t1;
+                return operand;
             }
-            return null;
+            return SyntaxTree.NONE;
         } else return valorBooleano();
     }
 
     // <X5> ::= <X4> | <Vetor_Funcao>
     // primeiro(<X5>) = {'(', numero_t, id, caractere_t, cadeia_t, booleano_t, id}
-    private Symbol.Type x5() {
+    private int x5() {
         if (accept(TokenType.IDENTIFIER)) {
             return vetorFuncao();
         } else return x4();
@@ -1190,64 +1276,45 @@ public class Parser {
 
     // <Valor_Booleano> ::= '('<Exp_Logica>')' | <Exp_Relacional> |  booleano_t
     // primeiro(<Valor_Booleano>) = {'(', numero_t, id, caractere_t, cadeia_t, booleano_t}
-    private Symbol.Type valorBooleano() {
+    private int valorBooleano() {
         // Como decidir entre as produções?
         if (!accept(TokenType.BOOL_V)){
             // Ambas as produções restantes podem começar com varios (
             if (accept(TokenType.PAREN_L)) {
-                Symbol.Type t1 = expLogica();
+                int expression = expLogica();
                 expect(TokenType.PAREN_R);
-                return t1;
-            } else if (accept(TokenType.BOOL_V))return Symbol.Type.BOOLEANO;
+                return expression;
+            } else if (accept(TokenType.BOOL_V)) return tree.add(Kind.LITERAL, previousToken);
             else return expRelacional();
-        } else return Symbol.Type.BOOLEANO;
+        } else return tree.add(Kind.LITERAL, previousToken);
     }
 
     /* <Exp_Relacional> ::= <Numerico_Funcao><Operador_R1><Numerico_Funcao> |
      *                      <Literal_Numero><Operador_R2><Literal_Numero>
      * primeiro(<Exp_Relacional>) = {'(', numero_t, id, caractere_t, cadeia_t, booleano_t}
      */
-    private Symbol.Type expRelacional() {
+    private int expRelacional() {
         if (currentToken.getType() == TokenType.NUMBER ||
                 currentToken.getType() == TokenType.PAREN_L ||
                 currentToken.getType() == TokenType.IDENTIFIER) {
-            Symbol.Type t1 = numericoFuncao();
-            Token op = operadorR1();
-            Symbol.Type t2 = numericoFuncao();
-            return (!firstRun && typeCheckRelop(op, t1, t2)) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+            int left = numericoFuncao();
+            int expression = tree.add(Kind.RELATIONAL, operadorR1());
+            tree.append(expression, left);
+            tree.append(expression, numericoFuncao());
+            return expression;
         } else {
-            Symbol.Type t1 = literalNumero();
-            Token op = operadorR2();
-            Symbol.Type t2 = literalNumero();
-            return (!firstRun && typeCheckRelop(op, t1, t2)) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+            int left = orMissing(literalNumero());
+            int expression = tree.add(Kind.RELATIONAL, operadorR2());
+            tree.append(expression, left);
+            tree.append(expression, orMissing(literalNumero()));
+            return expression;
         }
     }
 
-    private boolean typeCheckRelop(Token op, Symbol.Type t1, Symbol.Type t2) {
-        if (t1 == t2) {
-            if (t1 == Symbol.Type.CADEIA || t1 == Symbol.Type.CARACTERE || t1 == Symbol.Type.BOOLEANO)
-                return (op.getType() == TokenType.EQ || op.getType() == TokenType.NEQ);
-            else logSemanticAnalysis(String.format("Erro na linha %d: %s nao pode ser usado com o tipo %s.",
-                    op.getLine(), op.getType().toString(), t1.name()));
-            return true;
-        } else if (((t1 == Symbol.Type.REAL && t2 == Symbol.Type.INTEIRO) ||
-                (t1 == Symbol.Type.INTEIRO && t2 == Symbol.Type.REAL))) {
-            return true;
-        }
-        logSemanticAnalysis(String.format("Erro na linha %d: nao eh possivel comparar %s com %s.",
-                op.getLine(), t1.name(), t2.name()));
-        return false;
-    }
-
     // <Operador_R1> ::= <Operador_R2> | '<' | '<=' | '>' | '>='
     // Primeiro(<Operador_R1>) = {'=', '<>', '<', '<=', '>', '>='}
     private Token operadorR1() {
-        if (accept(TokenType.NEQ)) return previousToken;
-        else if (accept(TokenType.EQ)) return previousToken;
-        else if (accept(TokenType.LT)) return previousToken;
-        else if (accept(TokenType.LE)) return previousToken;
-        else if (accept(TokenType.GT)) return previousToken;
-        else if (accept(TokenType.GE)) return previousToken;
+        if (bindingPower(currentToken) == RELATIONAL && accept(currentToken.getType())) return previousToken;
         else syntaxError(TokenType.NEQ, TokenType.EQ, TokenType.LT,
                     TokenType.LE, TokenType.GE, TokenType.GT);
         return null;
@@ -1265,12 +1332,11 @@ public class Parser {
     // <Literal_Numero> ::= caractere_t | cadeia_t | booleano_t
     // literal menos numero?
     // primeiro(<Literal_Numero>) = {caractere_t, cadeia_t, booleano_t}
-    private Symbol.Type literalNumero() {
-        if (accept(TokenType.CHARACTER)) return Symbol.Type.CARACTERE;
-        else if (accept(TokenType.CHAR_STRING)) return Symbol.Type.CADEIA;
-        else if (accept(TokenType.BOOL_V)) return Symbol.Type.BOOLEANO;
+    private int literalNumero() {
+        if (accept(TokenType.CHARACTER) || accept(TokenType.CHAR_STRING) || accept(TokenType.BOOL_V))
+            return tree.add(Kind.LITERAL, previousToken);
         else syntaxError(TokenType.CHAR_STRING, TokenType.CHARACTER, TokenType.BOOL_V);
-        return null;
+        return SyntaxTree.NONE;
     }
 
     // <Tipo> ::= 'inteiro' | 'real' | 'booleano' | 'cadeia' | 'caractere'
@@ -1281,22 +1347,29 @@ public class Parser {
         if (accept(Token.TokenType.CARACTERE)) ok = true;
         if (accept(Token.TokenType.CADEIA)) ok = true;
         if (accept(Token.TokenType.BOOLEANO)) ok = true;
-        if (ok)
-            currentType = Symbol.Type.valueOf(previousToken.getLexeme().toUpperCase());
+        if (ok) currentType = Symbol.Type.valueOf(previousToken.getLexeme().toUpperCase());
         return ok;
     }
 
     // <Literal> ::= caractere_t | cadeia_t | numero_t | booleano_t
-    private Symbol.Type literal() {
-        if (accept(Token.TokenType.NUMBER)) {
-            if (previousToken.getLexeme().contains(".")) return Symbol.Type.REAL;
-            else return Symbol.Type.INTEIRO;
-        }
-        else if (accept(Token.TokenType.CHARACTER)) return Symbol.Type.CARACTERE;
-        else if (accept(Token.TokenType.CHAR_STRING)) return Symbol.Type.CADEIA;
-        else if (accept(Token.TokenType.BOOL_V)) return Symbol.Type.BOOLEANO;
+    private int literal() {
+        if (accept(Token.TokenType.NUMBER) || accept(Token.TokenType.CHARACTER) ||
+                accept(Token.TokenType.CHAR_STRING) || accept(Token.TokenType.BOOL_V))
+            return tree.add(Kind.LITERAL, previousToken);
         else syntaxError(TokenType.NUMBER, TokenType.CHAR_STRING,
                     TokenType.CHARACTER, TokenType.BOOL_V);
-        return null;
+        return SyntaxTree.NONE;
+    }
+
+    /**
+     * Lancada quando a quantidade de erros atinge o limite definido por
+     * {@link #setErrorLimit(int)}, interrompendo a analise da entrada.
+     */
+    private static class ErrorLimitException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ErrorLimitException() {
+            super(null, null, false, false);
+        }
     }
 }
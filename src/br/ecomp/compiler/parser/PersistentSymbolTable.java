@@ -0,0 +1,242 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+
+/**
+ * Tabela de simbolos persistente, com a mesma interface de
+ * {@link SymbolTable}: em vez de alterar a tabela, {@link #put(Symbol)},
+ * {@link #enterScope()} e {@link #exitScope()} retornam uma nova tabela,
+ * que compartilha com a anterior tudo o que nao mudou. Como uma tabela
+ * nunca muda depois de criada, qualquer tabela pode ser entregue a outras
+ * threads ou guardada como o estado de um ponto da analise, sem copias.
+ * O {@link Binder} abre os escopos dos blocos sobre a tabela dos
+ * simbolos globais, que e compartilhada pelos trechos verificados em
+ * paralelo pelo {@link TypeChecker}.
+ *
+ * Os simbolos ficam numa HAMT (hash array mapped trie) que associa cada
+ * nome ao simbolo mais interno com esse nome e a profundidade do escopo
+ * em que ele foi definido, como na {@link SymbolTable}: uma busca
+ * percorre no maximo 7 niveis da arvore, qualquer que seja o aninhamento
+ * dos escopos, e uma definicao copia apenas os nos do caminho ate o
+ * simbolo.
+ */
+public final class PersistentSymbolTable {
+
+    private static final PersistentSymbolTable EMPTY = new PersistentSymbolTable(null, 0, null);
+
+    private final Node root;
+    private final int depth;
+    /** Tabela em que o escopo atual foi aberto, ou null no escopo global. */
+    private final PersistentSymbolTable outer;
+
+    private PersistentSymbolTable(Node root, int depth, PersistentSymbolTable outer) {
+        this.root = root;
+        this.depth = depth;
+        this.outer = outer;
+    }
+
+    /**
+     * @return a tabela vazia, no escopo global
+     */
+    public static PersistentSymbolTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return uma tabela com um escopo aninhado no escopo atual
+     */
+    public PersistentSymbolTable enterScope() {
+        return new PersistentSymbolTable(root, depth + 1, this);
+    }
+
+    /**
+     * @return a tabela em que o escopo atual foi aberto, sem os simbolos
+     * definidos nele
+     */
+    public PersistentSymbolTable exitScope() {
+        if (outer == null) throw new IllegalStateException("o escopo global nao pode ser fechado");
+        return outer;
+    }
+
+    /**
+     * @return uma tabela com o simbolo definido no escopo atual
+     */
+    public PersistentSymbolTable put(Symbol s) {
+        Binding b = new Binding(s, s instanceof Function, depth);
+        Node node = (root == null) ? new Node(0, new Object[0]) : root;
+        return new PersistentSymbolTable(node.put(b, 0), depth, outer);
+    }
+
+    public Symbol get(Token t) {
+        return get(t, false);
+    }
+
+    public Symbol get(Token t, boolean isFunction) {
+        Binding b = find(t, isFunction);
+        return (b == null) ? null : b.symbol;
+    }
+
+    public boolean containsSymbol(Token t) {
+        return containsSymbol(t, false);
+    }
+
+    public boolean containsSymbol(Token t, boolean isFunction) {
+        return find(t, isFunction) != null;
+    }
+
+    public boolean containsSymbol(Symbol s) {
+        return containsSymbol(s.getToken());
+    }
+
+    public boolean containsSymbolLocal(Token t) {
+        Binding b = find(t, false);
+        return b != null && b.depth == depth;
+    }
+
+    public boolean containsSymbolLocal(Symbol s) {
+        return this.containsSymbolLocal(s.getToken());
+    }
+
+    public boolean isRoot() {
+        return depth == 0;
+    }
+
+    private Binding find(Token t, boolean isFunction) {
+        if (root == null) return null;
+        int id = t.getSymbolId();
+        String lexeme = (id >= 0) ? null : t.getLexeme();
+        int hash = hash(id, lexeme, isFunction);
+        Object entry = root;
+        for (int shift = 0; ; shift += 5) {
+            if (entry instanceof Node) {
+                Node node = (Node) entry;
+                int bit = 1 << ((hash >>> shift) & 31);
+                if ((node.bitmap & bit) == 0) return null;
+                entry = node.entries[Integer.bitCount(node.bitmap & (bit - 1))];
+            } else if (entry instanceof Binding) {
+                Binding b = (Binding) entry;
+                return b.matches(id, lexeme, isFunction) ? b : null;
+            } else {
+                for (Binding b : ((Collision) entry).bindings) {
+                    if (b.matches(id, lexeme, isFunction)) return b;
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Hash de um nome: do id do identificador ou, para os tokens que nao
+     * sao identificadores, do lexema, com o espaco de nomes.
+     */
+    private static int hash(int id, String lexeme, boolean isFunction) {
+        int h = (id >= 0) ? id * 2 : lexeme.hashCode() * 2 + 0x40000000;
+        h = (h + (isFunction ? 1 : 0)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Simbolo definido para um nome, com a profundidade do escopo.
+     */
+    private static final class Binding {
+        final Symbol symbol;
+        final int id;
+        /** Lexema dos tokens que nao sao identificadores; null nos demais. */
+        final String lexeme;
+        final boolean function;
+        final int depth;
+        final int hash;
+
+        Binding(Symbol symbol, boolean function, int depth) {
+            Token t = symbol.getToken();
+            this.symbol = symbol;
+            this.id = t.getSymbolId();
+            this.lexeme = (id >= 0) ? null : t.getLexeme();
+            this.function = function;
+            this.depth = depth;
+            this.hash = hash(id, lexeme, function);
+        }
+
+        boolean matches(int id, String lexeme, boolean function) {
+            if (this.function != function || this.id != id) return false;
+            return id >= 0 || this.lexeme.equals(lexeme);
+        }
+
+        boolean sameName(Binding b) {
+            return matches(b.id, b.lexeme, b.function);
+        }
+    }
+
+    /**
+     * No da HAMT: o bitmap indica quais dos 32 ramos do no estao
+     * ocupados, e entries guarda, na ordem dos ramos, um {@link Binding},
+     * um {@link Node} ou uma {@link Collision} por ramo ocupado.
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] entries;
+
+        Node(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        Node put(Binding b, int shift) {
+            int bit = 1 << ((b.hash >>> shift) & 31);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[entries.length + 1];
+                System.arraycopy(entries, 0, copy, 0, index);
+                copy[index] = b;
+                System.arraycopy(entries, index, copy, index + 1, entries.length - index);
+                return new Node(bitmap | bit, copy);
+            }
+            Object entry = entries[index];
+            Object replacement;
+            if (entry instanceof Node) replacement = ((Node) entry).put(b, shift + 5);
+            else if (entry instanceof Collision) replacement = ((Collision) entry).put(b);
+            else if (((Binding) entry).sameName(b)) replacement = b;
+            else replacement = merge((Binding) entry, b, shift + 5);
+            Object[] copy = entries.clone();
+            copy[index] = replacement;
+            return new Node(bitmap, copy);
+        }
+
+        /**
+         * Subarvore com dois simbolos de nomes diferentes cujos hashes
+         * coincidem ate o deslocamento informado.
+         */
+        private static Object merge(Binding a, Binding b, int shift) {
+            if (shift > 30) return new Collision(new Binding[]{a, b});
+            int fa = (a.hash >>> shift) & 31, fb = (b.hash >>> shift) & 31;
+            if (fa == fb) return new Node(1 << fa, new Object[]{merge(a, b, shift + 5)});
+            Object[] entries = (fa < fb) ? new Object[]{a, b} : new Object[]{b, a};
+            return new Node((1 << fa) | (1 << fb), entries);
+        }
+    }
+
+    /**
+     * Simbolos de nomes diferentes com o mesmo hash.
+     */
+    private static final class Collision {
+        final Binding[] bindings;
+
+        Collision(Binding[] bindings) {
+            this.bindings = bindings;
+        }
+
+        Collision put(Binding b) {
+            for (int i = 0; i < bindings.length; i++) {
+                if (bindings[i].sameName(b)) {
+                    Binding[] copy = bindings.clone();
+                    copy[i] = b;
+                    return new Collision(copy);
+                }
+            }
+            Binding[] copy = new Binding[bindings.length + 1];
+            System.arraycopy(bindings, 0, copy, 0, bindings.length);
+            copy[bindings.length] = b;
+            return new Collision(copy);
+        }
+    }
+}
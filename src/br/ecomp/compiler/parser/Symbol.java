@@ -17,6 +17,8 @@ public class Symbol {
     }
     private Token token;
     private Type type;
+    /** Endereco do simbolo, dado pelo {@link Binder}: profundidade do escopo e posicao. */
+    private int depth = -1, slot = -1;
 
     public Symbol(Token token, Type type) {
         this.token = token;
@@ -31,6 +33,19 @@ public class Symbol {
         return type;
     }
 
+    void bind(int depth, int slot) {
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
     @Override
     public String toString() {
         return token.getLexeme() + ":" + type.name();
@@ -2,25 +2,105 @@ package br.ecomp.compiler.parser;
 
 import br.ecomp.compiler.lexer.Token;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
+ * Tabela de simbolos com uma pilha de escopos. Todos os escopos ficam
+ * numa unica tabela de enderecamento aberto, que associa cada nome ao
+ * simbolo mais interno com esse nome e a profundidade do escopo em que
+ * ele foi definido, de modo que uma busca faz uma unica sondagem,
+ * qualquer que seja o aninhamento. Os nomes sao os ids dos
+ * identificadores no {@link br.ecomp.compiler.lexer.IdentifierPool},
+ * com espacos de nomes separados para variaveis e funcoes.
+ *
+ * Ao definir um simbolo num escopo aninhado, o simbolo que ele esconde
+ * e guardado num registro de desfazer; ao sair do escopo, os simbolos
+ * definidos nele sao desfeitos a partir do registro. Os nomes nunca sao
+ * removidos da tabela: um nome sem simbolo apenas fica vazio.
+ *
  * @author Filipe Boaventura
  * @since 12/10/2016.
  */
 public class SymbolTable {
-    private HashMap<String, Symbol> table;
-    private SymbolTable previous;
+    /**
+     * Chave de cada posicao da tabela (veja {@link #key(Token, boolean)}),
+     * ou 0 se a posicao esta vazia.
+     */
+    private long[] keys;
+    private Symbol[] symbols;
+    /** Profundidade do escopo em que cada simbolo foi definido. */
+    private int[] depths;
+    private int size;
+    /**
+     * Indices dados aos lexemas dos simbolos cujo token nao e um
+     * identificador, o que so acontece durante a recuperacao de erros
+     * sintaticos.
+     */
+    private HashMap<String, Integer> unnamed;
+    /** Simbolos definidos no escopo global, na ordem das definicoes. */
+    private ArrayList<Symbol> order;
 
-    protected SymbolTable(SymbolTable p) {
-        table = new HashMap<>();
-        previous = p;
+    /** Registro de desfazer: a chave e o simbolo que ocupava a chave antes. */
+    private long[] undoKeys;
+    private Symbol[] undoSymbols;
+    private int[] undoDepths;
+    private int undoSize;
+    /** Tamanho do registro de desfazer na entrada de cada escopo aberto. */
+    private int[] scopes;
+    private int depth;
+
+    public SymbolTable() {
+        keys = new long[16];
+        symbols = new Symbol[16];
+        depths = new int[16];
+        order = new ArrayList<>();
+        undoKeys = new long[16];
+        undoSymbols = new Symbol[16];
+        undoDepths = new int[16];
+        scopes = new int[8];
+    }
+
+    /**
+     * Abre um escopo aninhado no escopo atual.
+     */
+    public void enterScope() {
+        if (depth == scopes.length) scopes = Arrays.copyOf(scopes, depth * 2);
+        scopes[depth++] = undoSize;
+    }
+
+    /**
+     * Fecha o escopo atual, desfazendo os simbolos definidos nele.
+     */
+    public void exitScope() {
+        if (depth == 0) throw new IllegalStateException("o escopo global nao pode ser fechado");
+        int mark = scopes[--depth];
+        while (undoSize > mark) {
+            undoSize--;
+            int slot = find(undoKeys[undoSize]);
+            symbols[slot] = undoSymbols[undoSize];
+            depths[slot] = undoDepths[undoSize];
+            undoSymbols[undoSize] = null;
+        }
     }
 
     public void put(Symbol s) {
-        String key = (s instanceof Function) ? "f_" + s.getToken().getLexeme()
-                : s.getToken().getLexeme();
-        table.put(key, s);
+        long key = key(s.getToken(), s instanceof Function, true);
+        int slot = find(key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = find(key);
+            }
+        }
+        if (depth > 0) log(key, symbols[slot], depths[slot]);
+        else order.add(s);
+        symbols[slot] = s;
+        depths[slot] = depth;
     }
 
     public Symbol get(Token t) {
@@ -28,12 +108,8 @@ public class SymbolTable {
     }
 
     public Symbol get(Token t, boolean isFunction) {
-        String key = (isFunction) ? "f_" + t.getLexeme() : t.getLexeme();
-        for (SymbolTable env = this; env != null; env = env.previous) {
-            if (env.table.containsKey(key))
-                return env.table.get(key);
-        }
-        return null;
+        long key = key(t, isFunction, false);
+        return (key == 0) ? null : symbols[find(key)];
     }
 
     public boolean containsSymbol(Token t) {
@@ -41,11 +117,7 @@ public class SymbolTable {
     }
 
     public boolean containsSymbol(Token t, boolean isFunction) {
-        String key = (isFunction) ? "f_" + t.getLexeme() : t.getLexeme();
-        for (SymbolTable env = this; env != null; env = env.previous) {
-            if (env.table.containsKey(key)) return true;
-        }
-        return false;
+        return get(t, isFunction) != null;
     }
 
     public boolean containsSymbol(Symbol s) {
@@ -53,7 +125,10 @@ public class SymbolTable {
     }
 
     public boolean containsSymbolLocal(Token t) {
-        return table.containsKey(t.getLexeme());
+        long key = key(t, false, false);
+        if (key == 0) return false;
+        int slot = find(key);
+        return symbols[slot] != null && depths[slot] == depth;
     }
 
     public boolean containsSymbolLocal(Symbol s) {
@@ -61,20 +136,134 @@ public class SymbolTable {
     }
 
     public boolean isRoot() {
-        return previous == null;
+        return depth == 0;
+    }
+
+    /**
+     * @return os simbolos do escopo global, um por nome, na ordem em que
+     * cada nome foi definido
+     */
+    Symbol[] getGlobals() {
+        ArrayList<Symbol> globals = new ArrayList<>(order.size());
+        for (Symbol s : order) {
+            int slot = find(key(s.getToken(), s instanceof Function, false));
+            if (symbols[slot] == s && depths[slot] == 0) globals.add(s);
+        }
+        return globals.toArray(new Symbol[globals.size()]);
     }
 
+    /**
+     * @return os simbolos do escopo global
+     */
     public Symbol[] getSymbols() {
+        HashMap<String, Symbol> table = asMap();
         return table.values().toArray(new Symbol[table.values().size()]);
     }
 
+    /**
+     * Chave de um nome na tabela: o id do identificador, ou o indice do
+     * lexema em {@link #unnamed}, com o espaco de nomes no bit menos
+     * significativo. As chaves dos identificadores sao positivas e as
+     * dos demais lexemas, negativas.
+     *
+     * @param create se o lexema de um token que nao e um identificador
+     *               deve receber um indice, caso ainda nao tenha
+     * @return a chave, ou 0 caso o lexema nao tenha indice
+     */
+    private long key(Token t, boolean isFunction, boolean create) {
+        int namespace = isFunction ? 1 : 0;
+        if (t.getSymbolId() >= 0) return (((long) t.getSymbolId() << 1) | namespace) + 1;
+        if (unnamed == null) unnamed = new HashMap<>();
+        Integer index = unnamed.get(t.getLexeme());
+        if (index == null) {
+            if (!create) return 0;
+            index = unnamed.size();
+            unnamed.put(t.getLexeme(), index);
+        }
+        return -(((long) index << 1) | namespace) - 1;
+    }
+
+    private static String key(Token t, boolean isFunction) {
+        return (isFunction) ? "f_" + t.getLexeme() : t.getLexeme();
+    }
+
+    /**
+     * @return a posicao da chave, ou a posicao vazia em que ela seria
+     * inserida
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void log(long key, Symbol previous, int previousDepth) {
+        if (undoSize == undoKeys.length) {
+            undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+            undoSymbols = Arrays.copyOf(undoSymbols, undoSize * 2);
+            undoDepths = Arrays.copyOf(undoDepths, undoSize * 2);
+        }
+        undoKeys[undoSize] = key;
+        undoSymbols[undoSize] = previous;
+        undoDepths[undoSize] = previousDepth;
+        undoSize++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Symbol[] oldSymbols = symbols;
+        int[] oldDepths = depths;
+        keys = new long[oldKeys.length * 2];
+        symbols = new Symbol[oldKeys.length * 2];
+        depths = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = find(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            symbols[slot] = oldSymbols[i];
+            depths[slot] = oldDepths[i];
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Monta a tabela dos simbolos globais indexada pelos lexemas,
+     * inserindo as chaves na mesma ordem em que foram definidas, de modo
+     * que os simbolos sao listados na mesma ordem de antes da indexacao
+     * por ids. Um simbolo redefinido fica com a ultima definicao.
+     */
+    private HashMap<String, Symbol> asMap() {
+        HashMap<String, Symbol> table = new HashMap<>();
+        for (Symbol s : order) table.put(key(s.getToken(), s instanceof Function), s);
+        return table;
+    }
+
+    /**
+     * Escreve os simbolos globais, no formato de {@link #toString()}, um
+     * simbolo por vez, sem montar o texto da tabela inteira.
+     */
+    public void write(Appendable out) throws IOException {
+        HashMap<String, Symbol> table = asMap();
+        out.append("{\n");
+        for (Symbol s : table.values()) {
+            out.append('\t').append(s.toString()).append('\n');
+        }
+        out.append('}');
+    }
+
     @Override
     public String toString() {
-        String symbols = "{\n";
-        for (String s : table.keySet()) {
-            symbols += "\t" + table.get(s).toString() + "\n";
+        StringBuilder symbols = new StringBuilder();
+        try {
+            write(symbols);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        symbols += "}";
-        return symbols;
+        return symbols.toString();
     }
 }
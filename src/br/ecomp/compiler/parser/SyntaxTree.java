@@ -0,0 +1,296 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+
+import java.util.Arrays;
+
+/**
+ * Arvore sintatica montada pelo {@link Parser}, guardada de forma
+ * compacta em arrays paralelos: cada no e um indice, com o tipo do no,
+ * o indice do seu token na tabela de tokens da arvore, o primeiro filho
+ * e o proximo irmao. Os arrays crescem conforme a arvore e montada, sao
+ * ajustados ao seu tamanho quando ela fica pronta, e {@link #clear()}
+ * libera todos os nos de uma vez, mantendo os arrays para a proxima
+ * arvore.
+ *
+ * Os filhos de cada no ficam na ordem em que aparecem na entrada. Os
+ * tokens descartados pela recuperacao de erros formam nos
+ * {@link Kind#SKIPPED}, entre os filhos do no que estava sendo lido. Os
+ * demais filhos de cada tipo de no estao descritos em {@link Kind}.
+ */
+public class SyntaxTree {
+
+    /** Indice que representa a ausencia de um no. */
+    public static final int NONE = -1;
+
+    public enum Kind {
+        /** [VAR_SECTION] [CONST_SECTION] BLOCK FUNCTION* */
+        PROGRAM,
+        /** VAR_GROUP* */
+        VAR_SECTION,
+        /** Token: o tipo. NAME+ */
+        VAR_GROUP,
+        /** CONST_GROUP* */
+        CONST_SECTION,
+        /** Token: o tipo, ausente apos um erro. CONST+ */
+        CONST_GROUP,
+        /** Token: o nome. [LITERAL] */
+        CONST,
+        /**
+         * [VAR_SECTION] VAR_GROUP* e os comandos. Marcado caso o primeiro
+         * filho sejam os tokens descartados antes de 'inicio'.
+         */
+        BLOCK,
+        /** Token: o nome. [TOKEN com o tipo de retorno] PARAM* BLOCK */
+        FUNCTION,
+        /** Token: o tipo, ausente apos um erro. NAME */
+        PARAM,
+        /**
+         * Token: o ultimo token do valor. NAME e o valor. Marcado caso o
+         * valor tenha no maximo um token antes do ';'.
+         */
+        ASSIGN,
+        /** Token: 'se'. A condicao, BLOCK e [BLOCK] */
+        IF,
+        /** Token: 'enquanto'. A condicao e BLOCK */
+        WHILE,
+        /** TOKEN* com os valores */
+        WRITE,
+        /** NAME+ */
+        READ,
+        /** TOKEN* com os tokens descartados */
+        SKIPPED,
+        /** Valor numerico invalido. [SKIPPED] */
+        INVALID,
+        /** Expressao ausente apos um erro */
+        MISSING,
+        /** Token: um token qualquer, usado como filho */
+        TOKEN,
+        /** Token: o literal */
+        LITERAL,
+        /** Token: o identificador. Cada indice e seguido de um TOKEN com o seu ultimo token */
+        NAME,
+        /**
+         * Token: o nome. Os argumentos (NAME, LITERAL ou MISSING). Marcado
+         * caso o primeiro filho sejam os tokens descartados antes do nome.
+         */
+        CALL,
+        /** A expressao */
+        PAREN,
+        /** O primeiro operando, seguido de pares TOKEN com o operador e operando */
+        ARITHMETIC,
+        /** Token: o operador. Os dois operandos */
+        RELATIONAL,
+        /**
+         * Token: 'nao'. O operando e [LOGIC_TAIL]. Marcado numa
+         * &lt;Exp_Logica3&gt;, onde nao tem LOGIC_TAIL
+         */
+        NOT,
+        /** Token: o operador. Os dois operandos e [LOGIC_TAIL] */
+        NAME_LOGIC,
+        /** O primeiro operando, seguido de pares TOKEN com o operador e operando */
+        LOGIC,
+        /** O operando */
+        LOGIC_OPERAND,
+        /** Pares TOKEN com o operador e operando (NOT marcado ou LOGIC_OPERAND) */
+        LOGIC_TAIL
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    /** Marca, no byte de tipo, os nos com a propriedade descrita em {@link Kind}. */
+    private static final int FLAG = 0x80;
+
+    private byte[] kinds;
+    private int[] tokenIndices, firstChildren, nextSiblings;
+    /** Ultimo filho de cada no, usado apenas durante a montagem. */
+    private int[] lastChildren;
+    private int size;
+    private Token[] tokens;
+    private int tokenCount;
+    /**
+     * Endereco dado a cada no pelo {@link Binder} (veja
+     * {@link #bind(int, int, int)}), alocado quando a arvore fica pronta.
+     */
+    private int[] scopeDepths, slots;
+
+    public SyntaxTree() {
+        kinds = new byte[64];
+        tokenIndices = new int[64];
+        firstChildren = new int[64];
+        nextSiblings = new int[64];
+        lastChildren = new int[64];
+        tokens = new Token[64];
+    }
+
+    int add(Kind kind, Token token) {
+        return add(kind, token, false);
+    }
+
+    /**
+     * Cria um no sem filhos.
+     *
+     * @param token o token do no, ou null
+     * @param flag se o no tem a propriedade descrita em {@link Kind}
+     * @return o indice do no
+     */
+    int add(Kind kind, Token token, boolean flag) {
+        if (size == kinds.length) grow();
+        kinds[size] = (byte) (kind.ordinal() | (flag ? FLAG : 0));
+        if (token != null) {
+            if (tokenCount == tokens.length) tokens = Arrays.copyOf(tokens, Math.max(tokenCount * 2, 64));
+            tokens[tokenCount] = token;
+            tokenIndices[size] = tokenCount++;
+        } else tokenIndices[size] = NONE;
+        firstChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        lastChildren[size] = NONE;
+        return size++;
+    }
+
+    /**
+     * Acrescenta um no ao final dos filhos de outro. Nada e feito caso
+     * child seja {@link #NONE}.
+     */
+    void append(int parent, int child) {
+        if (child == NONE) return;
+        int last = lastChildren[parent];
+        if (last == NONE) firstChildren[parent] = child;
+        else nextSiblings[last] = child;
+        lastChildren[parent] = child;
+    }
+
+    private void grow() {
+        int capacity = Math.max(size * 2, 64);
+        kinds = Arrays.copyOf(kinds, capacity);
+        tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+    }
+
+    /**
+     * Encerra a montagem da arvore: ajusta os arrays ao numero de nos e
+     * descarta os ultimos filhos, que so sao usados por
+     * {@link #append(int, int)}. Nenhum no pode ser criado depois, ate
+     * que a arvore seja descartada por {@link #clear()}.
+     */
+    void trim() {
+        kinds = Arrays.copyOf(kinds, size);
+        tokenIndices = Arrays.copyOf(tokenIndices, size);
+        firstChildren = Arrays.copyOf(firstChildren, size);
+        nextSiblings = Arrays.copyOf(nextSiblings, size);
+        lastChildren = null;
+        tokens = Arrays.copyOf(tokens, tokenCount);
+        scopeDepths = new int[size];
+        slots = new int[size];
+    }
+
+    /**
+     * Descarta todos os nos. Os arrays sao mantidos e reaproveitados
+     * pela proxima arvore.
+     */
+    public void clear() {
+        Arrays.fill(tokens, 0, tokenCount, null);
+        size = 0;
+        tokenCount = 0;
+        if (lastChildren == null) lastChildren = new int[kinds.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Kind kind(int node) {
+        return KINDS[kinds[node] & ~FLAG & 0xFF];
+    }
+
+    public boolean flag(int node) {
+        return (kinds[node] & FLAG) != 0;
+    }
+
+    /**
+     * @return o token do no, ou null caso ele nao tenha um
+     */
+    public Token token(int node) {
+        int index = tokenIndices[node];
+        return (index == NONE) ? null : tokens[index];
+    }
+
+    public int firstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    /**
+     * Quantidade de indices de um {@link Kind#NAME}, ou 0 caso ele nao
+     * seja um vetor.
+     */
+    public int dimensions(int name) {
+        int dimensions = 0;
+        for (int child = firstChildren[name]; child != NONE; child = nextSiblings[child]) {
+            if (kind(child) == Kind.TOKEN) dimensions++;
+        }
+        return dimensions;
+    }
+
+    /**
+     * Guarda o endereco de um no: num {@link Kind#NAME} ou
+     * {@link Kind#CALL}, o simbolo usado ou declarado; num
+     * {@link Kind#ASSIGN}, o simbolo com o nome do ultimo token do valor;
+     * num {@link Kind#FUNCTION}, a variavel de retorno; e num
+     * {@link Kind#BLOCK}, a quantidade de posicoes do seu escopo.
+     */
+    void bind(int node, int depth, int slot) {
+        scopeDepths[node] = depth;
+        slots[node] = slot;
+    }
+
+    public int scopeDepth(int node) {
+        return scopeDepths[node];
+    }
+
+    /**
+     * @return a posicao do simbolo do no no seu escopo, ou
+     * {@link Binder#UNRESOLVED} e {@link Binder#DUPLICATE}
+     */
+    public int slot(int node) {
+        return slots[node];
+    }
+
+    public <R> R accept(int node, Visitor<R> v) {
+        switch (kind(node)) {
+            case PROGRAM: return v.visitProgram(node);
+            case VAR_SECTION: return v.visitVarSection(node);
+            case VAR_GROUP: return v.visitVarGroup(node);
+            case CONST_SECTION: return v.visitConstSection(node);
+            case CONST_GROUP: return v.visitConstGroup(node);
+            case CONST: return v.visitConst(node);
+            case BLOCK: return v.visitBlock(node);
+            case FUNCTION: return v.visitFunction(node);
+            case PARAM: return v.visitParam(node);
+            case ASSIGN: return v.visitAssign(node);
+            case IF: return v.visitIf(node);
+            case WHILE: return v.visitWhile(node);
+            case WRITE: return v.visitWrite(node);
+            case READ: return v.visitRead(node);
+            case SKIPPED: return v.visitSkipped(node);
+            case INVALID: return v.visitInvalid(node);
+            case MISSING: return v.visitMissing(node);
+            case TOKEN: return v.visitToken(node);
+            case LITERAL: return v.visitLiteral(node);
+            case NAME: return v.visitName(node);
+            case CALL: return v.visitCall(node);
+            case PAREN: return v.visitParen(node);
+            case ARITHMETIC: return v.visitArithmetic(node);
+            case RELATIONAL: return v.visitRelational(node);
+            case NOT: return v.visitNot(node);
+            case NAME_LOGIC: return v.visitNameLogic(node);
+            case LOGIC: return v.visitLogic(node);
+            case LOGIC_OPERAND: return v.visitLogicOperand(node);
+            default: return v.visitLogicTail(node);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.Token.TokenType;
+import br.ecomp.compiler.lexer.TokenStream;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+
+import static br.ecomp.compiler.parser.GrammarTables.*;
+
+/**
+ * Analisador sintatico preditivo dirigido pelas tabelas de
+ * {@link GrammarTables}, geradas a partir da gramatica por
+ * {@link br.ecomp.compiler.grammar.TableGenerator}. A entrada e
+ * reconhecida com uma pilha explicita de simbolos, sem montar a arvore
+ * sintatica, de modo que uma mudanca na gramatica so exige gerar as
+ * tabelas novamente.
+ *
+ * A gramatica nao e LL(1) nem LL(k): os conflitos da tabela sao
+ * decididos pelo token seguinte e, quando ele nao basta, tentando as
+ * producoes possiveis em ordem sobre os tokens a frente, sem
+ * consumi-los, o que pode ler a frente ate o fim de uma expressao. Os erros sao recuperados em modo
+ * panico: um terminal esperado que nao aparece e descartado da pilha, e
+ * um nao-terminal sem producao para o token atual descarta tokens ate
+ * algum do seu conjunto primeiro ou seguinte. Assim como no
+ * {@link Parser}, os tokens apos o fim do programa sao ignorados.
+ */
+public class TableParser {
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    /**
+     * Recebe as mensagens de erro sintatico, no mesmo formato das
+     * mensagens do {@link Parser}.
+     */
+    public interface ErrorListener {
+        void syntaxError(String message);
+    }
+
+    private TokenStream tokens;
+    /** Token atual, ou null no fim da entrada. */
+    private Token currentToken;
+    /** Linha do ultimo token lido, usada nos erros no fim da entrada. */
+    private int line;
+    private int[] stack = new int[64];
+    /**
+     * Resultado das tentativas feitas para decidir um conflito, indexado
+     * pela distancia do token inicial ao token atual e pela producao: a
+     * distancia do token seguinte a producao, ou -1 se ela nao reconhece
+     * a entrada. Descartado a cada producao escolhida pelo reconhecimento.
+     */
+    private final HashMap<Long, Integer> attempts = new HashMap<>();
+
+    /**
+     * Reconhece a sequencia de tokens desde o inicio.
+     *
+     * @return a quantidade de erros sintaticos encontrados
+     */
+    public int recognize(TokenStream tokens, ErrorListener listener) {
+        this.tokens = tokens;
+        tokens.rewind();
+        line = 0;
+        nextToken();
+        int errors = 0;
+        int size = 0;
+        stack[size++] = ~PROGRAMA;
+        while (size > 0) {
+            int symbol = stack[--size];
+            int type = type(0);
+            if (symbol >= 0) {
+                if (symbol == type) nextToken();
+                else {
+                    errors++;
+                    listener.syntaxError(message(EnumSet.of(TYPES[symbol])));
+                }
+                continue;
+            }
+
+            int nonterminal = ~symbol;
+            attempts.clear();
+            int production = predict(nonterminal, 0);
+            if (production < 0 && NULLABLE[nonterminal] && FOLLOW[nonterminal].isEmpty()) {
+                // so o fim da entrada segue o nao-terminal: o restante e ignorado
+                continue;
+            }
+            if (production < 0) {
+                errors++;
+                listener.syntaxError(message(FIRST[nonterminal]));
+                while (currentToken != null && !FIRST[nonterminal].contains(currentToken.getType())
+                        && !FOLLOW[nonterminal].contains(currentToken.getType())) {
+                    nextToken();
+                }
+                if (currentToken != null && FIRST[nonterminal].contains(currentToken.getType())) size++;
+                continue;
+            }
+            int[] body = PRODUCTIONS[production];
+            if (size + body.length > stack.length) stack = Arrays.copyOf(stack, Math.max(stack.length * 2, size + body.length));
+            for (int i = body.length - 1; i >= 0; i--) stack[size++] = body[i];
+        }
+        return errors;
+    }
+
+    /**
+     * Reconhece a sequencia de tokens, como o passo 2 do {@link Parser},
+     * e grava o resultado no arquivo sin_.
+     *
+     * @return a quantidade de erros sintaticos encontrados
+     */
+    public int parse(TokenStream tokens, String outputPath) throws IOException {
+        String sinOut = "output" + File.separator + "sin_" + outputPath;
+        int errors;
+        try (BufferedWriter sinWriter = new BufferedWriter(new FileWriter(new File(sinOut)))) {
+            System.out.println("Passo 2: Analise Sintatica (tabelas)");
+            errors = recognize(tokens, message -> {
+                System.out.println(message);
+                try {
+                    sinWriter.write(message);
+                    sinWriter.newLine();
+                } catch (IOException e) {
+                    throw new RuntimeException(e.getMessage());
+                }
+            });
+            System.out.println(String.format("\t%d erros sintáticos foram encontrados", errors));
+            sinWriter.write(String.format("%d erros sintáticos foram encontrados", errors));
+            sinWriter.newLine();
+            if (errors == 0) {
+                System.out.println("\tAnalise Sintatica concluida com sucesso.");
+                sinWriter.write("Analise Sintatica concluida com sucesso.");
+                sinWriter.newLine();
+            }
+        }
+        System.out.println("O status da analise sintatica foi salvo no arquivo " + sinOut);
+        tokens.skipRemaining();
+        return errors;
+    }
+
+    /**
+     * Move para o proximo token que nao e um comentario.
+     */
+    private void nextToken() {
+        do {
+            currentToken = tokens.advance();
+        } while (currentToken != null && currentToken.getType() == TokenType.COMMENT);
+        if (currentToken != null) line = currentToken.getLine();
+    }
+
+    /**
+     * Tipo do token na distancia informada do token atual, contando os
+     * comentarios, ou {@link GrammarTables#END} no fim da entrada.
+     */
+    private int type(int offset) {
+        if (currentToken == null) return END;
+        Token t = tokens.peek(offset);
+        return (t == null) ? END : t.getType().ordinal();
+    }
+
+    /**
+     * Distancia, a partir do token atual, do primeiro token depois de
+     * offset que nao e um comentario.
+     */
+    private int next(int offset) {
+        do offset++;
+        while (type(offset) == TokenType.COMMENT.ordinal());
+        return offset;
+    }
+
+    /**
+     * Escolhe a producao do nao-terminal para o token na distancia
+     * informada do token atual.
+     *
+     * @return a producao, ou -1 caso nenhuma comece com o token
+     */
+    private int predict(int nonterminal, int offset) {
+        int entry = TABLE[nonterminal][type(offset)];
+        if (entry >= -1) return entry;
+        int k = -2 - entry;
+        int second = type(next(offset));
+        int[] candidates = (AMBIGUOUS[k] == null) ? null : AMBIGUOUS[k][second];
+        if (candidates == null) return SECOND[k][second];
+        // a ultima producao e escolhida sem tentativa, ja que nao ha outra
+        for (int i = 0; i < candidates.length - 1; i++) {
+            if (attempt(candidates[i], offset) >= 0) return candidates[i];
+        }
+        return candidates[candidates.length - 1];
+    }
+
+    /**
+     * Tenta reconhecer a producao a partir do token na distancia
+     * informada, sem consumir tokens. A producao so e aceita caso o
+     * token seguinte a ela possa seguir o seu nao-terminal.
+     *
+     * @return a distancia do token seguinte a producao, ou -1 caso ela
+     * nao reconheca a entrada
+     */
+    private int attempt(int production, int offset) {
+        long key = key(production, offset);
+        Integer known = attempts.get(key);
+        if (known != null) return known;
+
+        int[] local = new int[16];
+        int size = 0;
+        for (int i = PRODUCTIONS[production].length - 1; i >= 0; i--) {
+            if (size == local.length) local = Arrays.copyOf(local, size * 2);
+            local[size++] = PRODUCTIONS[production][i];
+        }
+        int end = offset;
+        while (size > 0 && end >= 0) {
+            int symbol = local[--size];
+            if (symbol >= 0) {
+                end = (type(end) == symbol) ? next(end) : -1;
+                continue;
+            }
+            int p = predict(~symbol, end);
+            if (p < 0) {
+                end = -1;
+                continue;
+            }
+            // a producao ja foi reconhecida na decisao de um conflito
+            Integer recognized = attempts.get(key(p, end));
+            if (recognized != null && recognized >= 0) {
+                end = recognized;
+                continue;
+            }
+            int[] body = PRODUCTIONS[p];
+            if (size + body.length > local.length) local = Arrays.copyOf(local, Math.max(local.length * 2, size + body.length));
+            for (int i = body.length - 1; i >= 0; i--) local[size++] = body[i];
+        }
+        if (end >= 0) {
+            int nonterminal = HEADS[production];
+            int type = type(end);
+            boolean follows = (type == END) ? FOLLOWED_BY_END[nonterminal] : FOLLOW[nonterminal].contains(TYPES[type]);
+            if (!follows) end = -1;
+        }
+        attempts.put(key, end);
+        return end;
+    }
+
+    private static long key(int production, int offset) {
+        return (long) offset * PRODUCTIONS.length + production;
+    }
+
+    private String message(EnumSet<TokenType> expected) {
+        StringBuilder names = new StringBuilder();
+        for (TokenType type : expected) {
+            if (names.length() > 0) names.append(", ");
+            names.append(type.toString());
+        }
+        String obtained = (currentToken == null) ? "fim do arquivo"
+                : currentToken.getLexeme() + " " + currentToken.getType();
+        return String.format("Erro na linha %d. Esperava: %s. Obteve: %s.", line, names, obtained);
+    }
+}
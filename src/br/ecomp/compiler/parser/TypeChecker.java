@@ -0,0 +1,963 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.Token.TokenType;
+import br.ecomp.compiler.parser.SyntaxTree.Kind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Analise semantica: percorre a {@link SyntaxTree} montada pelo
+ * {@link Parser}, com a tabela de simbolos globais ja completa,
+ * verificando os tipos e os simbolos usados.
+ *
+ * As verificacoes e mensagens seguem a ordem da entrada. Os tokens
+ * descartados pela recuperacao de erros sao exibidos de novo, no ponto
+ * em que foram descartados. O tipo esperado numa atribuicao e o tipo
+ * dado as declaracoes sem tipo sao o ultimo tipo lido ou o tipo da
+ * ultima variavel que recebeu uma atribuicao, nessa ordem.
+ */
+class TypeChecker implements Visitor<Symbol.Type> {
+
+    /**
+     * Recebe os erros semanticos encontrados e as demais mensagens da
+     * analise, que por padrao sao exibidas no console.
+     */
+    interface ErrorListener {
+        void semanticError(String message);
+
+        default void message(String message) {
+            System.out.println(message);
+        }
+    }
+
+    private final SyntaxTree tree;
+    private final ErrorListener errorListener;
+    /**
+     * Tabela com os simbolos globais, usada pelo {@link Binder} e
+     * compartilhada pelos trechos verificados em paralelo.
+     */
+    private final PersistentSymbolTable globals;
+    /**
+     * Simbolos de cada escopo aberto, indexados pela profundidade e pela
+     * posicao dada pelo {@link Binder}; os globais ficam no primeiro.
+     */
+    private Symbol[][] frames = new Symbol[8][];
+    private int depth;
+    private Symbol.Type currentType;
+
+    /**
+     * @param globals tabela de simbolos globais
+     * @param type tipo esperado no inicio da entrada
+     */
+    TypeChecker(SyntaxTree tree, SymbolTable globals, Symbol.Type type, ErrorListener errorListener) {
+        this.tree = tree;
+        this.frames[0] = Binder.globals(globals);
+        this.globals = Binder.scope(frames[0]);
+        this.currentType = type;
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * @param globals tabela com os simbolos globais
+     * @param frame os simbolos globais, indexados pela posicao
+     */
+    private TypeChecker(SyntaxTree tree, PersistentSymbolTable globals, Symbol[] frame, Symbol.Type type,
+                        ErrorListener errorListener) {
+        this.tree = tree;
+        this.globals = globals;
+        this.frames[0] = frame;
+        this.currentType = type;
+        this.errorListener = errorListener;
+    }
+
+    void check(int program) {
+        new Binder(tree, globals).bind(program);
+        tree.accept(program, this);
+    }
+
+    /**
+     * Verifica os irmaos de from ate to (exclusive), filhos do programa.
+     */
+    private void check(int from, int to) {
+        new Binder(tree, globals).bind(from, to);
+        children(from, to);
+    }
+
+    /**
+     * Verifica o programa em paralelo num {@link ForkJoinPool}. Os filhos
+     * do programa sao divididos em trechos que comecam numa funcao que
+     * define o tipo atual antes de usa-lo (veja {@link #fixesType(int)}),
+     * de modo que a verificacao de um trecho nao depende dos anteriores.
+     * As demais funcoes dependem do tipo deixado pela anterior e ficam no
+     * trecho dela; se nenhuma funcao define o tipo, a verificacao e
+     * sequencial. Os nomes de cada trecho sao resolvidos pelo
+     * {@link Binder} sobre a mesma tabela de simbolos globais, que nao
+     * muda, e as mensagens sao guardadas e repassadas ao
+     * {@link ErrorListener} na ordem da entrada, como na verificacao
+     * sequencial. Com menos funcoes do que threads, a divisao nao compensa
+     * e a verificacao tambem e sequencial.
+     *
+     * @param pool pool das threads, reaproveitado entre as analises; null
+     *             para verificar sequencialmente
+     */
+    void checkParallel(int program, ForkJoinPool pool) {
+        int parallelism = (pool == null) ? 1 : pool.getParallelism();
+        List<Integer> starts = new ArrayList<>();
+        starts.add(tree.firstChild(program));
+        int functions = 0;
+        for (int child = tree.firstChild(program); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.FUNCTION) functions++;
+            if (child != starts.get(0) && fixesType(child)) starts.add(child);
+        }
+        int count = Math.min(parallelism * 4, starts.size());
+        if (parallelism <= 1 || functions < parallelism || count <= 1) {
+            check(program);
+            return;
+        }
+
+        List<Callable<Buffer>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = starts.get(starts.size() * i / count);
+            int to = (i == count - 1) ? SyntaxTree.NONE : starts.get(starts.size() * (i + 1) / count);
+            Symbol.Type type = (i == 0) ? currentType : null;
+            tasks.add(() -> {
+                Buffer buffer = new Buffer();
+                try {
+                    new TypeChecker(tree, globals, frames[0], type, buffer).check(from, to);
+                } catch (RuntimeException e) {
+                    buffer.failure = e;
+                }
+                return buffer;
+            });
+        }
+
+        try {
+            for (Future<Buffer> result : pool.invokeAll(tasks)) result.get().replay(errorListener);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Analise semantica em paralelo interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Verifica se o no e uma funcao que define o tipo atual antes de
+     * qualquer uso dele: pelo tipo de retorno, pelo tipo do primeiro
+     * parametro ou, sem parametros, por uma declaracao de variaveis no
+     * inicio do corpo.
+     */
+    private boolean fixesType(int node) {
+        if (tree.kind(node) != Kind.FUNCTION) return false;
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            switch (tree.kind(child)) {
+                case TOKEN:
+                    return true;
+                case PARAM:
+                    return tree.token(child) != null;
+                case BLOCK:
+                    return declaresFirst(child);
+                default:
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se o primeiro no do bloco, depois dos tokens descartados
+     * antes de 'inicio', e uma declaracao de variaveis.
+     */
+    private boolean declaresFirst(int block) {
+        int child = tree.firstChild(block);
+        if (tree.flag(block)) child = tree.nextSibling(child);
+        if (child != SyntaxTree.NONE && tree.kind(child) == Kind.VAR_SECTION) child = tree.firstChild(child);
+        return child != SyntaxTree.NONE && tree.kind(child) == Kind.VAR_GROUP;
+    }
+
+    /**
+     * Mensagens de um trecho verificado em paralelo, na ordem em que
+     * foram geradas.
+     */
+    private static class Buffer implements ErrorListener {
+        private final List<String> messages = new ArrayList<>();
+        /** Posicoes de messages que sao erros semanticos. */
+        private final BitSet errors = new BitSet();
+        /** Excecao que interrompeu a verificacao do trecho, relancada apos as mensagens. */
+        private RuntimeException failure;
+
+        @Override
+        public void semanticError(String message) {
+            errors.set(messages.size());
+            messages.add(message);
+        }
+
+        @Override
+        public void message(String message) {
+            messages.add(message);
+        }
+
+        void replay(ErrorListener listener) {
+            for (int i = 0; i < messages.size(); i++) {
+                if (errors.get(i)) listener.semanticError(messages.get(i));
+                else listener.message(messages.get(i));
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /******************************************
+     *      Mensagens e tabela de simbolos
+     *****************************************/
+
+    static String mismatchedType(int line, Symbol.Type expected, Symbol.Type actual) {
+        return "Erro! Tipo invalido na linha " + line + ": " +
+                "\n\tEsperava " + expected.name() +
+                "\n\tObteve " + actual.name();
+    }
+
+    static String alreadyDefined(Token token) {
+        return String.format("Erro na linha %d: \"%s\" ja foi definido no escopo.",
+                token.getLine(), token.getLexeme());
+    }
+
+    /**
+     * Resumo dos tokens descartados num {@link Kind#SKIPPED}: o token,
+     * caso seja apenas um, ou a quantidade, o primeiro e o ultimo.
+     */
+    static String skippedTokens(SyntaxTree tree, int skipped) {
+        int first = tree.firstChild(skipped), last = first, count = 1;
+        for (int t = tree.nextSibling(first); t != SyntaxTree.NONE; t = tree.nextSibling(t)) {
+            last = t;
+            count++;
+        }
+        if (count == 1) return "\tPulou Token: " + tree.token(first).toString();
+        return String.format("\tPulou %d Tokens: de %s ate %s", count,
+                tree.token(first).toString(), tree.token(last).toString());
+    }
+
+    /**
+     * Simbolo declarado por um identificador ({@link Kind#NAME}), com o
+     * tipo informado.
+     */
+    static Symbol declaration(SyntaxTree tree, int name, Symbol.Type type) {
+        int dimensions = tree.dimensions(name);
+        if (dimensions > 0) return new Vector(tree.token(name), type, dimensions);
+        return new Variable(tree.token(name), type);
+    }
+
+    static Symbol.Type literalType(Token t) {
+        switch (t.getType()) {
+            case NUMBER:
+                return (t.getLexeme().contains(".")) ? Symbol.Type.REAL : Symbol.Type.INTEIRO;
+            case CHARACTER:
+                return Symbol.Type.CARACTERE;
+            case CHAR_STRING:
+                return Symbol.Type.CADEIA;
+            default:
+                return Symbol.Type.BOOLEANO;
+        }
+    }
+
+    private static Symbol.Type typeOf(Token type) {
+        return Symbol.Type.valueOf(type.getLexeme().toUpperCase());
+    }
+
+    private void logSemanticAnalysis(String message) {
+        errorListener.semanticError(message);
+    }
+
+    /**
+     * Um tipo desconhecido (null) vem de um simbolo nao encontrado ou de
+     * um valor ausente apos um erro sintatico, ja reportados; nesse caso
+     * nenhum erro novo e reportado.
+     */
+    private void mismatchedTypeError(int line, Symbol.Type expected, Symbol.Type actual) {
+        if (expected == null || actual == null) return;
+        logSemanticAnalysis(mismatchedType(line, expected, actual));
+    }
+
+    private void symbolNotFoundError(Token t) {
+        logSemanticAnalysis(String.format("Erro na linha %d: nao foi possivel encontrar o simbolo \"%s\".",
+                t.getLine(), t.getLexeme()));
+    }
+
+    private void constantAssignmentError(Token t) {
+        errorListener.message(String.format("Erro na linha %d: nao eh possivel atribuir valores a constante \"%s\".",
+                t.getLine(), t.getLexeme()));
+    }
+
+    private void vectDimensionError(Vector expected, int actual) {
+        String msg = String.format("Erro na linha %d: O vetor %d-dimensional \"%s\" " +
+                        "nao pode ser usado como um vetor %d-dimensional.",
+                tree.token(actual).getLine(), expected.getDimensions(),
+                expected.getToken().getLexeme(), tree.dimensions(actual));
+        logSemanticAnalysis(msg);
+    }
+
+    private void vectAssignmentError(int line) {
+        logSemanticAnalysis(String.format(
+                "Erro na linha %d: valores soh podem ser atribuidos a posicoes especificas de um vetor.",
+                line));
+    }
+
+    /**
+     * Define o simbolo no escopo atual, na posicao dada pelo
+     * {@link Binder} ao no que o declara.
+     */
+    private void putSymbol(Symbol s, int node) {
+        int slot = tree.slot(node);
+        if (slot == Binder.DUPLICATE) logSemanticAnalysis(alreadyDefined(s.getToken()));
+        else if (slot != Binder.UNRESOLVED) {
+            s.bind(depth, slot);
+            frames[depth][slot] = s;
+        }
+    }
+
+    /**
+     * @return o simbolo encontrado pelo {@link Binder} para o no, ou null
+     * caso ele nao exista
+     */
+    private Symbol getSymbol(int node) {
+        int slot = tree.slot(node);
+        if (slot == Binder.UNRESOLVED) {
+            symbolNotFoundError(tree.token(node));
+            return null;
+        }
+        return frames[tree.scopeDepth(node)][slot];
+    }
+
+    /******************************************
+     *      Programa, blocos e declaracoes
+     *****************************************/
+
+    @Override
+    public Symbol.Type visitProgram(int node) {
+        children(node);
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitVarSection(int node) {
+        children(node);
+        return null;
+    }
+
+    /**
+     * As variaveis globais ja foram definidas pelo {@link Parser}; as
+     * locais sao definidas de novo no escopo do bloco, que numa funcao
+     * tambem contem os parametros.
+     */
+    @Override
+    public Symbol.Type visitVarGroup(int node) {
+        currentType = typeOf(tree.token(node));
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.SKIPPED) {
+                skip(child);
+                continue;
+            }
+            indices(child);
+            Symbol s = declaration(tree, child, currentType);
+            if (depth > 0) putSymbol(s, child);
+        }
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitConstSection(int node) {
+        children(node);
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitConstGroup(int node) {
+        if (tree.token(node) != null) currentType = typeOf(tree.token(node));
+        children(node);
+        return null;
+    }
+
+    /**
+     * As constantes ja foram definidas e verificadas pelo {@link Parser}.
+     */
+    @Override
+    public Symbol.Type visitConst(int node) {
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.SKIPPED) skip(child);
+        }
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitBlock(int node) {
+        block(node);
+        return null;
+    }
+
+    private void block(int node) {
+        block(node, new Symbol[0], new int[0]);
+    }
+
+    /**
+     * @param args parametros de uma funcao e sua variavel de retorno,
+     *             definidos no escopo do bloco
+     * @param declarations nos que declaram cada um dos args
+     */
+    private void block(int node, Symbol[] args, int[] declarations) {
+        int child = tree.firstChild(node);
+        if (tree.flag(node)) {
+            skip(child);
+            child = tree.nextSibling(child);
+        }
+        if (++depth == frames.length) frames = Arrays.copyOf(frames, depth * 2);
+        frames[depth] = new Symbol[tree.slot(node)];
+        for (int i = 0; i < args.length; i++) {
+            putSymbol(args[i], declarations[i]);
+        }
+        for (; child != SyntaxTree.NONE; child = tree.nextSibling(child)) tree.accept(child, this);
+        frames[depth--] = null;
+    }
+
+    @Override
+    public Symbol.Type visitFunction(int node) {
+        Symbol.Type t = Symbol.Type.VOID;
+        List<Symbol> args = new ArrayList<>();
+        List<Integer> declarations = new ArrayList<>();
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            switch (tree.kind(child)) {
+                case TOKEN:
+                    t = typeOf(tree.token(child));
+                    currentType = t;
+                    break;
+                case PARAM:
+                    visitParam(child);
+                    args.add(declaration(tree, tree.firstChild(child), currentType));
+                    declarations.add(tree.firstChild(child));
+                    break;
+                case BLOCK:
+                    // Se a função tiver tipo de retorno, adciona a variável de retorno ao escopo
+                    if (t != Symbol.Type.VOID) {
+                        args.add(new Variable(tree.token(node), t));
+                        declarations.add(node);
+                    }
+                    int[] nodes = new int[declarations.size()];
+                    for (int i = 0; i < nodes.length; i++) nodes[i] = declarations.get(i);
+                    block(child, args.toArray(new Symbol[args.size()]), nodes);
+                    break;
+                default:
+                    skip(child);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitParam(int node) {
+        if (tree.token(node) != null) currentType = typeOf(tree.token(node));
+        indices(tree.firstChild(node));
+        return null;
+    }
+
+    /******************************************
+     *               Comandos
+     *****************************************/
+
+    @Override
+    public Symbol.Type visitAssign(int node) {
+        int target = tree.firstChild(node);
+        indices(target);
+        Token identifier = tree.token(target);
+        int dimensions = tree.dimensions(target);
+        Symbol tableSymbol = getSymbol(target);
+        boolean vecAtrib = false;
+        boolean atribAllowed = true;
+
+        if (tableSymbol != null) {
+            if (tableSymbol instanceof Variable && ((Variable) tableSymbol).isConstant()) {
+                atribAllowed = false;
+                constantAssignmentError(identifier);
+            } else if (tableSymbol instanceof Vector) {
+                if (dimensions == 0) vecAtrib = true;
+                else if (((Vector) tableSymbol).getDimensions() != dimensions)
+                    vectDimensionError((Vector) tableSymbol, target);
+            }
+
+            // currentType vai conter o tipo esperado para atribuição
+            currentType = tableSymbol.getType();
+        } else atribAllowed = false;
+        int value = tree.nextSibling(target);
+        if (tree.kind(value) == Kind.SKIPPED) {
+            skip(value);
+            value = tree.nextSibling(value);
+        }
+
+        if (vecAtrib && !tree.flag(node)) {
+            vectAssignmentError(identifier.getLine());
+            vecAtrib = false;
+        }
+
+        Symbol.Type actual;
+        if (tree.kind(value) == Kind.LITERAL && isText(tree.token(value))) {
+            Token literal = tree.token(value);
+            actual = literalType(literal);
+            if (vecAtrib) vectAssignmentError(literal.getLine());
+            else if (currentType != actual) mismatchedTypeError(literal.getLine(), currentType, actual);
+        } else actual = tree.accept(value, this);
+        Token valueEnd = tree.token(node);
+        if (atribAllowed && currentType != actual) mismatchedTypeError(valueEnd.getLine(), currentType, actual);
+
+        if (vecAtrib) {
+            Symbol vec = getSymbol(node);
+
+            if (vec != null) {
+                if (!(vec instanceof Vector) ||
+                        ((Vector) tableSymbol).getDimensions() != ((Vector) vec).getDimensions())
+                    logSemanticAnalysis(String.format(
+                            "Erro na linha %d: a variavel \"%s\" nao eh um vetor %d-dimensional.",
+                            valueEnd.getLine(), valueEnd.getLexeme(), ((Vector) tableSymbol).getDimensions())
+                    );
+            } else if (valueEnd.getType() == TokenType.NUMBER || valueEnd.getType() == TokenType.BOOL_V)
+                vectAssignmentError(valueEnd.getLine());
+        }
+
+        skip(tree.nextSibling(value));
+        return null;
+    }
+
+    private static boolean isText(Token t) {
+        return t.getType() == TokenType.CHAR_STRING || t.getType() == TokenType.CHARACTER;
+    }
+
+    @Override
+    public Symbol.Type visitIf(int node) {
+        conditional(node);
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitWhile(int node) {
+        conditional(node);
+        return null;
+    }
+
+    /**
+     * Verifica a condicao e os blocos de um 'se' ou 'enquanto'.
+     */
+    private void conditional(int node) {
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            switch (tree.kind(child)) {
+                case SKIPPED:
+                    skip(child);
+                    break;
+                case BLOCK:
+                    block(child);
+                    break;
+                default:
+                    Symbol.Type type = tree.accept(child, this);
+                    if (type != Symbol.Type.BOOLEANO)
+                        mismatchedTypeError(tree.token(node).getLine(), Symbol.Type.BOOLEANO, type);
+            }
+        }
+    }
+
+    @Override
+    public Symbol.Type visitWrite(int node) {
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.SKIPPED) skip(child);
+        }
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitRead(int node) {
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.SKIPPED) {
+                skip(child);
+                continue;
+            }
+            indices(child);
+            Token t = tree.token(child);
+            // so variaveis podem ser constantes
+            Symbol s = getSymbol(child);
+            if (s instanceof Variable && ((Variable) s).isConstant()) constantAssignmentError(t);
+        }
+        return null;
+    }
+
+    /**
+     * Exibe de novo os tokens descartados.
+     */
+    @Override
+    public Symbol.Type visitSkipped(int node) {
+        skip(node);
+        return null;
+    }
+
+    private void skip(int skipped) {
+        if (skipped == SyntaxTree.NONE) return;
+        errorListener.message(skippedTokens(tree, skipped));
+    }
+
+    /**
+     * Visita os filhos de um no, na ordem.
+     */
+    private void children(int node) {
+        children(tree.firstChild(node), SyntaxTree.NONE);
+    }
+
+    /**
+     * Visita os irmaos de from ate to (exclusive), na ordem.
+     */
+    private void children(int from, int to) {
+        for (int child = from; child != to; child = tree.nextSibling(child))
+            tree.accept(child, this);
+    }
+
+    /******************************************
+     *               Expressoes
+     *****************************************/
+
+    /**
+     * Um valor numerico invalido, com os tokens descartados no seu lugar.
+     */
+    @Override
+    public Symbol.Type visitInvalid(int node) {
+        skip(tree.firstChild(node));
+        return Symbol.Type.VOID;
+    }
+
+    @Override
+    public Symbol.Type visitMissing(int node) {
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitToken(int node) {
+        return null;
+    }
+
+    @Override
+    public Symbol.Type visitLiteral(int node) {
+        return literalType(tree.token(node));
+    }
+
+    /**
+     * Uma variavel usada como valor.
+     */
+    @Override
+    public Symbol.Type visitName(int node) {
+        indices(node);
+        Symbol s = getSymbol(node);
+        return (s != null) ? s.getType() : null;
+    }
+
+    /**
+     * Verifica os indices de um vetor, que devem ser inteiros.
+     */
+    private void indices(int node) {
+        int index = 0;
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child)) {
+            if (tree.kind(child) == Kind.SKIPPED) {
+                skip(child);
+                continue;
+            }
+            Symbol.Type t = tree.accept(child, this);
+            // o ultimo token lido pelo indice
+            child = tree.nextSibling(child);
+            if (t != Symbol.Type.INTEIRO) {
+                int line = (index == 0) ? tree.token(node).getLine() : tree.token(child).getLine();
+                mismatchedTypeError(line, Symbol.Type.INTEIRO, t);
+            }
+            index++;
+        }
+    }
+
+    @Override
+    public Symbol.Type visitCall(int node) {
+        int child = tree.firstChild(node);
+        if (tree.flag(node)) {
+            skip(child);
+            child = tree.nextSibling(child);
+        }
+        Token name = tree.token(node);
+        Function f = null;
+        int line = name.getLine();
+        Symbol s = getSymbol(node);
+
+        if (s != null) {
+            if (!(s instanceof Function))
+                logSemanticAnalysis(String.format("Erro na linha %d: nao foi possivel encontrar a funcao %s.",
+                        line, name.getLexeme()));
+            else f = (Function) s;
+        }
+        if (child != SyntaxTree.NONE && tree.kind(child) == Kind.SKIPPED) {
+            skip(child);
+            child = tree.nextSibling(child);
+        }
+
+        List<Symbol.Type> argTypes = arguments(child);
+
+        // um argumento ausente ja foi reportado como erro sintatico
+        if (f != null && argTypes.contains(null)) return f.getType();
+        if (f != null) {
+
+            if (f.getArgCount() == 0 && f.getArgCount() != argTypes.size()) {
+                logSemanticAnalysis(String.format("Erro na linha %d: a funcao %s nao recebe argumentos.",
+                        line, f.getToken().getLexeme()));
+                return Symbol.Type.VOID;
+            }
+
+            boolean error = false;
+            int i;
+            String msg =
+                    String.format("Erro na linha %d: a funcao %s nao pode ser aplicada aos seguintes argumentos:\n" +
+                                    "Parametros Esperados\tArgumentos Obtidos\n",
+                            line, f.getToken().getLexeme());
+
+            for (i = 0; i < f.getArgCount(); i++) {
+                msg += (i < argTypes.size()) ? f.getArg(i).getType().name() + "\t" + argTypes.get(i).name() + "\n"
+                        : f.getArg(i).getType().name() + "\n";
+                error = error ||
+                        ((i >= argTypes.size()) || ((i < argTypes.size()) && f.getArg(i).getType() != argTypes.get(i)));
+            }
+
+            // se entrar aqui, o cara passou mais argumentos que devia
+            for (int j = i; j < argTypes.size(); j++) {
+                msg += "\t\t" + argTypes.get(j).name();
+                error = true;
+            }
+
+            if (error) logSemanticAnalysis(msg);
+            return f.getType();
+        }
+        return Symbol.Type.VOID;
+    }
+
+    /**
+     * Tipos dos argumentos de uma chamada, a partir do primeiro
+     * argumento. Os indices sao verificados na ordem dos argumentos, e as
+     * variaveis sao procuradas depois, do ultimo argumento para o
+     * primeiro. Variaveis nao encontradas nao entram na lista.
+     */
+    private List<Symbol.Type> arguments(int first) {
+        int count = 0, end = SyntaxTree.NONE;
+        for (int argument = first; argument != SyntaxTree.NONE; argument = tree.nextSibling(argument)) {
+            Kind kind = tree.kind(argument);
+            if (kind == Kind.SKIPPED) end = argument;
+            else {
+                if (kind == Kind.NAME) indices(argument);
+                count++;
+            }
+        }
+        int[] arguments = new int[count];
+        count = 0;
+        for (int argument = first; argument != end; argument = tree.nextSibling(argument)) {
+            arguments[count++] = argument;
+        }
+        ArrayList<Symbol.Type> types = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            int argument = arguments[i];
+            if (tree.kind(argument) == Kind.NAME) {
+                Symbol s = getSymbol(argument);
+                if (s != null) types.add(s.getType());
+            } else types.add(tree.accept(argument, this));
+        }
+        Collections.reverse(types);
+        skip(end);
+        return types;
+    }
+
+    @Override
+    public Symbol.Type visitParen(int node) {
+        int expression = tree.firstChild(node);
+        Symbol.Type t = tree.accept(expression, this);
+        skip(tree.nextSibling(expression));
+        return t;
+    }
+
+    @Override
+    public Symbol.Type visitArithmetic(int node) {
+        int first = tree.firstChild(node);
+        Symbol.Type t1 = tree.accept(first, this);
+        Token op = tree.token(tree.nextSibling(first));
+        typeCheckArithmeticOperator(op, t1);
+        Symbol.Type t2 = null;
+        for (int operator = tree.nextSibling(first); operator != SyntaxTree.NONE; ) {
+            int operand = tree.nextSibling(operator);
+            t2 = tree.accept(operand, this);
+            typeCheckArithmeticOperator(tree.token(operator), t2);
+            operator = tree.nextSibling(operand);
+        }
+        if (typeCheckArithmeticOperator(op, t2))
+            return realOrInteger(t1, t2);
+        return t1;
+    }
+
+    private Symbol.Type realOrInteger(Symbol.Type t1, Symbol.Type t2) {
+        return (t1 == Symbol.Type.REAL || t2 == Symbol.Type.REAL) ? Symbol.Type.REAL : Symbol.Type.INTEIRO;
+    }
+
+    /**
+     * Com o tipo desconhecido (veja
+     * {@link #mismatchedTypeError(int, Symbol.Type, Symbol.Type)}) ou sem
+     * o operador, ausente apos um erro sintatico, retorna false sem
+     * reportar um erro.
+     */
+    private boolean typeCheckArithmeticOperator(Token op, Symbol.Type t1) {
+        if (op == null || t1 == null) return false;
+        if (t1 != Symbol.Type.REAL && t1 != Symbol.Type.INTEIRO) {
+            logSemanticAnalysis(String.format("Erro na linha %d: %s nao pode ser usado com o tipo %s.",
+                    op.getLine(), op.getType().toString(), t1.name()));
+            return false;
+        } return true;
+    }
+
+    @Override
+    public Symbol.Type visitRelational(int node) {
+        int left = tree.firstChild(node);
+        Symbol.Type t1 = tree.accept(left, this);
+        Symbol.Type t2 = tree.accept(tree.nextSibling(left), this);
+        return typeCheckRelop(tree.token(node), t1, t2) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+    }
+
+    /**
+     * Com um tipo desconhecido ou sem o operador, ausente apos um erro
+     * sintatico, retorna false sem reportar um erro.
+     */
+    private boolean typeCheckRelop(Token op, Symbol.Type t1, Symbol.Type t2) {
+        if (op == null || t1 == null || t2 == null) return false;
+        if (t1 == t2) {
+            if (t1 == Symbol.Type.CADEIA || t1 == Symbol.Type.CARACTERE || t1 == Symbol.Type.BOOLEANO)
+                return (op.getType() == TokenType.EQ || op.getType() == TokenType.NEQ);
+            else logSemanticAnalysis(String.format("Erro na linha %d: %s nao pode ser usado com o tipo %s.",
+                    op.getLine(), op.getType().toString(), t1.name()));
+            return true;
+        } else if (((t1 == Symbol.Type.REAL && t2 == Symbol.Type.INTEIRO) ||
+                (t1 == Symbol.Type.INTEIRO && t2 == Symbol.Type.REAL))) {
+            return true;
+        }
+        logSemanticAnalysis(String.format("Erro na linha %d: nao eh possivel comparar %s com %s.",
+                op.getLine(), t1.name(), t2.name()));
+        return false;
+    }
+
+    /**
+     * Numa &lt;Exp_Logica3&gt; (no marcado), o tipo e o do operando; numa
+     * &lt;Exp_Logica&gt;, booleano.
+     */
+    @Override
+    public Symbol.Type visitNot(int node) {
+        int operand = tree.firstChild(node);
+        Symbol.Type t1 = tree.accept(operand, this);
+        boolean ok = typeCheckBoolOperator(tree.token(node), t1);
+        boolean tail = tail(tree.nextSibling(operand));
+        if (tree.flag(node)) return (tail && ok) ? t1 : Symbol.Type.VOID;
+        return (tail && t1 == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+    }
+
+    @Override
+    public Symbol.Type visitNameLogic(int node) {
+        int left = tree.firstChild(node);
+        Symbol.Type t1 = tree.accept(left, this);
+        boolean ok = typeCheckBoolOperator(tree.token(node), t1);
+        int right = tree.nextSibling(left);
+        Symbol.Type t2 = tree.accept(right, this);
+        return (tail(tree.nextSibling(right)) && ok && t2 == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+    }
+
+    /**
+     * Os operandos do no equivalem a uma &lt;Exp_Logica&gt; aninhada a
+     * direita: os operandos sao verificados da esquerda para a direita e
+     * cada operador, depois, com o tipo da expressao a sua direita.
+     */
+    @Override
+    public Symbol.Type visitLogic(int node) {
+        int count = 0;
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child))
+            count++;
+        Token[] operators = new Token[count / 2];
+        boolean[] ok = new boolean[count / 2];
+        int operand = tree.firstChild(node);
+        Symbol.Type t = tree.accept(operand, this);
+        for (int i = 0; i < operators.length; i++) {
+            int operator = tree.nextSibling(operand);
+            operators[i] = tree.token(operator);
+            ok[i] = typeCheckBoolOperator(operators[i], t);
+            operand = tree.nextSibling(operator);
+            t = tree.accept(operand, this);
+        }
+        for (int i = operators.length - 1; i >= 0; i--)
+            t = (ok[i] && typeCheckBoolOperator(operators[i], t)) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+        return t;
+    }
+
+    @Override
+    public Symbol.Type visitLogicOperand(int node) {
+        int operand = tree.firstChild(node);
+        Symbol.Type t1 = tree.accept(operand, this);
+        return (t1 == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+    }
+
+    @Override
+    public Symbol.Type visitLogicTail(int node) {
+        return tail(node) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+    }
+
+    /**
+     * Verifica uma &lt;Exp_Logica2&gt;, cujos pares de operador e operando
+     * equivalem a uma sequencia aninhada a direita: os operandos sao
+     * verificados da esquerda para a direita e cada operador, depois, com
+     * o tipo do seu operando, que depende do restante da sequencia.
+     *
+     * @return false caso algum operador nao possa ser usado com o seu
+     * operando
+     */
+    private boolean tail(int node) {
+        if (node == SyntaxTree.NONE) return true;
+        int count = 0;
+        for (int child = tree.firstChild(node); child != SyntaxTree.NONE; child = tree.nextSibling(child))
+            count++;
+        Token[] operators = new Token[count / 2];
+        int[] operands = new int[count / 2];
+        Symbol.Type[] types = new Symbol.Type[count / 2];
+        boolean[] ok = new boolean[count / 2];
+        int operator = tree.firstChild(node);
+        for (int i = 0; i < operands.length; i++) {
+            operators[i] = tree.token(operator);
+            operands[i] = tree.nextSibling(operator);
+            types[i] = tree.accept(tree.firstChild(operands[i]), this);
+            if (tree.kind(operands[i]) == SyntaxTree.Kind.NOT)
+                ok[i] = typeCheckBoolOperator(tree.token(operands[i]), types[i]);
+            operator = tree.nextSibling(operands[i]);
+        }
+        boolean tail = true;
+        for (int i = operands.length - 1; i >= 0; i--) {
+            Symbol.Type t;
+            if (tree.kind(operands[i]) == SyntaxTree.Kind.NOT) t = (tail && ok[i]) ? types[i] : Symbol.Type.VOID;
+            else t = (tail && types[i] == Symbol.Type.BOOLEANO) ? Symbol.Type.BOOLEANO : Symbol.Type.VOID;
+            tail = typeCheckBoolOperator(operators[i], t);
+        }
+        return tail;
+    }
+
+    /**
+     * Com o tipo desconhecido ou sem o operador, retorna false sem
+     * reportar um erro.
+     */
+    private boolean typeCheckBoolOperator(Token op, Symbol.Type t1) {
+        if (op == null || t1 == null) return false;
+        if (t1 != Symbol.Type.BOOLEANO) {
+            logSemanticAnalysis(String.format("Erro na linha %d: %s nao pode ser usado com o tipo %s.",
+                    op.getLine(), op.getType().toString(), t1.name()));
+            return false;
+        } return true;
+    }
+}
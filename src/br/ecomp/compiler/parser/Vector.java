@@ -20,9 +20,10 @@ public class Vector extends Symbol {
 
     @Override
     public String toString() {
-        String s = getType().name() + "<<<";
-        for (int i = 0; i < dimensions - 1; i++) {s += ",";}
-        s += ">>>";
-        return getToken().getLexeme() + ":" + s;
+        StringBuilder s = new StringBuilder(getToken().getLexeme()).append(':');
+        s.append(getType().name()).append("<<<");
+        for (int i = 0; i < dimensions - 1; i++) s.append(',');
+        s.append(">>>");
+        return s.toString();
     }
 }
@@ -0,0 +1,69 @@
+package br.ecomp.compiler.parser;
+
+/**
+ * Operacao sobre os nos de uma {@link SyntaxTree}, com um metodo para
+ * cada {@link SyntaxTree.Kind}. Os nos sao passados pelo seu indice na
+ * arvore.
+ *
+ * @param <R> tipo do resultado de cada visita
+ */
+public interface Visitor<R> {
+
+    R visitProgram(int node);
+
+    R visitVarSection(int node);
+
+    R visitVarGroup(int node);
+
+    R visitConstSection(int node);
+
+    R visitConstGroup(int node);
+
+    R visitConst(int node);
+
+    R visitBlock(int node);
+
+    R visitFunction(int node);
+
+    R visitParam(int node);
+
+    R visitAssign(int node);
+
+    R visitIf(int node);
+
+    R visitWhile(int node);
+
+    R visitWrite(int node);
+
+    R visitRead(int node);
+
+    R visitSkipped(int node);
+
+    R visitInvalid(int node);
+
+    R visitMissing(int node);
+
+    R visitToken(int node);
+
+    R visitLiteral(int node);
+
+    R visitName(int node);
+
+    R visitCall(int node);
+
+    R visitParen(int node);
+
+    R visitArithmetic(int node);
+
+    R visitRelational(int node);
+
+    R visitNot(int node);
+
+    R visitNameLogic(int node);
+
+    R visitLogic(int node);
+
+    R visitLogicOperand(int node);
+
+    R visitLogicTail(int node);
+}
@@ -0,0 +1,23 @@
+REM compila os testes (test\) junto com o compilador em out_test, fora de
+REM out, e executa todas as classes *Test; o codigo de saida e diferente
+REM de 0 caso algum teste falhe
+setlocal enabledelayedexpansion
+IF EXIST out_test (
+rmdir /s /q out_test
+)
+mkdir out_test\output
+dir /s /b test\*.java > out_test\sources.txt
+javac -encoding UTF-8 -sourcepath src;test -d out_test @out_test\sources.txt || exit /b 1
+set status=0
+set root=%CD%\test\
+REM os arquivos de saida da analise ficam em out_test\output
+cd out_test
+for /r ..\test %%f in (*Test.java) do (
+set test=%%~ff
+set test=!test:%root%=!
+set test=!test:.java=!
+set test=!test:\=.!
+java -cp . !test! || set status=1
+)
+cd ..
+exit /b !status!
\ No newline at end of file
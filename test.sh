@@ -0,0 +1,17 @@
+# compila os testes (test/) junto com o compilador em out_test, fora de
+# out, e executa todas as classes *Test; o codigo de saida e diferente
+# de 0 caso algum teste falhe
+if [ -d out_test ]
+then
+    rm -r out_test
+fi
+mkdir -p out_test/output
+javac -encoding UTF-8 -sourcepath src:test -d out_test $(find test -name '*.java') || exit 1
+# os arquivos de saida da analise ficam em out_test/output
+cd out_test
+status=0
+for test in $(cd ../test && find . -name '*Test.java' | sed 's|^\./||; s|\.java$||; s|/|.|g')
+do
+    java -cp . $test || status=1
+done
+exit $status
\ No newline at end of file
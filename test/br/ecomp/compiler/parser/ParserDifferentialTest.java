@@ -0,0 +1,229 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Lexer;
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.TokenStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compara as decisoes de aceitar ou rejeitar uma entrada do
+ * {@link Parser} e do {@link TableParser}:
+ * <ul>
+ *     <li>os programas de exemplo e variacoes deles, com tokens
+ *     removidos, repetidos ou trocados, devem ter a mesma decisao nos
+ *     dois analisadores;</li>
+ *     <li>o mesmo vale para os comandos de {@link #AGREEMENTS};</li>
+ *     <li>cada exemplo de {@link #DIVERGENCES} deve continuar divergindo
+ *     como descrito, para que a lista seja atualizada quando um dos
+ *     analisadores mudar.</li>
+ * </ul>
+ *
+ * Uso: ./test.sh
+ */
+public class ParserDifferentialTest {
+
+    private static final String[] SAMPLES = {"../input/teste1.txt", "../teste_para_o_lexico.txt"};
+    private static final int MUTANTS = 1000;
+
+    /**
+     * Comandos, analisados dentro do bloco de um programa, com a mesma
+     * decisao nos dois analisadores.
+     */
+    private static final String[] AGREEMENTS = {
+            // aceitos
+            "a << b;",
+            "a << ((((a + 1))));",
+            "a << (a + 1) * b - c / 2;",
+            "a << f(1, b, \"s\", 'c', verdadeiro) * 2;",
+            "v<<<1, a + 1>>> << v<<<2>>>;",
+            "a << \"cadeia\";",
+            "a << b > 1;",
+            "a << b > 1 e c <= 2 ou d = e;",
+            "a << f(1) e g(2);",
+            "a << nao f(1) e verdadeiro;",
+            "f(a, v<<<1>>>, 2.5);",
+            "f();",
+            "escreva(1, \"s\", 'c');",
+            "leia(a, v<<<1, 2>>>);",
+            "se (a > b) entao inicio fim senao inicio a << 1; fim",
+            "se (a <> b e c = d) entao inicio fim",
+            "enquanto (f(1) ou v<<<2>>>) faca inicio fim",
+            "se (nao (f(1)) e verdadeiro) entao inicio fim",
+            "se ('a' = \"b\") entao inicio fim",
+            // rejeitados
+            "i << f(g(1), 2);",
+            "se ((((a)))) > b) entao inicio fim",
+            "f(1 + 2);",
+            "f(a > b);",
+            "escreva(a);",
+            "escreva(1 + 2);",
+            "a << ;",
+            "a << b",
+            "a b;",
+            "se () entao inicio fim",
+            "se (a > b) inicio fim",
+            "enquanto (a > b) inicio fim",
+            "leia(1);",
+            "a << (b + 1;",
+            "v<<<1 << 2;",
+    };
+
+    /**
+     * Divergencias conhecidas: construcoes da gramatica que o
+     * {@link Parser} rejeita, porque decide entre as producoes por uma
+     * leitura a frente fixa, e uma que ele aceita fora da gramatica.
+     * Cada linha tem a descricao, o comando e qual analisador o aceita.
+     */
+    private static final String[][] DIVERGENCES = {
+            {"valor sem operador logico ou relacional depois do primeiro token e lido como expressao aritmetica",
+                    "a << verdadeiro;", "tabelas"},
+            {"valor sem operador logico ou relacional depois do primeiro token e lido como expressao aritmetica",
+                    "a << nao verdadeiro;", "tabelas"},
+            {"valor que comeca com caractere ou cadeia e so o literal",
+                    "a << \"s\" = \"t\";", "tabelas"},
+            {"booleano_t e lido sozinho, sem iniciar uma expressao relacional",
+                    "se (verdadeiro = 'c') entao inicio fim", "tabelas"},
+            {"identificador sem '(' ou '<<<' a seguir e lido como expressao relacional",
+                    "se (a e b) entao inicio fim", "tabelas"},
+            {"'(' numa expressao logica sempre abre outra expressao logica",
+                    "se ((a + 1) > 2) entao inicio fim", "tabelas"},
+            {"token seguido de '(' no inicio de uma expressao logica e lido como chamada de funcao",
+                    "se (((a > 1))) entao inicio fim", "tabelas"},
+            {"depois de 'nao', '(' so e aceito em volta de uma chamada ou vetor",
+                    "se (nao (a)) entao inicio fim", "tabelas"},
+            {"chamada ou vetor no inicio de uma expressao logica precisa ser seguido de 'e' ou 'ou'",
+                    "se (f(1) > 2) entao inicio fim", "tabelas"},
+            {"identificador depois de 'e'/'ou' apos uma chamada e lido como chamada ou vetor",
+                    "se (f(1) e b > 2) entao inicio fim", "tabelas"},
+            {"identificador depois de 'e'/'ou' no resto de uma expressao logica e seguido de outro identificador",
+                    "se (nao verdadeiro e a) entao inicio fim", "tabelas"},
+            {"<Tipo> aceita uma sequencia de palavras de tipo, na ordem inteiro, real, caractere, cadeia e booleano",
+                    "inteiro cadeia a;", "manual"},
+    };
+
+    private static final PrintStream console = System.out;
+    private static final PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+    private static final File input = new File("differential.txt");
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        try {
+            List<List<String>> samples = new ArrayList<>();
+            for (String sample : SAMPLES) {
+                String text = new String(java.nio.file.Files.readAllBytes(new File(sample).toPath()), "UTF-8");
+                agree(sample, text);
+                samples.add(lexemes(text));
+            }
+
+            Random random = new Random(19);
+            for (int i = 0; i < MUTANTS; i++) {
+                List<String> mutant = new ArrayList<>(samples.get(random.nextInt(samples.size())));
+                for (int changes = 1 + random.nextInt(2); changes > 0; changes--) mutate(mutant, random);
+                agree("variacao " + i, String.join(" ", mutant));
+            }
+
+            for (String statement : AGREEMENTS) agree(statement, program(statement));
+
+            for (String[] divergence : DIVERGENCES) {
+                String statement = divergence[1];
+                // a declaracao de tipos so e valida na secao de variaveis
+                String text = statement.startsWith("inteiro") ? "var inicio " + statement + " fim programa inicio fim"
+                        : program(statement);
+                boolean[] accepted = accepted(text);
+                boolean expected = divergence[2].equals("tabelas");
+                check(accepted[0] != expected && accepted[1] == expected,
+                        "divergencia \"" + divergence[0] + "\" mudou em: " + statement
+                                + " (manual " + decision(accepted[0]) + ", tabelas " + decision(accepted[1]) + ")");
+            }
+        } finally {
+            input.delete();
+        }
+        if (failures > 0) {
+            console.println("ParserDifferentialTest: " + failures + " falhas");
+            System.exit(1);
+        }
+        console.println("ParserDifferentialTest: ok");
+    }
+
+    private static String program(String statement) {
+        return "programa inicio " + statement + " fim";
+    }
+
+    /**
+     * Remove, repete ou troca um token da variacao.
+     */
+    private static void mutate(List<String> lexemes, Random random) {
+        int i = random.nextInt(lexemes.size());
+        switch (random.nextInt(3)) {
+            case 0:
+                lexemes.remove(i);
+                break;
+            case 1:
+                lexemes.add(i, lexemes.get(i));
+                break;
+            default:
+                lexemes.set(i, lexemes.get(random.nextInt(lexemes.size())));
+        }
+    }
+
+    private static void agree(String name, String text) throws IOException {
+        boolean[] accepted = accepted(text);
+        check(accepted[0] == accepted[1], name + ": manual " + decision(accepted[0])
+                + ", tabelas " + decision(accepted[1]) + "\n" + text);
+    }
+
+    /**
+     * @return se a entrada e aceita pelo {@link Parser} e pelo
+     * {@link TableParser}
+     */
+    private static boolean[] accepted(String text) throws IOException {
+        List<Token> tokens = tokens(text);
+        System.setOut(silent);
+        try {
+            Parser parser = new Parser();
+            parser.parse(new TokenStream(tokens), input.getName());
+            int tableErrors = new TableParser().recognize(new TokenStream(tokens), message -> { });
+            return new boolean[]{parser.getSyntaxErrorCount() == 0, tableErrors == 0};
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static List<Token> tokens(String text) throws IOException {
+        try (PrintWriter out = new PrintWriter(input, "UTF-8")) {
+            out.print(text);
+        }
+        System.setOut(silent);
+        try {
+            return new Lexer().createTokens(input);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static List<String> lexemes(String text) throws IOException {
+        List<String> lexemes = new ArrayList<>();
+        for (Token t : tokens(text)) {
+            if (t.getType() != Token.TokenType.COMMENT) lexemes.add(t.getLexeme());
+        }
+        return lexemes;
+    }
+
+    private static String decision(boolean accepted) {
+        return accepted ? "aceita" : "rejeita";
+    }
+
+    private static void check(boolean condition, String message) {
+        if (condition) return;
+        failures++;
+        console.println("FALHOU: " + message);
+    }
+}
@@ -0,0 +1,202 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Lexer;
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.TokenStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Verifica que a analise de entradas grandes ou interrompidas termina,
+ * com a pilha padrao das threads:
+ * <ul>
+ *     <li>um bloco com 1M de comandos e analisado sem erros;</li>
+ *     <li>cada prefixo dos programas de exemplo, que termina no meio de
+ *     alguma producao, e analisado sem StackOverflowError e sem que a
+ *     recuperacao de erros fique presa no fim da entrada;</li>
+ *     <li>operandos com nomes nao declarados, ou ausentes apos um erro,
+ *     sao reportados sem excecoes na analise semantica.</li>
+ * </ul>
+ *
+ * Uso: ./test.sh
+ */
+public class ParserStressTest {
+
+    private static final int STATEMENTS = 1_000_000;
+    private static final String[] SAMPLES = {"../input/teste1.txt", "../teste_para_o_lexico.txt",
+            "../output/b.txt"};
+    /**
+     * Comandos com operandos nao declarados (b, c e d) ou ausentes,
+     * analisados num programa que declara a variavel a e a funcao f.
+     */
+    private static final String[] UNRESOLVED = {
+            "a << b + 1;",
+            "a << 1 - b * 2;",
+            "a << b * c - d;",
+            "a << (b + 1) * 2;",
+            "a << f(b) + 1;",
+            "a << f(, 1) + 1;",
+            "a << b > 1;",
+            "a << 1 < b;",
+            "a << b = c;",
+            "a << b > 1 e c;",
+            "a << nao b;",
+            "a << b 1;",
+            "se (b > 1) entao inicio fim",
+            "se (1 <> b ou c < d) entao inicio fim",
+            "enquanto (nao b) faca inicio fim",
+            "b << 1 + 2;",
+            "b << 'c';",
+            "leia(b, f);",
+    };
+    /** Tempo maximo da analise de um prefixo, em segundos. */
+    private static final int PREFIX_TIMEOUT = 10;
+    /** Tempo maximo da analise do bloco com 1M de comandos, em segundos. */
+    private static final int LARGE_TIMEOUT = 120;
+
+    private static final PrintStream console = System.out;
+    private static final PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+    private static int failures;
+    /** Excecao da ultima analise que terminou com {@link Outcome#FAILED}. */
+    private static Throwable failure;
+
+    public static void main(String[] args) throws Exception {
+        // as threads sao daemon para que uma analise que nao termina nao impeca a saida
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            largeBlock(executor);
+            for (String sample : SAMPLES) prefixes(executor, new File(sample));
+            for (String statement : UNRESOLVED) unresolved(executor, statement);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failures > 0) {
+            console.println("ParserStressTest: " + failures + " falhas");
+            System.exit(1);
+        }
+        console.println("ParserStressTest: ok");
+    }
+
+    private static void largeBlock(ExecutorService executor) throws IOException, InterruptedException {
+        File input = new File("stress_block.txt");
+        try (PrintWriter out = new PrintWriter(input)) {
+            out.println("var inicio inteiro x, y; fim");
+            out.println("programa inicio");
+            for (int i = 0; i < STATEMENTS; i++) out.println("x << y + 1;");
+            out.println("fim");
+        }
+        try {
+            List<Token> tokens = tokens(input);
+            Parser parser = new Parser();
+            Outcome outcome = run(executor, () -> {
+                parser.parse(new TokenStream(tokens), input.getName());
+                return null;
+            }, LARGE_TIMEOUT);
+            check(outcome == Outcome.FINISHED, "bloco com " + STATEMENTS + " comandos: " + outcome);
+            check(parser.getSyntaxErrorCount() == 0,
+                    "bloco com " + STATEMENTS + " comandos: " + parser.getSyntaxErrorCount() + " erros sintaticos");
+        } finally {
+            input.delete();
+        }
+    }
+
+    private static void prefixes(ExecutorService executor, File sample) throws IOException, InterruptedException {
+        List<Token> tokens = tokens(sample);
+        for (int end = 0; end < tokens.size(); end++) {
+            List<Token> prefix = tokens.subList(0, end);
+            Outcome outcome = run(executor, () -> {
+                new Parser().parse(new TokenStream(prefix), "stress_prefix.txt");
+                return null;
+            }, PREFIX_TIMEOUT);
+            if (outcome == Outcome.TIMEOUT) {
+                check(false, sample.getName() + " ate o token " + end + ": " + outcome);
+                // a thread presa na analise nao pode ser reaproveitada
+                return;
+            }
+            check(outcome == Outcome.FINISHED, sample.getName() + " ate o token " + end + ": " + outcome
+                    + ((outcome == Outcome.FAILED) ? " (" + failure + ")" : ""));
+        }
+    }
+
+    private static void unresolved(ExecutorService executor, String statement)
+            throws IOException, InterruptedException {
+        File input = new File("stress_unresolved.txt");
+        try (PrintWriter out = new PrintWriter(input)) {
+            out.println("var inicio inteiro a; fim");
+            out.println("programa inicio " + statement + " fim");
+            out.println("funcao inteiro f(inteiro x) inicio fim");
+        }
+        try {
+            List<Token> tokens = tokens(input);
+            Parser parser = new Parser();
+            Outcome outcome = run(executor, () -> {
+                parser.parse(new TokenStream(tokens), input.getName());
+                return null;
+            }, PREFIX_TIMEOUT);
+            check(outcome == Outcome.FINISHED, statement + ": " + outcome
+                    + ((outcome == Outcome.FAILED) ? " (" + failure + ")" : ""));
+            check(parser.getSyntaxErrorCount() + parser.getSemanticErrorCount() > 0, statement + ": sem erros");
+        } finally {
+            input.delete();
+        }
+    }
+
+    private enum Outcome {
+        FINISHED, FAILED, STACK_OVERFLOW, TIMEOUT
+    }
+
+    /**
+     * Executa a analise com o console desligado, esperando no maximo o
+     * tempo informado. Qualquer excecao, inclusive da analise semantica
+     * sobre uma entrada incompleta, e uma falha.
+     */
+    private static Outcome run(ExecutorService executor, java.util.concurrent.Callable<Void> parse, int timeout)
+            throws InterruptedException {
+        System.setOut(silent);
+        try {
+            Future<Void> future = executor.submit(parse);
+            try {
+                future.get(timeout, TimeUnit.SECONDS);
+                return Outcome.FINISHED;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                return Outcome.TIMEOUT;
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+                return (e.getCause() instanceof StackOverflowError) ? Outcome.STACK_OVERFLOW : Outcome.FAILED;
+            }
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static List<Token> tokens(File input) throws IOException {
+        System.setOut(silent);
+        try {
+            return new Lexer().createTokens(input);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (condition) return;
+        failures++;
+        console.println("FALHOU: " + message);
+    }
+}
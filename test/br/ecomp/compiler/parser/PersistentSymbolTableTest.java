@@ -0,0 +1,186 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.Token.TokenType;
+
+/**
+ * Verifica a {@link PersistentSymbolTable}:
+ * <ul>
+ *     <li>definicoes e buscas, com espacos de nomes separados para
+ *     variaveis e funcoes;</li>
+ *     <li>simbolos escondidos por um escopo aninhado, restaurados por
+ *     {@link PersistentSymbolTable#exitScope()}, sem alterar as tabelas
+ *     anteriores;</li>
+ *     <li>muitos simbolos, cujos hashes coincidem em parte, em varios
+ *     escopos;</li>
+ *     <li>nomes com o mesmo hash, guardados no mesmo no de colisao: dois
+ *     lexemas com o mesmo {@link String#hashCode()} e um identificador
+ *     cujo id tem o mesmo hash que eles.</li>
+ * </ul>
+ *
+ * Uso: ./test.sh
+ */
+public class PersistentSymbolTableTest {
+
+    private static final int SYMBOLS = 10_000;
+    private static int failures;
+
+    public static void main(String[] args) {
+        definitions();
+        shadowing();
+        manySymbols();
+        collisions();
+        if (failures > 0) {
+            System.out.println("PersistentSymbolTableTest: " + failures + " falhas");
+            System.exit(1);
+        }
+        System.out.println("PersistentSymbolTableTest: ok");
+    }
+
+    private static void definitions() {
+        PersistentSymbolTable empty = PersistentSymbolTable.empty();
+        Symbol a = variable("a", 1);
+        check(empty.isRoot(), "tabela vazia fora do escopo global");
+        check(empty.get(identifier("a", 1)) == null, "simbolo na tabela vazia");
+
+        PersistentSymbolTable table = empty.put(a);
+        check(table.get(identifier("a", 1)) == a, "simbolo definido nao encontrado");
+        check(table.containsSymbolLocal(a), "simbolo definido fora do escopo atual");
+        check(table.get(identifier("b", 2)) == null, "simbolo nao definido encontrado");
+        check(empty.get(identifier("a", 1)) == null, "a tabela anterior mudou");
+
+        Symbol f = new Function(identifier("a", 1), Symbol.Type.INTEIRO);
+        table = table.put(f);
+        check(table.get(identifier("a", 1)) == a, "a funcao escondeu a variavel de mesmo nome");
+        check(table.get(identifier("a", 1), true) == f, "funcao nao encontrada");
+        check(!table.containsSymbol(identifier("b", 2), true), "funcao nao definida encontrada");
+
+        Symbol a2 = variable("a", 1);
+        check(table.put(a2).get(identifier("a", 1)) == a2, "redefinicao no mesmo escopo nao substituiu o simbolo");
+        check(table.get(identifier("a", 1)) == a, "a redefinicao alterou a tabela anterior");
+
+        try {
+            empty.exitScope();
+            check(false, "o escopo global foi fechado");
+        } catch (IllegalStateException e) {
+            // esperado
+        }
+    }
+
+    private static void shadowing() {
+        Symbol a = variable("a", 1), b = variable("b", 2);
+        PersistentSymbolTable globals = PersistentSymbolTable.empty().put(a).put(b);
+
+        PersistentSymbolTable inner = globals.enterScope();
+        check(!inner.isRoot(), "escopo aninhado no escopo global");
+        check(inner.get(identifier("a", 1)) == a, "simbolo global nao encontrado no escopo aninhado");
+        check(!inner.containsSymbolLocal(a), "simbolo global no escopo aninhado");
+
+        Symbol shadow = variable("a", 1);
+        inner = inner.put(shadow);
+        check(inner.get(identifier("a", 1)) == shadow, "simbolo aninhado nao esconde o global");
+        check(inner.containsSymbolLocal(shadow), "simbolo aninhado fora do escopo atual");
+        check(inner.get(identifier("b", 2)) == b, "simbolo global nao escondido nao encontrado");
+        check(globals.get(identifier("a", 1)) == a, "o escopo aninhado alterou a tabela global");
+
+        PersistentSymbolTable deeper = inner.enterScope().put(variable("c", 3));
+        check(deeper.get(identifier("a", 1)) == shadow, "simbolo do escopo de fora nao encontrado");
+        PersistentSymbolTable back = deeper.exitScope();
+        check(back == inner, "exitScope nao voltou a tabela em que o escopo foi aberto");
+        check(back.get(identifier("c", 3)) == null, "simbolo de um escopo fechado encontrado");
+
+        PersistentSymbolTable restored = inner.exitScope();
+        check(restored.isRoot(), "exitScope nao voltou ao escopo global");
+        check(restored.get(identifier("a", 1)) == a, "exitScope nao restaurou o simbolo escondido");
+        check(restored.containsSymbolLocal(a), "simbolo restaurado fora do escopo global");
+    }
+
+    private static void manySymbols() {
+        Symbol[] globals = new Symbol[SYMBOLS];
+        PersistentSymbolTable table = PersistentSymbolTable.empty();
+        for (int id = 0; id < SYMBOLS; id++) table = table.put(globals[id] = variable("v" + id, id));
+        PersistentSymbolTable root = table;
+
+        // cada escopo esconde um a cada 10 nomes e define nomes novos
+        int depth = 4;
+        Symbol[][] shadows = new Symbol[depth][SYMBOLS / 10];
+        for (int d = 0; d < depth; d++) {
+            table = table.enterScope();
+            for (int i = 0; i < SYMBOLS / 10; i++) table = table.put(shadows[d][i] = variable("v" + i * 10, i * 10));
+            for (int id = SYMBOLS * (d + 1); id < SYMBOLS * (d + 1) + 100; id++)
+                table = table.put(variable("n" + id, id));
+        }
+
+        int wrong = 0;
+        for (int id = 0; id < SYMBOLS; id++) {
+            Symbol expected = (id % 10 == 0) ? shadows[depth - 1][id / 10] : globals[id];
+            if (table.get(identifier("v" + id, id)) != expected) wrong++;
+        }
+        for (int d = 0; d < depth; d++)
+            for (int id = SYMBOLS * (d + 1); id < SYMBOLS * (d + 1) + 100; id++)
+                if (table.get(identifier("n" + id, id)) == null) wrong++;
+        check(wrong == 0, wrong + " buscas erradas com " + depth + " escopos abertos");
+
+        for (int d = depth - 1; d >= 0; d--) {
+            table = table.exitScope();
+            wrong = 0;
+            for (int i = 0; i < SYMBOLS / 10; i++) {
+                Symbol expected = (d > 0) ? shadows[d - 1][i] : globals[i * 10];
+                if (table.get(identifier("v" + i * 10, i * 10)) != expected) wrong++;
+            }
+            for (int id = SYMBOLS * (d + 1); id < SYMBOLS * (d + 1) + 100; id++)
+                if (table.get(identifier("n" + id, id)) != null) wrong++;
+            check(wrong == 0, wrong + " buscas erradas apos fechar o escopo " + (d + 1));
+        }
+        check(table == root, "exitScope nao voltou a tabela global");
+    }
+
+    private static void collisions() {
+        // "Aa" e "BB" tem o mesmo String.hashCode(); tokens que nao sao
+        // identificadores sao procurados pelo lexema
+        check("Aa".hashCode() == "BB".hashCode(), "lexemas sem o mesmo hash");
+        Token aa = new Token(1, "Aa", TokenType.NUMBER), bb = new Token(1, "BB", TokenType.NUMBER);
+        // o hash do id de um identificador e id * 2, e o de um lexema,
+        // hashCode * 2 + 2^30: este id tem o mesmo hash dos dois lexemas
+        int id = ("Aa".hashCode() + 0x20000000) & 0x7FFFFFFF;
+        Token identifier = identifier("x", id);
+
+        Symbol sa = new Variable(aa, Symbol.Type.INTEIRO), sb = new Variable(bb, Symbol.Type.INTEIRO);
+        Symbol sx = new Variable(identifier, Symbol.Type.INTEIRO);
+        PersistentSymbolTable table = PersistentSymbolTable.empty().put(variable("y", 7)).put(sa);
+        PersistentSymbolTable one = table;
+        table = table.put(sb).put(sx);
+        check(table.get(aa) == sa && table.get(bb) == sb && table.get(identifier) == sx,
+                "nomes com o mesmo hash nao encontrados");
+        check(one.get(bb) == null && one.get(identifier) == null, "a colisao alterou a tabela anterior");
+        check(table.get(new Token(1, "Ab", TokenType.NUMBER)) == null, "lexema nao definido encontrado");
+        check(table.get(identifier("y", 7)) != null, "simbolo sem colisao nao encontrado");
+
+        PersistentSymbolTable inner = table.enterScope();
+        Symbol shadow = new Variable(new Token(2, "BB", TokenType.NUMBER), Symbol.Type.REAL);
+        inner = inner.put(shadow);
+        check(inner.get(bb) == shadow && inner.containsSymbolLocal(bb), "simbolo aninhado na colisao nao encontrado");
+        check(inner.get(aa) == sa && !inner.containsSymbolLocal(aa), "colisao perdeu um simbolo global");
+        check(inner.get(identifier) == sx, "colisao perdeu o identificador");
+        Symbol function = new Function(identifier, Symbol.Type.REAL);
+        check(inner.put(function).get(identifier, true) == function, "funcao com o mesmo id nao encontrada");
+
+        PersistentSymbolTable restored = inner.exitScope();
+        check(restored.get(bb) == sb && restored.containsSymbolLocal(bb),
+                "exitScope nao restaurou o simbolo escondido na colisao");
+    }
+
+    private static Token identifier(String lexeme, int id) {
+        return new Token(1, lexeme, TokenType.IDENTIFIER, id);
+    }
+
+    private static Symbol variable(String lexeme, int id) {
+        return new Variable(identifier(lexeme, id), Symbol.Type.INTEIRO);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (condition) return;
+        failures++;
+        System.out.println("FALHOU: " + message);
+    }
+}
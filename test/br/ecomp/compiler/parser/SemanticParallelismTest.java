@@ -0,0 +1,143 @@
+package br.ecomp.compiler.parser;
+
+import br.ecomp.compiler.lexer.Lexer;
+import br.ecomp.compiler.lexer.Token;
+import br.ecomp.compiler.lexer.TokenStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Compara a analise com {@link Parser#setSemanticParallelism(int)} maior
+ * que 1 com a analise sequencial: as mensagens do console e o arquivo
+ * sem_ devem ser iguais. Os programas tem muitas funcoes, com erros que
+ * dependem do tipo atual, de cada forma de cabecalho:
+ * <ul>
+ *     <li>com tipo de retorno ou com o primeiro parametro tipado, que
+ *     iniciam um trecho verificado em paralelo;</li>
+ *     <li>sem parametros e comecando por uma declaracao de variaveis,
+ *     que tambem iniciam um trecho;</li>
+ *     <li>sem parametros e sem declaracoes no inicio, que dependem do
+ *     tipo deixado pela funcao anterior e ficam no trecho dela; um
+ *     programa so com essas funcoes e verificado sequencialmente.</li>
+ * </ul>
+ *
+ * Uso: ./test.sh
+ */
+public class SemanticParallelismTest {
+
+    private static final int FUNCTIONS = 200;
+    private static final int[] THREADS = {2, 4, 8};
+    private static final String[] SAMPLES = {"../input/teste1.txt", "../teste_para_o_lexico.txt"};
+
+    private static final PrintStream console = System.out;
+    private static final PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+    private static int failures;
+
+    public static void main(String[] args) throws IOException {
+        compare("funcoes misturadas", program(0, 1, 2, 3));
+        compare("funcoes com cabecalho tipado", program(0, 1));
+        compare("funcoes comecando por declaracoes", program(2));
+        compare("funcoes sem tipo", program(3));
+        compare("funcoes sem tipo apos uma tipada", program(3, 3, 3, 3, 3, 3, 3, 0));
+        for (String sample : SAMPLES) compare(sample, new String(Files.readAllBytes(new File(sample).toPath()), "UTF-8"));
+
+        if (failures > 0) {
+            console.println("SemanticParallelismTest: " + failures + " falhas");
+            System.exit(1);
+        }
+        console.println("SemanticParallelismTest: ok");
+    }
+
+    /**
+     * Programa com FUNCTIONS funcoes, com as formas de cabecalho
+     * informadas repetidas nessa ordem:
+     * <ol start="0">
+     *     <li>com tipo de retorno;</li>
+     *     <li>sem tipo de retorno, com o primeiro parametro tipado;</li>
+     *     <li>sem parametros, comecando por uma declaracao;</li>
+     *     <li>sem parametros e sem declaracoes, atribuindo um literal a
+     *     um nome nao declarado, verificado com o tipo atual.</li>
+     * </ol>
+     */
+    private static String program(int... kinds) {
+        StringBuilder text = new StringBuilder();
+        text.append("var inicio inteiro g; real r; fim\n");
+        text.append("programa inicio g << 1; fim\n");
+        for (int i = 0; i < FUNCTIONS; i++) {
+            String name = "f" + i;
+            switch (kinds[i % kinds.length]) {
+                case 0:
+                    text.append("funcao inteiro ").append(name).append("(inteiro a) inicio cadeia s; s << a; ")
+                            .append(name).append(" << 'c'; fim\n");
+                    break;
+                case 1:
+                    text.append("funcao ").append(name).append("(real a) inicio a << \"s\"; g << 2.5; fim\n");
+                    break;
+                case 2:
+                    text.append("funcao ").append(name)
+                            .append("() inicio caractere c; c << 1; desconhecido << 'x'; fim\n");
+                    break;
+                default:
+                    text.append("funcao ").append(name).append("() inicio desconhecido << 'x'; r << 1; fim\n");
+            }
+        }
+        return text.toString();
+    }
+
+    private static void compare(String name, String text) throws IOException {
+        File input = new File("semantic_parallelism.txt");
+        try (PrintWriter out = new PrintWriter(input, "UTF-8")) {
+            out.print(text);
+        }
+        try {
+            List<Token> tokens = tokens(input);
+            String[] sequential = parse(tokens, 1);
+            for (int threads : THREADS) {
+                String[] parallel = parse(tokens, threads);
+                check(sequential[0].equals(parallel[0]), name + ": console diferente com " + threads + " threads");
+                check(sequential[1].equals(parallel[1]), name + ": sem_ diferente com " + threads + " threads");
+            }
+        } finally {
+            input.delete();
+        }
+    }
+
+    /**
+     * @return as mensagens do console e o conteudo do arquivo sem_
+     */
+    private static String[] parse(List<Token> tokens, int threads) throws IOException {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, "UTF-8"));
+        try {
+            Parser parser = new Parser();
+            parser.setSemanticParallelism(threads);
+            parser.parse(new TokenStream(tokens), "semantic_parallelism.txt");
+        } finally {
+            System.setOut(console);
+        }
+        File sem = new File("output", "sem_semantic_parallelism.txt");
+        return new String[]{captured.toString("UTF-8"), new String(Files.readAllBytes(sem.toPath()), "UTF-8")};
+    }
+
+    private static List<Token> tokens(File input) throws IOException {
+        System.setOut(silent);
+        try {
+            return new Lexer().createTokens(input);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (condition) return;
+        failures++;
+        console.println("FALHOU: " + message);
+    }
+}